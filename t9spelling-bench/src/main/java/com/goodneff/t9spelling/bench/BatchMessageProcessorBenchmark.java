@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.bench;
+
+import com.goodneff.t9spelling.cmd.DecoratingMessageProcessor;
+import com.goodneff.t9spelling.core.EncodedBatch;
+import com.goodneff.t9spelling.core.IBatchMessageProcessor;
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9BatchMessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9TableMessageProcessor;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the per-message and the batch encoding of many short cases.
+ *
+ * <p>Both paths produce the "Case #N: ..." lines of the same generated cases, see {@link
+ * Messages#input(int)}.
+ *
+ * @author Alexey Gudnev
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchMessageProcessorBenchmark {
+  @Param({"100000"})
+  private int cases;
+
+  private List<String> messages;
+  private IMessageProcessor messageProcessor;
+  private IBatchMessageProcessor batchMessageProcessor;
+
+  /** Prepares the cases and the processors. */
+  @Setup
+  public void setUp() {
+    String[] lines = Messages.input(cases).split("\n", -1);
+    messages = Arrays.asList(lines).subList(1, cases + 1);
+    messageProcessor = new T9TableMessageProcessor();
+    batchMessageProcessor = new T9BatchMessageProcessor();
+  }
+
+  /**
+   * Measures a {@link DecoratingMessageProcessor} per case and a string per result.
+   *
+   * @return the number of written characters.
+   */
+  @Benchmark
+  public int perMessage() {
+    List<String> results = new ArrayList<>(messages.size());
+    for (int index = 0; index < messages.size(); index++) {
+      results.add(
+          new DecoratingMessageProcessor(messageProcessor, index + 1).process(messages.get(index)));
+    }
+    StringWriter writer = new StringWriter();
+    for (String result : results) {
+      writer.write(result);
+      writer.write(System.lineSeparator());
+    }
+    return writer.getBuffer().length();
+  }
+
+  /**
+   * Measures {@link T9BatchMessageProcessor#process(List)} and {@link
+   * EncodedBatch#writeCases(java.io.Writer, int)}.
+   *
+   * @return the number of written characters.
+   * @throws IOException never, the writer is in memory.
+   */
+  @Benchmark
+  public int batch() throws IOException {
+    EncodedBatch batch = batchMessageProcessor.process(messages);
+    StringWriter writer = new StringWriter();
+    batch.writeCases(writer, 1);
+    return writer.getBuffer().length();
+  }
+}
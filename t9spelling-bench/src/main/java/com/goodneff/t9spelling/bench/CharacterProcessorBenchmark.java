@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.bench;
+
+import com.goodneff.t9spelling.core.ICharacterProcessor;
+import com.goodneff.t9spelling.core.ICharacterProcessorFactory;
+import com.goodneff.t9spelling.internal.core.T9CharacterProcessor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the single character processing.
+ *
+ * <p>The characters are the first and the last ones of the longest T9 key, so the benchmarks show
+ * the cost of the character position in the key.
+ *
+ * @author Alexey Gudnev
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CharacterProcessorBenchmark {
+  @Param({"w", "z"})
+  private String character;
+
+  private char value;
+  private ICharacterProcessor processor;
+  private ICharacterProcessorFactory factory;
+
+  /** Prepares the processor and the factory. */
+  @Setup
+  public void setUp() {
+    value = character.charAt(0);
+    processor = new T9CharacterProcessor((byte) 9, 'w', 'x', 'y', 'z');
+    factory = ICharacterProcessorFactory.INSTANCE;
+  }
+
+  /**
+   * Measures {@link T9CharacterProcessor#process(char)}.
+   *
+   * @return the processing result.
+   */
+  @Benchmark
+  public String process() {
+    return processor.process(value);
+  }
+
+  /**
+   * Measures {@link ICharacterProcessorFactory#getOrCreateProcessor(char)}.
+   *
+   * @return the found processor.
+   */
+  @Benchmark
+  public ICharacterProcessor getOrCreateProcessor() {
+    return factory.getOrCreateProcessor(value);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.bench;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9ParallelMessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9TableMessageProcessor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the serial and the parallel encoding of a single very large message.
+ *
+ * <p>The parallel processor runs on the common pool, use {@code -jvmArgsAppend
+ * -Djava.util.concurrent.ForkJoinPool.common.parallelism=N} to change the number of its workers.
+ *
+ * @author Alexey Gudnev
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LargeMessageBenchmark {
+  @Param({"67108864"})
+  private int length;
+
+  private String message;
+  private IMessageProcessor tableMessageProcessor;
+  private IMessageProcessor parallelMessageProcessor;
+
+  /** Prepares the message and the processors. */
+  @Setup
+  public void setUp() {
+    message = Messages.generate(length);
+    tableMessageProcessor = new T9TableMessageProcessor();
+    parallelMessageProcessor = new T9ParallelMessageProcessor();
+  }
+
+  /**
+   * Measures {@link T9TableMessageProcessor#process(String)}.
+   *
+   * @return the processing result.
+   */
+  @Benchmark
+  public String tableMessageProcessor() {
+    return tableMessageProcessor.process(message);
+  }
+
+  /**
+   * Measures {@link T9ParallelMessageProcessor#process(String)}.
+   *
+   * @return the processing result.
+   */
+  @Benchmark
+  public String parallelMessageProcessor() {
+    return parallelMessageProcessor.process(message);
+  }
+}
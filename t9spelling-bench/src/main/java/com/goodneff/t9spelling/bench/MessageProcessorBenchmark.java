@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.bench;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import com.goodneff.t9spelling.core.IMessageDecoder;
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.KeypressStatistics;
+import com.goodneff.t9spelling.internal.core.T9AsciiMessageEncoder;
+import com.goodneff.t9spelling.internal.core.T9CachingMessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9KeypressAnalyzer;
+import com.goodneff.t9spelling.internal.core.T9MessageDecoder;
+import com.goodneff.t9spelling.internal.core.T9MessageMetrics;
+import com.goodneff.t9spelling.internal.core.T9MessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9MeteredMessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9TableMessageProcessor;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the message encoding paths.
+ *
+ * <p>Every encoding path is measured over the same set of messages, see {@link Messages}.
+ *
+ * @author Alexey Gudnev
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageProcessorBenchmark {
+  @Param({Messages.SHORT, Messages.LONG, Messages.REPEATED_KEYS, Messages.SPACES})
+  private String kind;
+
+  private String message;
+  private IMessageProcessor messageProcessor;
+  private IMessageProcessor tableMessageProcessor;
+  private StringBuilder output;
+  private T9AsciiMessageEncoder asciiEncoder;
+  private ByteBuffer asciiMessage;
+  private ByteBuffer asciiOutput;
+  private IMessageProcessor cachingMessageProcessor;
+  private IMessageProcessor meteredMessageProcessor;
+  private IMessageDecoder decoder;
+  private T9KeypressAnalyzer keypressAnalyzer;
+  private KeypressStatistics statistics;
+  private String encoded;
+
+  /** Prepares the message and the processors. */
+  @Setup
+  public void setUp() {
+    message = Messages.generate(kind);
+    messageProcessor = new T9MessageProcessor();
+    tableMessageProcessor = new T9TableMessageProcessor();
+    output = new StringBuilder();
+    asciiEncoder = new T9AsciiMessageEncoder();
+    asciiMessage = ByteBuffer.wrap(message.getBytes(US_ASCII));
+    asciiOutput = ByteBuffer.allocateDirect((int) asciiEncoder.maxEncodedLength(message.length()));
+    cachingMessageProcessor = new T9CachingMessageProcessor(10_000);
+    meteredMessageProcessor =
+        new T9MeteredMessageProcessor(tableMessageProcessor, new T9MessageMetrics());
+    decoder = new T9MessageDecoder();
+    keypressAnalyzer = new T9KeypressAnalyzer();
+    statistics = new KeypressStatistics();
+    encoded = tableMessageProcessor.process(message);
+  }
+
+  /**
+   * Measures {@link T9MessageProcessor#process(String)}.
+   *
+   * @return the processing result.
+   */
+  @Benchmark
+  public String messageProcessor() {
+    return messageProcessor.process(message);
+  }
+
+  /**
+   * Measures {@link T9TableMessageProcessor#process(String)}.
+   *
+   * @return the processing result.
+   */
+  @Benchmark
+  public String tableMessageProcessor() {
+    return tableMessageProcessor.process(message);
+  }
+
+  /**
+   * Measures {@link T9TableMessageProcessor#process(CharSequence, StringBuilder)} with a reused
+   * output.
+   *
+   * @return the output length.
+   */
+  @Benchmark
+  public int tableMessageProcessorIntoBuilder() {
+    output.setLength(0);
+    tableMessageProcessor.process(message, output);
+    return output.length();
+  }
+
+  /**
+   * Measures {@link T9CachingMessageProcessor#process(CharSequence, StringBuilder)} with a reused
+   * output.
+   *
+   * @return the output length.
+   */
+  @Benchmark
+  public int cachingMessageProcessorIntoBuilder() {
+    output.setLength(0);
+    cachingMessageProcessor.process(message, output);
+    return output.length();
+  }
+
+  /**
+   * Measures {@link T9MeteredMessageProcessor#process(CharSequence, StringBuilder)} with a reused
+   * output, i.e. the metering overhead over {@link #tableMessageProcessorIntoBuilder()}.
+   *
+   * @return the output length.
+   */
+  @Benchmark
+  public int meteredMessageProcessorIntoBuilder() {
+    output.setLength(0);
+    meteredMessageProcessor.process(message, output);
+    return output.length();
+  }
+
+  /**
+   * Measures {@link T9AsciiMessageEncoder#encode(ByteBuffer, int, int, ByteBuffer)} with a reused
+   * direct output buffer.
+   *
+   * @return the number of encoded bytes.
+   */
+  @Benchmark
+  public int asciiEncoder() {
+    asciiOutput.clear();
+    return asciiEncoder.encode(asciiMessage, 0, asciiMessage.limit(), asciiOutput);
+  }
+
+  /**
+   * Measures {@link T9MessageDecoder#decode(CharSequence, StringBuilder)} of the encoded message
+   * with a reused output.
+   *
+   * @return the output length.
+   */
+  @Benchmark
+  public int decoderIntoBuilder() {
+    output.setLength(0);
+    decoder.decode(encoded, output);
+    return output.length();
+  }
+
+  /**
+   * Measures {@link T9KeypressAnalyzer#analyze(CharSequence, KeypressStatistics)} with reused
+   * statistics, i.e. the cost of the keypress figures without the encoded message.
+   *
+   * @return the number of key presses.
+   */
+  @Benchmark
+  public long keypressAnalyzer() {
+    keypressAnalyzer.analyze(message, statistics);
+    return statistics.getPressCount();
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.bench;
+
+import java.util.Random;
+
+/**
+ * A generator of benchmark messages.
+ *
+ * <p>All messages are generated with a fixed seed, so every run measures the same input.
+ *
+ * @author Alexey Gudnev
+ */
+final class Messages {
+  /** A short natural message. */
+  static final String SHORT = "short";
+  /** A long message of random supported characters. */
+  static final String LONG = "long";
+  /** A long message where most of the neighbour characters are on the same key. */
+  static final String REPEATED_KEYS = "repeated-keys";
+  /** A long message that mostly consists of spaces. */
+  static final String SPACES = "spaces";
+
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz ";
+  private static final int LONG_LENGTH = 4096;
+  private static final long SEED = 42L;
+
+  private Messages() {}
+
+  /**
+   * Generates a message of the specified {@code kind}.
+   *
+   * @param kind the message kind, one of the constants of the class.
+   * @return a generated message, never {@code null}.
+   * @throws IllegalArgumentException if the kind is unknown.
+   */
+  static String generate(String kind) {
+    switch (kind) {
+      case SHORT:
+        return "hello world";
+      case LONG:
+        return random(new Random(SEED), LONG_LENGTH);
+      case REPEATED_KEYS:
+        return repeat("aaabbbcccpqrsss", LONG_LENGTH);
+      case SPACES:
+        return repeat("a    b     c      ", LONG_LENGTH);
+      default:
+        throw new IllegalArgumentException("Unknown message kind: " + kind);
+    }
+  }
+
+  /**
+   * Generates an input in the T9 Spelling format with the specified number of short random cases.
+   *
+   * @param cases the number of cases.
+   * @return a generated input, never {@code null}.
+   */
+  static String input(int cases) {
+    Random random = new Random(SEED);
+    StringBuilder sb = new StringBuilder().append(cases).append('\n');
+    for (int i = 0; i < cases; i++) {
+      sb.append(random(random, random.nextInt(64))).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Generates a message of random supported characters of the specified {@code length}.
+   *
+   * @param length the message length.
+   * @return a generated message, never {@code null}.
+   */
+  static String generate(int length) {
+    return random(new Random(SEED), length);
+  }
+
+  private static String random(Random random, int length) {
+    char[] message = new char[length];
+    for (int i = 0; i < length; i++) {
+      message[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+    }
+    return String.valueOf(message);
+  }
+
+  private static String repeat(String pattern, int length) {
+    StringBuilder sb = new StringBuilder(length);
+    while (sb.length() < length) {
+      sb.append(pattern, 0, Math.min(pattern.length(), length - sb.length()));
+    }
+    return sb.toString();
+  }
+}
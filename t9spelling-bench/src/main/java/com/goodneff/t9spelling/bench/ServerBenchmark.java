@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.bench;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.goodneff.t9spelling.cmd.LineProtocolServer;
+import com.goodneff.t9spelling.internal.core.T9Engine;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load benchmarks of {@link LineProtocolServer} on localhost.
+ *
+ * <p>Every benchmark thread has its own connection and sends a batch of pipelined messages per
+ * invocation, then reads all the responses. Use {@code -t} to change the number of concurrent
+ * connections.
+ *
+ * @author Alexey Gudnev
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ServerBenchmark {
+
+  /** The server shared by all the benchmark threads. */
+  @State(Scope.Benchmark)
+  public static class ServerState {
+    private LineProtocolServer server;
+
+    /**
+     * Starts the server on a free port.
+     *
+     * @throws IOException if the server cannot be started.
+     */
+    @Setup
+    public void setUp() throws IOException {
+      server = new LineProtocolServer(T9Engine.DEFAULT.getMessageProcessor(), 0);
+      server.start();
+    }
+
+    /**
+     * Stops the server.
+     *
+     * @throws IOException if the server cannot be stopped.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+      server.close();
+    }
+  }
+
+  /** The connection of a benchmark thread. */
+  @State(Scope.Thread)
+  public static class ConnectionState {
+    @Param({"1", "100"})
+    private int batchSize;
+
+    private Socket socket;
+    private OutputStream out;
+    private BufferedReader in;
+    private byte[] batch;
+
+    /**
+     * Connects to the server and prepares the batch.
+     *
+     * @param server the server state.
+     * @throws IOException if the connection cannot be established.
+     */
+    @Setup
+    public void setUp(ServerState server) throws IOException {
+      socket = new Socket(InetAddress.getLoopbackAddress(), server.server.getPort());
+      socket.setTcpNoDelay(true);
+      out = socket.getOutputStream();
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+
+      StringBuilder sb = new StringBuilder();
+      String[] lines = Messages.input(batchSize).split("\n");
+      for (int i = 1; i < lines.length; i++) {
+        sb.append(lines[i]).append('\n');
+      }
+      batch = sb.toString().getBytes(UTF_8);
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @throws IOException if the connection cannot be closed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+      socket.close();
+    }
+  }
+
+  /**
+   * Measures a round trip of a batch of pipelined messages.
+   *
+   * @param connection the connection of the benchmark thread.
+   * @return the total length of the responses.
+   * @throws IOException if an I/O error occurs.
+   */
+  @Benchmark
+  public int roundTrip(ConnectionState connection) throws IOException {
+    connection.out.write(connection.batch);
+    connection.out.flush();
+    int length = 0;
+    for (int i = 0; i < connection.batchSize; i++) {
+      length += connection.in.readLine().length();
+    }
+    return length;
+  }
+}
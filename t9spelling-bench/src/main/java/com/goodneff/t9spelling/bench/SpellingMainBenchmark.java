@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.bench;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import com.goodneff.t9spelling.cmd.T9SpellingMain;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end benchmarks of {@link T9SpellingMain}.
+ *
+ * <p>Every invocation runs the application over the whole generated input in the specified mode.
+ * The standard input and output are replaced with in-memory streams, the memory-mapped mode uses
+ * temporary files.
+ *
+ * @author Alexey Gudnev
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpellingMainBenchmark {
+  @Param({"", "--stream", "--parallel", "--mmap", "--analyze"})
+  private String mode;
+
+  @Param({"10000"})
+  private int cases;
+
+  private byte[] input;
+  private String[] args;
+  private Path inputFile;
+  private Path outputFile;
+  private InputStream originalIn;
+  private PrintStream originalOut;
+  private CountingOutputStream output;
+
+  /**
+   * Generates the input and replaces the standard streams.
+   *
+   * @throws IOException if the temporary files cannot be created.
+   */
+  @Setup
+  public void setUp() throws IOException {
+    input = Messages.input(cases).getBytes(US_ASCII);
+    inputFile = Files.createTempFile("t9-bench", ".in");
+    outputFile = Files.createTempFile("t9-bench", ".out");
+    Files.write(inputFile, input);
+    args =
+        "--mmap".equals(mode)
+            ? new String[] {mode, inputFile.toString(), outputFile.toString()}
+            : mode.isEmpty() ? new String[0] : new String[] {mode};
+
+    originalIn = System.in;
+    originalOut = System.out;
+    output = new CountingOutputStream();
+    System.setOut(new PrintStream(output));
+  }
+
+  /**
+   * Restores the standard streams and removes the temporary files.
+   *
+   * @throws IOException if the temporary files cannot be removed.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    System.setIn(originalIn);
+    System.setOut(originalOut);
+    Files.deleteIfExists(inputFile);
+    Files.deleteIfExists(outputFile);
+  }
+
+  /**
+   * Measures the whole input to output path.
+   *
+   * @return the number of bytes written to the standard output.
+   */
+  @Benchmark
+  public long main() {
+    System.setIn(new ByteArrayInputStream(input));
+    T9SpellingMain.main(args);
+    System.out.flush();
+    return output.count;
+  }
+
+  private static final class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.bench;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup benchmarks of the executable JAR.
+ *
+ * <p>Every invocation launches a new JVM with the application, sends a small input and measures the
+ * time until the first line of the output is received, i.e. the time a short-lived invocation
+ * spends mostly on the JVM startup and the class loading. The process is awaited outside the
+ * measurement.
+ *
+ * <p>The JAR and the AppCDS archive are looked up relative to the working directory, so the
+ * benchmark is expected to run from the repository directory after {@code mvn package}. Use {@code
+ * -p jar=...} to specify another JAR, the archive is expected next to it.
+ *
+ * @author Alexey Gudnev
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+  private static final String ARCHIVE_NAME = "t9spelling-cmd.jsa";
+
+  @Param({"t9spelling-cmd/target/t9spelling-cmd-0.0.1-SNAPSHOT-jar-with-dependencies.jar"})
+  private String jar;
+
+  @Param({"false", "true"})
+  private boolean sharedArchive;
+
+  private List<String> command;
+  private byte[] input;
+  private Process process;
+
+  /** Checks the JAR and the archive and prepares the command line. */
+  @Setup
+  public void setUp() {
+    Path jarFile = Paths.get(jar);
+    Path archiveFile = jarFile.resolveSibling(ARCHIVE_NAME);
+    if (!Files.isRegularFile(jarFile)) {
+      throw new IllegalStateException("The executable JAR is not found: " + jarFile);
+    }
+    if (sharedArchive && !Files.isRegularFile(archiveFile)) {
+      throw new IllegalStateException("The AppCDS archive is not found: " + archiveFile);
+    }
+
+    command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    if (sharedArchive) {
+      command.add("-XX:SharedArchiveFile=" + archiveFile);
+    }
+    command.add("-jar");
+    command.add(jarFile.toString());
+    input = Messages.input(10).getBytes(US_ASCII);
+  }
+
+  /**
+   * Waits for the application to finish.
+   *
+   * @throws InterruptedException if the thread is interrupted.
+   */
+  @TearDown(Level.Invocation)
+  public void tearDown() throws InterruptedException {
+    if (process != null) {
+      process.waitFor();
+      process = null;
+    }
+  }
+
+  /**
+   * Measures the time to the first output line.
+   *
+   * @return the first output line.
+   * @throws IOException if the application cannot be launched.
+   */
+  @Benchmark
+  public String timeToFirstOutput() throws IOException {
+    process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+    try (OutputStream stdin = process.getOutputStream()) {
+      stdin.write(input);
+    }
+    BufferedReader stdout =
+        new BufferedReader(new InputStreamReader(process.getInputStream(), US_ASCII));
+    String line = stdout.readLine();
+    if (line == null) {
+      throw new IllegalStateException("The application has produced no output");
+    }
+    return line;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.bench;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import com.goodneff.t9spelling.core.IAsciiMessageEncoder;
+import com.goodneff.t9spelling.internal.core.T9AsciiMessageEncoder;
+import com.goodneff.t9spelling.internal.core.T9VectorMessageEncoder;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the scalar and the vectorized ASCII encoders.
+ *
+ * <p>Both encoders write the same multi-kilobyte messages into a direct buffer, see {@link
+ * Messages}.
+ *
+ * @author Alexey Gudnev
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class VectorEncoderBenchmark {
+  @Param({Messages.LONG, Messages.REPEATED_KEYS, Messages.SPACES})
+  private String kind;
+
+  private IAsciiMessageEncoder asciiEncoder;
+  private IAsciiMessageEncoder vectorEncoder;
+  private ByteBuffer input;
+  private ByteBuffer output;
+
+  /** Prepares the message and the encoders. */
+  @Setup
+  public void setUp() {
+    String message = Messages.generate(kind);
+    asciiEncoder = new T9AsciiMessageEncoder();
+    vectorEncoder = new T9VectorMessageEncoder();
+    input = ByteBuffer.wrap(message.getBytes(US_ASCII));
+    output = ByteBuffer.allocateDirect((int) asciiEncoder.maxEncodedLength(message.length()));
+  }
+
+  /**
+   * Measures {@link T9AsciiMessageEncoder#encode(ByteBuffer, int, int, ByteBuffer)}.
+   *
+   * @return the number of encoded bytes.
+   */
+  @Benchmark
+  public int asciiEncoder() {
+    output.clear();
+    return asciiEncoder.encode(input, 0, input.limit(), output);
+  }
+
+  /**
+   * Measures {@link T9VectorMessageEncoder#encode(ByteBuffer, int, int, ByteBuffer)}.
+   *
+   * @return the number of encoded bytes.
+   */
+  @Benchmark
+  public int vectorEncoder() {
+    output.clear();
+    return vectorEncoder.encode(input, 0, input.limit(), output);
+  }
+}
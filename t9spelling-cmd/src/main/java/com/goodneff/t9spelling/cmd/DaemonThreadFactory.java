@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The factory of the daemon worker threads, so the workers never keep the application alive. The
+ * threads are named by the prefix and a sequence number, e.g. {@code t9-worker-1}.
+ *
+ * @author Alexey Gudnev
+ */
+final class DaemonThreadFactory implements ThreadFactory {
+  private final String prefix;
+  private final AtomicInteger counter = new AtomicInteger();
+
+  /**
+   * Instantiates a new thread factory.
+   *
+   * @param prefix the prefix of the thread names, cannot be {@code null}.
+   */
+  DaemonThreadFactory(String prefix) {
+    if (prefix == null) {
+      throw new IllegalArgumentException("The thread name prefix cannot be 'null'");
+    }
+    this.prefix = prefix;
+  }
+
+  @Override
+  public Thread newThread(Runnable runnable) {
+    Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  }
+}
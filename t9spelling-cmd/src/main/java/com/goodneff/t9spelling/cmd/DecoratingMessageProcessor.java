@@ -5,6 +5,7 @@
 package com.goodneff.t9spelling.cmd;
 
 import com.goodneff.t9spelling.core.IMessageProcessor;
+import java.io.IOException;
 
 /**
  * A decorating message processor.
@@ -12,9 +13,15 @@ import com.goodneff.t9spelling.core.IMessageProcessor;
  * <p>It adds the leading "Case #N:" to the {@code origin} message processor, where N is an integer
  * representing the case sequence number.
  *
+ * <p>When the result is written into a caller-owned output, the prefix is written directly into the
+ * output without any intermediate strings.
+ *
  * @author Alexey Gudnev
  */
 public final class DecoratingMessageProcessor implements IMessageProcessor {
+  private static final String PREFIX = "Case #";
+  private static final String SEPARATOR = ": ";
+
   private final IMessageProcessor origin;
   private final int caseNo;
 
@@ -34,8 +41,52 @@ public final class DecoratingMessageProcessor implements IMessageProcessor {
 
   @Override
   public String process(String message) {
-    StringBuilder sb = new StringBuilder("Case #");
-    sb.append(caseNo).append(": ").append(origin.process(message));
+    StringBuilder sb = new StringBuilder();
+    process(message, sb);
     return sb.toString();
   }
+
+  @Override
+  public void process(CharSequence message, StringBuilder output) {
+    if (output == null) {
+      throw new IllegalArgumentException("The 'output' argument cannot be null");
+    }
+    int length = output.length();
+    output.append(PREFIX).append(caseNo).append(SEPARATOR);
+    try {
+      origin.process(message, output);
+    } catch (RuntimeException ex) {
+      output.setLength(length);
+      throw ex;
+    }
+  }
+
+  @Override
+  public void process(CharSequence message, Appendable output) throws IOException {
+    if (output instanceof StringBuilder) {
+      process(message, (StringBuilder) output);
+      return;
+    }
+    if (output == null) {
+      throw new IllegalArgumentException("The 'output' argument cannot be null");
+    }
+    output.append(PREFIX);
+    appendNumber(caseNo, output);
+    output.append(SEPARATOR);
+    origin.process(message, output);
+  }
+
+  private static void appendNumber(int number, Appendable output) throws IOException {
+    if (number < 0) {
+      output.append('-');
+    }
+    long value = Math.abs((long) number);
+    long divisor = 1;
+    while (divisor * 10 <= value) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      output.append((char) ('0' + value / divisor % 10));
+    }
+  }
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * A directory case processor.
+ *
+ * <p>It processes many input files in the T9 Spelling format in a single run. Every file is
+ * streamed by a {@link StreamingCaseProcessor} to the output file of the same name in the output
+ * directory, the files are processed on a pool of workers. The largest files are scheduled first,
+ * so a big file does not start at the very end and keep a single worker busy after all the other
+ * ones are done.
+ *
+ * <p>A file that cannot be processed does not stop the other ones. Every file is reported with its
+ * number of cases and processing time or with its error as soon as it is done. The output file is
+ * written to a temporary file first and replaces the previous one only if the whole input has been
+ * processed, so a failed file never leaves a partial output.
+ *
+ * <p><strong>NOTE:</strong> The message processor is shared by all the workers, so it must be
+ * thread-safe.
+ *
+ * @author Alexey Gudnev
+ * @see StreamingCaseProcessor
+ */
+public final class DirectoryCaseProcessor {
+  private final IMessageProcessor processor;
+  private final int workers;
+
+  /**
+   * Instantiates a new case processor.
+   *
+   * @param processor the thread-safe message processor to apply to each case, cannot be {@code
+   *     null}.
+   * @param workers the number of worker threads, must be positive.
+   */
+  public DirectoryCaseProcessor(IMessageProcessor processor, int workers) {
+    if (processor == null) {
+      throw new IllegalArgumentException("The message processor cannot be 'null'");
+    }
+    if (workers <= 0) {
+      throw new IllegalArgumentException("The number of workers must be positive");
+    }
+    this.processor = processor;
+    this.workers = workers;
+  }
+
+  /**
+   * Lists the input files of the {@code location}.
+   *
+   * @param location a directory, all the regular files of which are listed, or a glob pattern of
+   *     the file names in a directory, e.g. {@code data/*.txt}, cannot be {@code null}.
+   * @return the input files sorted by name, never {@code null}.
+   * @throws IOException if the directory cannot be listed.
+   */
+  public static List<Path> listInputs(String location) throws IOException {
+    if (location == null) {
+      throw new IllegalArgumentException("The 'location' argument cannot be null");
+    }
+    Path path = Paths.get(location);
+    Path directory = path;
+    PathMatcher matcher = file -> true;
+    if (!Files.isDirectory(path)) {
+      directory = path.getParent() == null ? Paths.get("") : path.getParent();
+      matcher = FileSystems.getDefault().getPathMatcher("glob:" + path.getFileName());
+    }
+
+    List<Path> result = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path file : stream) {
+        if (Files.isRegularFile(file) && matcher.matches(file.getFileName())) {
+          result.add(file);
+        }
+      }
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  /**
+   * Processes all the {@code inputs} and writes the results to the files of the same names in the
+   * {@code outputDirectory}.
+   *
+   * <p>The {@code listener} is called on the calling thread as soon as every next file is done.
+   *
+   * @param inputs the input files, cannot be {@code null}.
+   * @param outputDirectory the output directory, it is created if it does not exist, cannot be
+   *     {@code null}.
+   * @param listener the listener of the processed files, cannot be {@code null}.
+   * @return the reports of all the files in the order of completion.
+   * @throws IOException if the output directory cannot be created or the processing is interrupted.
+   */
+  public List<FileReport> process(
+      List<Path> inputs, Path outputDirectory, Consumer<FileReport> listener) throws IOException {
+    if (inputs == null || outputDirectory == null || listener == null) {
+      throw new IllegalArgumentException(
+          "The 'inputs', 'outputDirectory' and 'listener' arguments cannot be null");
+    }
+    Files.createDirectories(outputDirectory);
+
+    // every file is sized once, a failed one is scheduled last and reported anyway
+    Map<Path, Long> sizes = new HashMap<>();
+    for (Path input : inputs) {
+      sizes.put(input, sizeOf(input));
+    }
+    List<Path> scheduled = new ArrayList<>(inputs);
+    scheduled.sort(Comparator.<Path>comparingLong(sizes::get).reversed());
+
+    ExecutorService pool =
+        Executors.newFixedThreadPool(workers, new DaemonThreadFactory("t9-file-worker-"));
+    try {
+      CompletionService<FileReport> completion = new ExecutorCompletionService<>(pool);
+      for (Path input : scheduled) {
+        Path output = outputDirectory.resolve(input.getFileName().toString());
+        completion.submit(() -> process(input, output));
+      }
+
+      List<FileReport> reports = new ArrayList<>(scheduled.size());
+      for (int i = 0; i < scheduled.size(); i++) {
+        FileReport report = completion.take().get();
+        reports.add(report);
+        listener.accept(report);
+      }
+      return reports;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("The processing has been interrupted");
+    } catch (ExecutionException ex) {
+      // the file errors are reported, anything else is a bug
+      throw new IllegalStateException("The file processing has failed", ex.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private FileReport process(Path input, Path output) {
+    long start = System.nanoTime();
+    int cases = 0;
+    Throwable error = null;
+    try {
+      if (Files.exists(output) && Files.isSameFile(input, output)) {
+        throw new IOException("The output file is the input file");
+      }
+      // the result is written next to the output and replaces it only when it is complete
+      Path temporary =
+          Files.createTempFile(
+              output.toAbsolutePath().getParent(), output.getFileName() + ".", ".tmp");
+      try {
+        try (BufferedReader reader = Files.newBufferedReader(input, UTF_8);
+            Writer writer = Files.newBufferedWriter(temporary, UTF_8)) {
+          cases = new StreamingCaseProcessor(processor).process(reader, writer);
+        }
+        Files.move(
+            temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException | RuntimeException ex) {
+      cases = 0;
+      error = ex;
+    }
+    return new FileReport(input, output, cases, System.nanoTime() - start, error);
+  }
+
+  private static long sizeOf(Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException ex) {
+      return 0;
+    }
+  }
+
+  /** The report of a single processed file. */
+  public static final class FileReport {
+    private final Path input;
+    private final Path output;
+    private final int cases;
+    private final long nanos;
+    private final Throwable error;
+
+    private FileReport(Path input, Path output, int cases, long nanos, Throwable error) {
+      this.input = input;
+      this.output = output;
+      this.cases = cases;
+      this.nanos = nanos;
+      this.error = error;
+    }
+
+    /**
+     * Returns the input file.
+     *
+     * @return the input file, never {@code null}.
+     */
+    public Path getInput() {
+      return input;
+    }
+
+    /**
+     * Returns the output file.
+     *
+     * @return the output file, never {@code null}.
+     */
+    public Path getOutput() {
+      return output;
+    }
+
+    /**
+     * Returns the number of the processed cases, it is zero if the file has failed.
+     *
+     * @return the number of the processed cases.
+     */
+    public int getCases() {
+      return cases;
+    }
+
+    /**
+     * Returns the time of the processing of the file including the I/O.
+     *
+     * @return the processing time in nanoseconds.
+     */
+    public long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * Returns the error of the file.
+     *
+     * @return the error or {@code null} if the file has been processed successfully.
+     */
+    public Throwable getError() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      if (error != null) {
+        return MessageFormat.format(
+            "{0}: failed in {1,number,#} ms: {2}", input, nanos / 1_000_000, error.getMessage());
+      }
+      return MessageFormat.format(
+          "{0}: {1,number,#} cases in {2,number,#} ms", input, cases, nanos / 1_000_000);
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A TCP server of a line-based protocol.
+ *
+ * <p>A client sends messages one per line and receives the processed messages one per line in the
+ * same order. If a message cannot be processed, the response line is {@code "ERR "} followed by the
+ * error description. Since the processed messages consist of key symbols and pauses only, the error
+ * lines never clash with them.
+ *
+ * <p>The requests may be pipelined. The server reads and processes all the requests that are
+ * already received and flushes the responses only when the client has nothing more in flight, so a
+ * single round trip can carry any number of messages.
+ *
+ * <p>A request line is limited to {@link #MAX_LINE_LENGTH} characters. The rest of a longer line is
+ * skipped and the line is answered with an error, so a client cannot exhaust the memory of the
+ * server.
+ *
+ * <p>Every connection is served by its own thread. The virtual threads are used when the runtime
+ * supports them (Java 21 or newer), the platform ones are used otherwise.
+ *
+ * <p><strong>NOTE:</strong> The message processor is shared by all the connections, so it must be
+ * thread-safe.
+ *
+ * @author Alexey Gudnev
+ */
+public final class LineProtocolServer implements Closeable {
+  /** The prefix of the response line that reports an error. */
+  public static final String ERROR_PREFIX = "ERR ";
+
+  /** The maximal number of characters of a request line. */
+  public static final int MAX_LINE_LENGTH = 1 << 16;
+
+  private static final String LINE_SEPARATOR = "\n";
+  private static final int BUFFER_SIZE = 1 << 13;
+  private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+  private final IMessageProcessor processor;
+  private final ServerSocket serverSocket;
+  private final ExecutorService connections;
+  private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+  private final Thread acceptor;
+
+  /**
+   * Instantiates a server and binds it to the specified {@code port} of the loopback address. The
+   * server does not accept connections until it is started.
+   *
+   * @param processor the thread-safe message processor, cannot be {@code null}.
+   * @param port the port to listen to, {@code 0} means any free port.
+   * @throws IOException if the server cannot be bound.
+   */
+  public LineProtocolServer(IMessageProcessor processor, int port) throws IOException {
+    this(processor, port, InetAddress.getLoopbackAddress());
+  }
+
+  /**
+   * Instantiates a server and binds it to the specified {@code port} of the {@code address}. The
+   * server does not accept connections until it is started.
+   *
+   * @param processor the thread-safe message processor, cannot be {@code null}.
+   * @param port the port to listen to, {@code 0} means any free port.
+   * @param address the address to listen to, cannot be {@code null}.
+   * @throws IOException if the server cannot be bound.
+   */
+  public LineProtocolServer(IMessageProcessor processor, int port, InetAddress address)
+      throws IOException {
+    if (processor == null) {
+      throw new IllegalArgumentException("The message processor cannot be 'null'");
+    }
+    this.processor = processor;
+    this.serverSocket = new ServerSocket(port, 0, address);
+    this.connections = newConnectionExecutor();
+    this.acceptor = new Thread(this::accept, "t9-acceptor");
+  }
+
+  /** Starts accepting connections. */
+  public void start() {
+    acceptor.start();
+  }
+
+  /**
+   * Returns the port the server listens to.
+   *
+   * @return the port.
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Waits until the server is closed.
+   *
+   * @throws InterruptedException if the current thread is interrupted.
+   */
+  public void await() throws InterruptedException {
+    acceptor.join();
+  }
+
+  /**
+   * Stops accepting connections and closes the open ones.
+   *
+   * <p>The connections are closed, so the threads that are blocked reading the idle clients are
+   * released.
+   *
+   * @throws IOException if the server socket cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (Socket client : new ArrayList<>(clients)) {
+      closeQuietly(client);
+    }
+    connections.shutdownNow();
+    try {
+      connections.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException ex) {
+        if (serverSocket.isClosed()) {
+          break;
+        }
+        System.err.println("Cannot accept a connection: " + ex.getMessage());
+        // a persistent error, e.g. out of file descriptors, must not spin the acceptor
+        try {
+          Thread.sleep(ACCEPT_BACKOFF_MILLIS);
+        } catch (InterruptedException interrupted) {
+          break;
+        }
+        continue;
+      }
+      clients.add(socket);
+      // the server may be closed after the socket is accepted, but before it is tracked
+      if (serverSocket.isClosed()) {
+        clients.remove(socket);
+        closeQuietly(socket);
+        break;
+      }
+      connections.execute(() -> serve(socket));
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket client = socket;
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(client.getInputStream(), UTF_8), BUFFER_SIZE);
+        Writer writer =
+            new BufferedWriter(
+                new OutputStreamWriter(client.getOutputStream(), UTF_8), BUFFER_SIZE)) {
+      client.setTcpNoDelay(true);
+      StringBuilder line = new StringBuilder();
+      StringBuilder response = new StringBuilder();
+      while (readLine(reader, line)) {
+        response.setLength(0);
+        if (line.length() > MAX_LINE_LENGTH) {
+          response
+              .append(ERROR_PREFIX)
+              .append(
+                  MessageFormat.format(
+                      "The message is longer than {0,number,#} characters", MAX_LINE_LENGTH));
+        } else {
+          try {
+            processor.process(line, response);
+          } catch (RuntimeException ex) {
+            response.setLength(0);
+            response.append(ERROR_PREFIX).append(ex.getMessage());
+          }
+        }
+        response.append(LINE_SEPARATOR);
+        writer.append(response);
+
+        // all the pipelined requests are processed, it is time to send the responses
+        if (!reader.ready()) {
+          writer.flush();
+        }
+      }
+    } catch (SocketException ex) {
+      // the client or the server has closed the connection
+    } catch (IOException ex) {
+      System.err.println("The connection has failed: " + ex.getMessage());
+    } finally {
+      clients.remove(socket);
+    }
+  }
+
+  // Reads the next line without its terminator, the characters beyond the limit are skipped and
+  // only the one next to the limit is kept, so the caller can tell that the line is too long
+  private static boolean readLine(BufferedReader reader, StringBuilder line) throws IOException {
+    line.setLength(0);
+    int read = reader.read();
+    if (read < 0) {
+      return false;
+    }
+    boolean skipped = false;
+    for (; read >= 0 && read != '\n'; read = reader.read()) {
+      if (line.length() <= MAX_LINE_LENGTH) {
+        line.append((char) read);
+      } else {
+        skipped = true;
+      }
+    }
+    int last = line.length() - 1;
+    if (!skipped && last >= 0 && line.charAt(last) == '\r') {
+      line.setLength(last);
+    }
+    return true;
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException ex) {
+      // the connection is dropped anyway
+    }
+  }
+
+  private static ExecutorService newConnectionExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      return Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "t9-connection");
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import com.goodneff.t9spelling.core.IAsciiMessageEncoder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+
+/**
+ * A case processor for ASCII files.
+ *
+ * <p>It memory-maps the input file in windows, scans the lines as raw bytes and encodes them with
+ * {@link IAsciiMessageEncoder} straight into a reusable direct buffer that is written to the output
+ * channel. So there is no charset decoding or encoding and no per-case objects at all.
+ *
+ * <p>The input may use both "\n" and "\r\n" line endings. The output uses the platform line
+ * separator.
+ *
+ * @author Alexey Gudnev
+ * @see StreamingCaseProcessor
+ */
+public final class MappedFileCaseProcessor {
+  private static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+  private static final int MAX_NUMBER_LENGTH = 10;
+  private static final byte[] PREFIX = "Case #".getBytes(US_ASCII);
+  private static final byte[] SEPARATOR = ": ".getBytes(US_ASCII);
+  private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(US_ASCII);
+
+  private final IAsciiMessageEncoder encoder;
+  private final int windowSize;
+
+  /**
+   * Instantiates a new case processor.
+   *
+   * @param encoder the encoder to apply to each case, cannot be {@code null}.
+   */
+  public MappedFileCaseProcessor(IAsciiMessageEncoder encoder) {
+    this(encoder, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Instantiates a new case processor with the specified size of the mapped windows, e.g. a tiny
+   * one to test the lines across the windows.
+   *
+   * @param encoder the encoder to apply to each case, cannot be {@code null}.
+   * @param windowSize the maximal number of bytes mapped at once, must be positive. Every line with
+   *     its line ending must fit into a window.
+   */
+  /* package-private */ MappedFileCaseProcessor(IAsciiMessageEncoder encoder, int windowSize) {
+    if (encoder == null) {
+      throw new IllegalArgumentException("The encoder cannot be 'null'");
+    }
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("The window size must be positive");
+    }
+    this.encoder = encoder;
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * Processes all cases from the {@code input} file and writes results to the {@code output} file.
+   * The output file is created or truncated.
+   *
+   * @param input the input file, cannot be {@code null}.
+   * @param output the output file, cannot be {@code null}.
+   * @return the number of processed cases.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the input has incorrect format.
+   */
+  public int process(Path input, Path output) throws IOException {
+    try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+        FileChannel out =
+            FileChannel.open(
+                output,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+      return process(in, out);
+    }
+  }
+
+  /**
+   * Processes all cases from the {@code input} channel and writes results to the {@code output}
+   * channel.
+   *
+   * <p>If a case cannot be processed, all the preceding cases are written and the error is
+   * rethrown.
+   *
+   * @param input the input channel, cannot be {@code null}.
+   * @param output the output channel, cannot be {@code null}.
+   * @return the number of processed cases.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the input has incorrect format.
+   */
+  public int process(FileChannel input, WritableByteChannel output) throws IOException {
+    LineCursor cursor = new LineCursor(input, windowSize);
+    if (!cursor.next()) {
+      throw new IllegalArgumentException("Incorrect input format. Input is empty");
+    }
+    byte[] header = new byte[cursor.lineTo - cursor.lineFrom];
+    for (int i = 0; i < header.length; i++) {
+      header[i] = cursor.window.get(cursor.lineFrom + i);
+    }
+    int cases = StreamingCaseProcessor.parseCaseCount(new String(header, US_ASCII));
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+    int caseNo = 0;
+    try {
+      while (caseNo < cases && cursor.next()) {
+        caseNo++;
+        int length = cursor.lineTo - cursor.lineFrom;
+        long required =
+            PREFIX.length
+                + MAX_NUMBER_LENGTH
+                + SEPARATOR.length
+                + encoder.maxEncodedLength(length)
+                + LINE_SEPARATOR.length;
+        if (buffer.remaining() < required) {
+          flush(buffer, output);
+          if (buffer.capacity() < required) {
+            buffer = ByteBuffer.allocateDirect(Math.toIntExact(required));
+          }
+        }
+
+        int start = buffer.position();
+        try {
+          buffer.put(PREFIX);
+          putNumber(caseNo, buffer);
+          buffer.put(SEPARATOR);
+          encoder.encode(cursor.window, cursor.lineFrom, cursor.lineTo, buffer);
+          buffer.put(LINE_SEPARATOR);
+        } catch (RuntimeException ex) {
+          buffer.position(start);
+          throw ex;
+        }
+      }
+    } finally {
+      // the cases processed before a failure are written anyway
+      flush(buffer, output);
+    }
+
+    if (caseNo < cases) {
+      String msg =
+          MessageFormat.format(
+              "Incorrect input format. Expected {0,number,#} cases, but found {1,number,#}",
+              cases,
+              caseNo);
+      throw new IllegalArgumentException(msg);
+    }
+    return caseNo;
+  }
+
+  private static void flush(ByteBuffer buffer, WritableByteChannel output) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      output.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private static void putNumber(int number, ByteBuffer buffer) {
+    int divisor = 1;
+    while (divisor <= number / 10) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      buffer.put((byte) ('0' + number / divisor % 10));
+    }
+  }
+
+  /**
+   * Iterates over the lines of a file mapped window by window. A line is never split between
+   * windows, the next window starts from the beginning of the incomplete line.
+   */
+  private static final class LineCursor {
+    private final FileChannel channel;
+    private final int windowSize;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position;
+    private int lineFrom;
+    private int lineTo;
+
+    private LineCursor(FileChannel channel, int windowSize) throws IOException {
+      this.channel = channel;
+      this.windowSize = windowSize;
+      this.size = channel.size();
+      map(0);
+    }
+
+    private boolean next() throws IOException {
+      while (true) {
+        int limit = window.limit();
+        for (int i = position; i < limit; i++) {
+          if (window.get(i) == '\n') {
+            setLine(position, i);
+            position = i + 1;
+            return true;
+          }
+        }
+
+        if (windowStart + limit >= size) {
+          if (position < limit) {
+            setLine(position, limit);
+            position = limit;
+            return true;
+          }
+          return false;
+        }
+        if (position == 0) {
+          String msg =
+              MessageFormat.format(
+                  "Incorrect input format. The line at {0,number,#} is too long", windowStart);
+          throw new IllegalArgumentException(msg);
+        }
+        map(windowStart + position);
+      }
+    }
+
+    private void setLine(int from, int to) {
+      lineFrom = from;
+      lineTo = to > from && window.get(to - 1) == '\r' ? to - 1 : to;
+    }
+
+    private void map(long start) throws IOException {
+      long length = Math.min(windowSize, size - start);
+      window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+      windowStart = start;
+      position = 0;
+    }
+  }
+}
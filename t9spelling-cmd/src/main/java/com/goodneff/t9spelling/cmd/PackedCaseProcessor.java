@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import com.goodneff.t9spelling.core.IPackedMessageReader;
+import com.goodneff.t9spelling.core.IPackedMessageWriter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.MessageFormat;
+
+/**
+ * A packed case processor.
+ *
+ * <p>It packs the cases of the T9 Spelling input into the compact binary form and converts the
+ * packed cases back into the textual "Case #N: ..." lines. Only the key sequences are packed, the
+ * case numbers are restored from the order of the cases. Both directions handle the cases one by
+ * one, so the memory consumption does not depend on the number of cases.
+ *
+ * @author Alexey Gudnev
+ */
+public final class PackedCaseProcessor {
+  private static final String PREFIX = "Case #";
+  private static final String SEPARATOR = ": ";
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  /**
+   * Packs all cases from the {@code reader} to the {@code writer}.
+   *
+   * <p>The packed writer is not closed, it is up to the caller.
+   *
+   * @param reader the input reader, cannot be {@code null}.
+   * @param writer the packed writer, cannot be {@code null}.
+   * @return the number of packed cases.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the input has incorrect format.
+   */
+  public int pack(BufferedReader reader, IPackedMessageWriter writer) throws IOException {
+    int cases = StreamingCaseProcessor.readCaseCount(reader);
+    int caseNo = 0;
+    String line;
+    while (caseNo < cases && (line = reader.readLine()) != null) {
+      caseNo++;
+      writer.write(line);
+    }
+
+    if (caseNo < cases) {
+      String msg =
+          MessageFormat.format(
+              "Incorrect input format. Expected {0,number,#} cases, but found {1,number,#}",
+              cases,
+              caseNo);
+      throw new IllegalArgumentException(msg);
+    }
+    return caseNo;
+  }
+
+  /**
+   * Packs all cases from the {@code reader} to the {@code writer} and closes the writer.
+   *
+   * <p>The packed stream is terminated only if all cases are packed. Otherwise the writer is
+   * aborted, so the incomplete stream is rejected by a reader rather than taken for a shorter one.
+   *
+   * @param reader the input reader, cannot be {@code null}.
+   * @param writer the packed writer, cannot be {@code null}.
+   * @return the number of packed cases.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the input has incorrect format.
+   */
+  public int packAndClose(BufferedReader reader, IPackedMessageWriter writer) throws IOException {
+    int cases;
+    try {
+      cases = pack(reader, writer);
+    } catch (IOException | RuntimeException ex) {
+      try {
+        writer.abort();
+      } catch (IOException abortEx) {
+        ex.addSuppressed(abortEx);
+      }
+      throw ex;
+    }
+    writer.close();
+    return cases;
+  }
+
+  /**
+   * Unpacks all cases from the {@code reader} and writes them as text to the {@code writer}.
+   *
+   * <p>The writer is not flushed or closed, it is up to the caller.
+   *
+   * @param reader the packed reader, cannot be {@code null}.
+   * @param writer the output writer, cannot be {@code null}.
+   * @return the number of unpacked cases.
+   * @throws IOException if an I/O error occurs or the packed input is malformed.
+   */
+  public int unpack(IPackedMessageReader reader, Writer writer) throws IOException {
+    StringBuilder buffer = new StringBuilder();
+    int caseNo = 0;
+    buffer.append(PREFIX).append(caseNo + 1).append(SEPARATOR);
+    while (reader.read(buffer)) {
+      caseNo++;
+      buffer.append(LINE_SEPARATOR);
+      writer.append(buffer);
+      buffer.setLength(0);
+      buffer.append(PREFIX).append(caseNo + 1).append(SEPARATOR);
+    }
+    return caseNo;
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A parallel case processor.
+ *
+ * <p>It processes the input in the T9 Spelling format with a three-stage pipeline:
+ *
+ * <ul>
+ *   <li>the reader thread splits the input into batches of cases and submits them to the workers
+ *   <li>the pool of workers processes the batches independently
+ *   <li>the calling thread writes the processed batches in the order of the input
+ * </ul>
+ *
+ * <p>The number of batches that are read but not written yet is limited, so the reader waits for
+ * the writer if the output is slower than the input.
+ *
+ * <p><strong>NOTE:</strong> The message processor is shared by all the workers, so it must be
+ * thread-safe.
+ *
+ * @author Alexey Gudnev
+ * @see StreamingCaseProcessor
+ */
+public final class ParallelCaseProcessor {
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+  private static final int BATCH_SIZE = 1024;
+  private static final Future<Batch> END_OF_INPUT = CompletableFuture.completedFuture(null);
+
+  private final IMessageProcessor processor;
+  private final int workers;
+  private final int maxBatchesInFlight;
+
+  /**
+   * Instantiates a new case processor.
+   *
+   * @param processor the thread-safe message processor to apply to each case, cannot be {@code
+   *     null}.
+   * @param workers the number of worker threads, must be positive.
+   * @param maxBatchesInFlight the maximal number of batches that are read but not written yet, must
+   *     be positive.
+   */
+  public ParallelCaseProcessor(IMessageProcessor processor, int workers, int maxBatchesInFlight) {
+    if (processor == null) {
+      throw new IllegalArgumentException("The message processor cannot be 'null'");
+    }
+    if (workers <= 0) {
+      throw new IllegalArgumentException("The number of workers must be positive");
+    }
+    if (maxBatchesInFlight <= 0) {
+      throw new IllegalArgumentException("The number of batches in flight must be positive");
+    }
+    this.processor = processor;
+    this.workers = workers;
+    this.maxBatchesInFlight = maxBatchesInFlight;
+  }
+
+  /**
+   * Processes all cases from the {@code reader} and writes results to the {@code writer}.
+   *
+   * <p>The writer is not flushed or closed, it is up to the caller. If a case cannot be processed,
+   * all the preceding cases are written and the error is rethrown.
+   *
+   * @param reader the input reader, cannot be {@code null}.
+   * @param writer the output writer, cannot be {@code null}.
+   * @return the number of processed cases.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the input has incorrect format.
+   */
+  public int process(BufferedReader reader, Writer writer) throws IOException {
+    int cases = StreamingCaseProcessor.readCaseCount(reader);
+
+    ExecutorService pool =
+        Executors.newFixedThreadPool(workers, new DaemonThreadFactory("t9-worker-"));
+    BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(maxBatchesInFlight);
+    Thread readerThread = new Thread(() -> read(reader, cases, pool, pending), "t9-reader");
+    readerThread.setDaemon(true);
+    readerThread.start();
+    try {
+      return write(pending, writer);
+    } finally {
+      readerThread.interrupt();
+      pool.shutdownNow();
+    }
+  }
+
+  private void read(
+      BufferedReader reader,
+      int cases,
+      ExecutorService pool,
+      BlockingQueue<Future<Batch>> pending) {
+    try {
+      int caseNo = 0;
+      boolean endOfInput = false;
+      while (caseNo < cases && !endOfInput) {
+        List<String> messages = new ArrayList<>(Math.min(BATCH_SIZE, cases - caseNo));
+        while (messages.size() < BATCH_SIZE && caseNo + messages.size() < cases) {
+          String line = reader.readLine();
+          if (line == null) {
+            endOfInput = true;
+            break;
+          }
+          messages.add(line);
+        }
+        if (messages.isEmpty()) {
+          break;
+        }
+        int firstCaseNo = caseNo + 1;
+        caseNo += messages.size();
+        pending.put(pool.submit(() -> encode(firstCaseNo, messages)));
+      }
+
+      if (caseNo < cases) {
+        String msg =
+            MessageFormat.format(
+                "Incorrect input format. Expected {0,number,#} cases, but found {1,number,#}",
+                cases,
+                caseNo);
+        pending.put(failed(new IllegalArgumentException(msg)));
+      }
+      pending.put(END_OF_INPUT);
+    } catch (InterruptedException ex) {
+      // the writer has stopped, nobody waits for the rest of the input
+    } catch (IOException | RuntimeException ex) {
+      try {
+        pending.put(failed(ex));
+      } catch (InterruptedException interrupted) {
+        // the writer has stopped, nobody waits for the error
+      }
+    }
+  }
+
+  private Batch encode(int firstCaseNo, List<String> messages) {
+    StringBuilder sb = new StringBuilder();
+    int caseNo = firstCaseNo;
+    for (String message : messages) {
+      new DecoratingMessageProcessor(processor, caseNo++).process(message, sb);
+      sb.append(LINE_SEPARATOR);
+    }
+    return new Batch(sb.toString(), messages.size());
+  }
+
+  private static int write(BlockingQueue<Future<Batch>> pending, Writer writer) throws IOException {
+    int written = 0;
+    try {
+      for (Future<Batch> future = pending.take(); future != END_OF_INPUT; future = pending.take()) {
+        Batch batch = future.get();
+        writer.write(batch.text);
+        written += batch.cases;
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("The processing has been interrupted");
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("The case processing has failed", cause);
+    }
+    return written;
+  }
+
+  private static Future<Batch> failed(Throwable cause) {
+    CompletableFuture<Batch> future = new CompletableFuture<>();
+    future.completeExceptionally(cause);
+    return future;
+  }
+
+  private static final class Batch {
+    private final String text;
+    private final int cases;
+
+    private Batch(String text, int cases) {
+      this.text = text;
+      this.cases = cases;
+    }
+  }
+}
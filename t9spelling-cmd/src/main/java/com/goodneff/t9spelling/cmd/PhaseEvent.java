@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of a phase of the batch mode, i.e. reading, processing or printing of all the
+ * cases. The event is committed only while a recording is running.
+ *
+ * @author Alexey Gudnev
+ */
+@Name("com.goodneff.t9spelling.Phase")
+@Label("Phase")
+@Category("T9 Spelling")
+@Description("A phase of the batch mode")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+  @Label("Phase")
+  String phase;
+
+  @Label("Cases")
+  int cases;
+
+  /**
+   * Starts timing the specified {@code phase}.
+   *
+   * @param phase the phase name.
+   * @return the started event.
+   */
+  static PhaseEvent start(String phase) {
+    PhaseEvent event = new PhaseEvent();
+    event.phase = phase;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Finishes the phase and commits the event.
+   *
+   * @param cases the number of cases handled by the phase.
+   */
+  void finish(int cases) {
+    end();
+    if (shouldCommit()) {
+      this.cases = cases;
+      commit();
+    }
+  }
+}
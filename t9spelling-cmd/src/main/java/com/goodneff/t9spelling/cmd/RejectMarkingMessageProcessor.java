@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.IUnsupportedCharacterListener;
+import com.goodneff.t9spelling.core.UnsupportedCharacterPolicy;
+import com.goodneff.t9spelling.internal.core.T9KeypadTable;
+import com.goodneff.t9spelling.internal.core.T9LenientMessageProcessor;
+import java.io.IOException;
+
+/**
+ * A message processor that rejects the messages with unsupported characters and marks them.
+ *
+ * <p>Under the {@link UnsupportedCharacterPolicy#REJECT} policy a {@link T9LenientMessageProcessor}
+ * produces nothing for a message with unsupported characters, so its result cannot be told apart
+ * from the result of an empty message. This processor writes the {@link #REJECTED} marker instead,
+ * which cannot be a key sequence.
+ *
+ * @author Alexey Gudnev
+ */
+public final class RejectMarkingMessageProcessor implements IMessageProcessor {
+  /** The result of a rejected message. */
+  public static final String REJECTED = "<rejected>";
+
+  private final T9LenientMessageProcessor origin;
+
+  /**
+   * Instantiates a new message processor for the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @param listener the listener of the unsupported characters, cannot be {@code null}.
+   * @throws IllegalArgumentException if an argument is not specified.
+   */
+  public RejectMarkingMessageProcessor(
+      T9KeypadTable table, IUnsupportedCharacterListener listener) {
+    this.origin =
+        new T9LenientMessageProcessor(table, UnsupportedCharacterPolicy.REJECT, ' ', listener);
+  }
+
+  @Override
+  public String process(String message) {
+    StringBuilder sb = new StringBuilder();
+    process(message, sb);
+    return sb.toString();
+  }
+
+  @Override
+  public void process(CharSequence message, StringBuilder output) {
+    if (origin.encode(message, output) > 0) {
+      output.append(REJECTED);
+    }
+  }
+
+  @Override
+  public void process(CharSequence message, Appendable output) throws IOException {
+    if (output instanceof StringBuilder) {
+      process(message, (StringBuilder) output);
+      return;
+    }
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+    // the origin writes nothing for a rejected message, so it is checked in a buffer first
+    StringBuilder sb = new StringBuilder(message.length() * 2);
+    process(message, sb);
+    output.append(sb);
+  }
+}
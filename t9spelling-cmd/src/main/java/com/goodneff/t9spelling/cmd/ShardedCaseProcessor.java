@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A sharded case processor.
+ *
+ * <p>It processes a single large input file in the T9 Spelling format with several local worker
+ * processes, so the input is not limited by the heap or the cores of a single JVM:
+ *
+ * <ul>
+ *   <li>the coordinator scans the input once and splits the cases into shards of about the same
+ *       size at the line boundaries, every shard is described by the byte offset of its first line,
+ *       the global number of its first case and its number of cases
+ *   <li>every shard is processed by its own worker process that reads the shard lines right from
+ *       the input file and writes the "Case #N: ..." lines with the global case numbers to its own
+ *       shard file, see {@link #processShard(IMessageProcessor, Path, long, int, int, Path)}
+ *   <li>the coordinator concatenates the shard files in the order of the shards
+ * </ul>
+ *
+ * <p>So the result is exactly the same as the one of the single process run. The output is written
+ * to a temporary file first and replaces the previous one only if all the workers have succeeded,
+ * so a failed run never leaves a partial output.
+ *
+ * <p>A worker can report its counters, e.g. the number of the unsupported characters, in a side
+ * file next to its shard file, see {@link #writeCounters(Path, Map)}. The coordinator sums the
+ * counters of all the workers.
+ *
+ * @author Alexey Gudnev
+ * @see StreamingCaseProcessor
+ */
+public final class ShardedCaseProcessor {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final String SHARD_SUFFIX = ".shard-";
+  private static final String COUNTERS_SUFFIX = ".counters";
+
+  private final List<String> workerCommand;
+  private final int shards;
+
+  /**
+   * Instantiates a new case processor.
+   *
+   * @param workerCommand the command that starts a worker process, the arguments of a shard are
+   *     appended to it, i.e. {@code input_file offset first_case_no cases output_file}, cannot be
+   *     {@code null} or empty.
+   * @param shards the maximal number of shards and worker processes, must be positive.
+   */
+  public ShardedCaseProcessor(List<String> workerCommand, int shards) {
+    if (workerCommand == null || workerCommand.isEmpty()) {
+      throw new IllegalArgumentException("The worker command cannot be 'null' or empty");
+    }
+    if (shards <= 0) {
+      throw new IllegalArgumentException("The number of shards must be positive");
+    }
+    this.workerCommand = Collections.unmodifiableList(new ArrayList<>(workerCommand));
+    this.shards = shards;
+  }
+
+  /**
+   * Processes all cases of the {@code input} file with the worker processes and writes the results
+   * to the {@code output} file.
+   *
+   * @param input the input file, cannot be {@code null}.
+   * @param output the output file, cannot be {@code null}.
+   * @return the number of processed cases.
+   * @throws IOException if an I/O error occurs, a worker cannot be started or the processing is
+   *     interrupted.
+   * @throws IllegalArgumentException if the input has incorrect format.
+   * @throws IllegalStateException if a worker has failed.
+   */
+  public int process(Path input, Path output) throws IOException {
+    return process(input, output, new HashMap<>());
+  }
+
+  /**
+   * Processes all cases of the {@code input} file with the worker processes, writes the results to
+   * the {@code output} file and adds the counters reported by the workers to the {@code counters}.
+   *
+   * @param input the input file, cannot be {@code null}.
+   * @param output the output file, cannot be {@code null}.
+   * @param counters the sums of the counters by name, the reported counters are added to them,
+   *     cannot be {@code null}.
+   * @return the number of processed cases.
+   * @throws IOException if an I/O error occurs, a worker cannot be started or the processing is
+   *     interrupted.
+   * @throws IllegalArgumentException if the input has incorrect format.
+   * @throws IllegalStateException if a worker has failed.
+   */
+  public int process(Path input, Path output, Map<String, Long> counters) throws IOException {
+    if (input == null || output == null || counters == null) {
+      throw new IllegalArgumentException(
+          "The 'input', 'output' and 'counters' arguments cannot be null");
+    }
+
+    List<Shard> plan = split(input);
+    List<Path> shardOutputs = new ArrayList<>(plan.size());
+    for (int i = 0; i < plan.size(); i++) {
+      shardOutputs.add(output.resolveSibling(output.getFileName() + SHARD_SUFFIX + i));
+    }
+    try {
+      run(input, plan, shardOutputs);
+      Map<String, Long> reported = new HashMap<>();
+      for (Path shardOutput : shardOutputs) {
+        readCounters(shardOutput, reported);
+      }
+      merge(shardOutputs, output);
+      reported.forEach((name, value) -> counters.merge(name, value, Long::sum));
+    } finally {
+      for (Path shardOutput : shardOutputs) {
+        Files.deleteIfExists(shardOutput);
+        Files.deleteIfExists(countersOf(shardOutput));
+      }
+    }
+
+    int cases = 0;
+    for (Shard shard : plan) {
+      cases += shard.cases;
+    }
+    return cases;
+  }
+
+  /**
+   * Processes a single shard, it is the job of a worker process.
+   *
+   * <p>The lines of the shard are read from the {@code input} file starting at the {@code offset}.
+   *
+   * @param processor the message processor to apply to each case, cannot be {@code null}.
+   * @param input the input file, cannot be {@code null}.
+   * @param offset the byte offset of the first line of the shard.
+   * @param firstCaseNo the global number of the first case of the shard.
+   * @param cases the number of cases of the shard.
+   * @param output the output file of the shard, cannot be {@code null}.
+   * @return the number of processed cases.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the input has less cases.
+   */
+  public static int processShard(
+      IMessageProcessor processor, Path input, long offset, int firstCaseNo, int cases, Path output)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+        BufferedReader reader =
+            new BufferedReader(Channels.newReader(channel.position(offset), UTF_8), BUFFER_SIZE);
+        Writer writer = Files.newBufferedWriter(output, UTF_8)) {
+      return new StreamingCaseProcessor(processor).process(reader, writer, firstCaseNo, cases);
+    }
+  }
+
+  /**
+   * Writes the counters of a worker to the side file of its shard {@code output}.
+   *
+   * @param output the output file of the shard, cannot be {@code null}.
+   * @param counters the counters by name, cannot be {@code null}.
+   * @throws IOException if an I/O error occurs.
+   */
+  public static void writeCounters(Path output, Map<String, Long> counters) throws IOException {
+    if (output == null || counters == null) {
+      throw new IllegalArgumentException("The 'output' and 'counters' arguments cannot be null");
+    }
+    Properties properties = new Properties();
+    for (Map.Entry<String, Long> counter : counters.entrySet()) {
+      properties.setProperty(counter.getKey(), Long.toString(counter.getValue()));
+    }
+    try (Writer writer = Files.newBufferedWriter(countersOf(output), UTF_8)) {
+      properties.store(writer, null);
+    }
+  }
+
+  // Adds the counters reported for the shard output, if any, to the sums
+  private static void readCounters(Path output, Map<String, Long> counters) throws IOException {
+    Path file = countersOf(output);
+    if (!Files.exists(file)) {
+      return;
+    }
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+      properties.load(reader);
+    }
+    for (String name : properties.stringPropertyNames()) {
+      long value;
+      try {
+        value = Long.parseLong(properties.getProperty(name));
+      } catch (NumberFormatException ex) {
+        throw new IOException("The counter '" + name + "' of the shard is malformed", ex);
+      }
+      counters.merge(name, value, Long::sum);
+    }
+  }
+
+  private static Path countersOf(Path output) {
+    return output.resolveSibling(output.getFileName() + COUNTERS_SUFFIX);
+  }
+
+  // Splits the cases into the shards of about the same number of bytes
+  /* package-private */ List<Shard> split(Path input) throws IOException {
+    long size = Files.size(input);
+    List<Shard> plan = new ArrayList<>(shards);
+    try (LineScanner scanner = new LineScanner(Files.newInputStream(input))) {
+      String header = scanner.readHeader();
+      if (header == null) {
+        throw new IllegalArgumentException("Incorrect input format. Input is empty");
+      }
+      int cases = StreamingCaseProcessor.parseCaseCount(header);
+      long start = scanner.getOffset();
+
+      int caseNo = 0;
+      long nextBoundary = start;
+      while (caseNo < cases) {
+        long offset = scanner.getOffset();
+        if (!scanner.skipLine()) {
+          String msg =
+              MessageFormat.format(
+                  "Incorrect input format. Expected {0,number,#} cases, but found {1,number,#}",
+                  cases,
+                  caseNo);
+          throw new IllegalArgumentException(msg);
+        }
+        if (offset >= nextBoundary && plan.size() < shards) {
+          plan.add(new Shard(offset, caseNo + 1));
+          nextBoundary = start + (size - start) * plan.size() / shards;
+        }
+        plan.get(plan.size() - 1).cases++;
+        caseNo++;
+      }
+    }
+    return plan;
+  }
+
+  private void run(Path input, List<Shard> plan, List<Path> shardOutputs) throws IOException {
+    List<Process> workers = new ArrayList<>(plan.size());
+    try {
+      for (int i = 0; i < plan.size(); i++) {
+        Shard shard = plan.get(i);
+        List<String> command = new ArrayList<>(workerCommand);
+        command.add(input.toString());
+        command.add(Long.toString(shard.offset));
+        command.add(Integer.toString(shard.firstCaseNo));
+        command.add(Integer.toString(shard.cases));
+        command.add(shardOutputs.get(i).toString());
+        workers.add(
+            new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start());
+      }
+
+      List<String> failures = new ArrayList<>();
+      for (int i = 0; i < workers.size(); i++) {
+        int exitCode = workers.get(i).waitFor();
+        if (exitCode != 0) {
+          failures.add(
+              MessageFormat.format(
+                  "the shard {0,number,#} of the cases from {1,number,#} has exited with {2}",
+                  i, plan.get(i).firstCaseNo, exitCode));
+        }
+      }
+      if (!failures.isEmpty()) {
+        throw new IllegalStateException("The workers have failed: " + String.join(", ", failures));
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("The processing has been interrupted");
+    } finally {
+      // a worker left after a failure is killed and reaped, so it cannot write a shard file anymore
+      boolean interrupted = false;
+      for (Process worker : workers) {
+        worker.destroyForcibly();
+        while (true) {
+          try {
+            worker.waitFor();
+            break;
+          } catch (InterruptedException ex) {
+            interrupted = true;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  // Concatenates the shard files to a temporary file, which then replaces the output
+  /* package-private */ static void merge(List<Path> shardOutputs, Path output) throws IOException {
+    Path temporary =
+        Files.createTempFile(
+            output.toAbsolutePath().getParent(), output.getFileName() + ".", ".tmp");
+    try {
+      try (FileChannel target = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        for (Path shardOutput : shardOutputs) {
+          try (FileChannel source = FileChannel.open(shardOutput, StandardOpenOption.READ)) {
+            long position = 0;
+            long size = source.size();
+            while (position < size) {
+              position += source.transferTo(position, size - position, target);
+            }
+          }
+        }
+      }
+      Files.move(
+          temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /** A shard of the input cases. */
+  /* package-private */ static final class Shard {
+    private final long offset;
+    private final int firstCaseNo;
+    private int cases;
+
+    private Shard(long offset, int firstCaseNo) {
+      this.offset = offset;
+      this.firstCaseNo = firstCaseNo;
+    }
+
+    /* package-private */ long getOffset() {
+      return offset;
+    }
+
+    /* package-private */ int getFirstCaseNo() {
+      return firstCaseNo;
+    }
+
+    /* package-private */ int getCases() {
+      return cases;
+    }
+  }
+
+  /** Scans the lines of a stream and tracks the byte offset, the lines are not decoded. */
+  private static final class LineScanner implements Closeable {
+    private final InputStream stream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long offset;
+
+    private LineScanner(InputStream stream) {
+      this.stream = stream;
+    }
+
+    private long getOffset() {
+      return offset;
+    }
+
+    // Reads the first line, the header is short and ASCII
+    private String readHeader() throws IOException {
+      StringBuilder sb = new StringBuilder();
+      int read = read();
+      if (read < 0) {
+        return null;
+      }
+      for (; read >= 0 && read != '\n'; read = read()) {
+        sb.append((char) read);
+      }
+      return sb.toString();
+    }
+
+    // Skips the next line including its terminator and returns false at the end of the stream
+    private boolean skipLine() throws IOException {
+      if (position == limit && !fill()) {
+        return false;
+      }
+      while (true) {
+        for (int i = position; i < limit; i++) {
+          if (buffer[i] == '\n') {
+            offset += i + 1 - position;
+            position = i + 1;
+            return true;
+          }
+        }
+        offset += limit - position;
+        position = limit;
+        if (!fill()) {
+          return true;
+        }
+      }
+    }
+
+    private int read() throws IOException {
+      if (position == limit && !fill()) {
+        return -1;
+      }
+      offset++;
+      return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+      int read = stream.read(buffer);
+      while (read == 0) {
+        read = stream.read(buffer);
+      }
+      position = 0;
+      limit = Math.max(read, 0);
+      return read > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      stream.close();
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.MessageFormat;
+
+/**
+ * A streaming case processor.
+ *
+ * <p>It reads the input in the T9 Spelling format, i.e. the number of cases N followed by N lines,
+ * and writes the processed "Case #N: ..." lines one by one as soon as every next case is read. So
+ * the memory consumption does not depend on the number of cases.
+ *
+ * <p>The results are written and flushed in chunks, a chunk ends when the buffer is full or when
+ * the input has no more lines available right away. So an interactive or slow input gets its
+ * results without waiting for the end of the input.
+ *
+ * <p>The number of cases is used as the upper limit only. It is never used to preallocate anything.
+ * The processed cases are collected in a reusable buffer, so no garbage is produced per case by the
+ * processor itself.
+ *
+ * @author Alexey Gudnev
+ */
+public final class StreamingCaseProcessor {
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+  private static final int BUFFER_SIZE = 1 << 13;
+
+  private final IMessageProcessor processor;
+
+  /**
+   * Instantiates a new case processor.
+   *
+   * @param processor the message processor to apply to each case, cannot be {@code null}.
+   */
+  public StreamingCaseProcessor(IMessageProcessor processor) {
+    if (processor == null) {
+      throw new IllegalArgumentException("The message processor cannot be 'null'");
+    }
+    this.processor = processor;
+  }
+
+  /**
+   * Processes all cases from the {@code reader} and writes results to the {@code writer}.
+   *
+   * <p>The writer is flushed after every chunk of results, but not after the last one and never
+   * closed, it is up to the caller.
+   *
+   * @param reader the input reader, cannot be {@code null}.
+   * @param writer the output writer, cannot be {@code null}.
+   * @return the number of processed cases.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the input has incorrect format.
+   */
+  public int process(BufferedReader reader, Writer writer) throws IOException {
+    return process(reader, writer, 1, readCaseCount(reader));
+  }
+
+  /**
+   * Processes the specified number of cases from the {@code reader}, which is positioned at the
+   * first of them, and writes results to the {@code writer}.
+   *
+   * <p>The writer is flushed after every chunk of results, but not after the last one and never
+   * closed, it is up to the caller.
+   *
+   * @param reader the input reader positioned after the header or at any next case, cannot be
+   *     {@code null}.
+   * @param writer the output writer, cannot be {@code null}.
+   * @param firstCaseNo the number of the first case.
+   * @param cases the number of cases to process.
+   * @return the number of processed cases.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the input has less cases.
+   */
+  public int process(BufferedReader reader, Writer writer, int firstCaseNo, int cases)
+      throws IOException {
+    StringBuilder buffer = new StringBuilder(BUFFER_SIZE + BUFFER_SIZE / 2);
+    char[] chunk = new char[0];
+    int caseNo = 0;
+    String line;
+    try {
+      while (caseNo < cases && (line = reader.readLine()) != null) {
+        new DecoratingMessageProcessor(processor, firstCaseNo + caseNo).process(line, buffer);
+        caseNo++;
+        buffer.append(LINE_SEPARATOR);
+        // the input would block, so the results that are ready are delivered first
+        if (buffer.length() >= BUFFER_SIZE || (caseNo < cases && !reader.ready())) {
+          chunk = drain(buffer, chunk, writer);
+          writer.flush();
+        }
+      }
+    } finally {
+      // the cases processed before a failure are written anyway
+      drain(buffer, chunk, writer);
+    }
+
+    if (caseNo < cases) {
+      String msg =
+          MessageFormat.format(
+              "Incorrect input format. Expected {0,number,#} cases, but found {1,number,#}",
+              cases,
+              caseNo);
+      throw new IllegalArgumentException(msg);
+    }
+    return caseNo;
+  }
+
+  // Writes the buffer content via the reusable chunk and returns the chunk that fits the content
+  private static char[] drain(StringBuilder buffer, char[] chunk, Writer writer)
+      throws IOException {
+    int length = buffer.length();
+    char[] result = chunk.length < length ? new char[length] : chunk;
+    buffer.getChars(0, length, result, 0);
+    writer.write(result, 0, length);
+    buffer.setLength(0);
+    return result;
+  }
+
+  /* package-private */ static int readCaseCount(BufferedReader reader) throws IOException {
+    String header = reader.readLine();
+    if (header == null) {
+      throw new IllegalArgumentException("Incorrect input format. Input is empty");
+    }
+    return parseCaseCount(header);
+  }
+
+  /* package-private */ static int parseCaseCount(String header) {
+    int cases;
+    try {
+      cases = Integer.parseInt(header.trim());
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Incorrect input format", ex);
+    }
+    if (cases < 0) {
+      throw new IllegalArgumentException("Incorrect input format. Negative number of cases");
+    }
+    return cases;
+  }
+}
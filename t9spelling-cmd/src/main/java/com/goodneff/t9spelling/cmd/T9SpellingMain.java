@@ -4,13 +4,50 @@
  */
 package com.goodneff.t9spelling.cmd;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.goodneff.t9spelling.core.EncodedBatch;
+import com.goodneff.t9spelling.core.IBatchMessageProcessor;
+import com.goodneff.t9spelling.core.IKeypressAnalyzer;
+import com.goodneff.t9spelling.core.IMessageDecoder;
 import com.goodneff.t9spelling.core.IMessageProcessor;
-import com.goodneff.t9spelling.internal.core.T9MessageProcessor;
+import com.goodneff.t9spelling.core.IPackedMessageReader;
+import com.goodneff.t9spelling.core.IPredictiveDictionary;
+import com.goodneff.t9spelling.core.IUnsupportedCharacterListener;
+import com.goodneff.t9spelling.core.KeypressStatistics;
+import com.goodneff.t9spelling.core.UnsupportedCharacterPolicy;
+import com.goodneff.t9spelling.internal.core.T9DictionaryCompiler;
+import com.goodneff.t9spelling.internal.core.T9DictionaryIndex;
+import com.goodneff.t9spelling.internal.core.T9Engine;
+import com.goodneff.t9spelling.internal.core.T9KeypadLayouts;
+import com.goodneff.t9spelling.internal.core.T9KeypadTable;
+import com.goodneff.t9spelling.internal.core.T9LenientMessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9MessageMetrics;
+import com.goodneff.t9spelling.internal.core.T9MeteredMessageProcessor;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.FlightRecorder;
 
 /**
  * An application entry point.
@@ -18,9 +55,85 @@ import java.util.Scanner;
  * <p>It provides a regular workflow for the T9 Spelling problem. It takes care about input/output
  * operations.
  *
+ * <p>The following modes are supported:
+ *
+ * <ul>
+ *   <li>no arguments - reads all cases, processes them and prints the results
+ *   <li>{@code --stream} - reads, processes and prints the cases one by one with a constant memory
+ *       footprint
+ *   <li>{@code --parallel [workers]} - processes the cases on the specified number of worker
+ *       threads (all available processors by default) and prints the results in the input order
+ *   <li>{@code --mmap input_file output_file} - processes an ASCII input file as raw bytes via
+ *       memory mapping and writes the results to the output file. The SIMD instructions are used if
+ *       the {@code jdk.incubator.vector} module is added to the runtime
+ *   <li>{@code --decode} - reads the encoded cases and prints the decoded ones the same way as the
+ *       streaming mode does
+ *   <li>{@code --compile-dictionary source_file index_file} - compiles a word frequency dictionary
+ *       into an index file for the prediction mode
+ *   <li>{@code --predict index_file [limit]} - reads the cases of key sequences and prints the most
+ *       frequent candidate words (10 by default) of every case separated by spaces
+ *   <li>{@code --server [port]} - serves the line protocol on the specified port of the loopback
+ *       address (9009 by default)
+ *   <li>{@code --analyze} - reads the cases and prints the keypress statistics of all of them
+ *       without encoding them, the cases are analyzed in parallel. With {@code --on-error} or
+ *       {@code --metrics} the cases are encoded one by one and counted from the results instead
+ *   <li>{@code --pack} - reads the cases and writes their key sequences in the packed binary form,
+ *       which takes a few bits per character instead of a few bytes. The unsupported characters
+ *       fail the run
+ *   <li>{@code --unpack} - reads the packed cases and prints them the same way as the default mode
+ *       does
+ *   <li>{@code --dir input_dir_or_glob output_dir [workers]} - processes all the files of a
+ *       directory or the files matching a glob pattern, e.g. {@code 'data/*.txt'}, on the specified
+ *       number of worker threads (all available processors by default) and writes every result to
+ *       the file of the same name in the output directory. Every file is reported to the standard
+ *       error stream, the run exits with a non-zero status if any file has failed
+ *   <li>{@code --shards count input_file output_file} - splits the cases of the input file into the
+ *       specified number of shards, processes them in separate worker processes of the same
+ *       application with the same options and writes the merged results to the output file in the
+ *       input order. The workers report their counters, so the unsupported characters and the
+ *       metrics counts are printed as the sums of all the workers, the latency percentiles are not
+ *       merged. The run exits with a non-zero status if any worker has failed
+ * </ul>
+ *
+ * <p>Any mode can be preceded by the following options:
+ *
+ * <ul>
+ *   <li>{@code --layout name_or_file} - selects a built-in keypad layout by its name or loads a
+ *       layout file, the default keypad is used otherwise
+ *   <li>{@code --metrics} - measures the processed messages, exposes the metrics as the {@code
+ *       com.goodneff.t9spelling:type=MessageMetrics,name=main} MBean and prints them to the
+ *       standard error stream at the end
+ *   <li>{@code --on-error fail|skip|replace|reject} - handles the unsupported characters without
+ *       aborting the run: fails the whole run (the default behavior), drops the characters, encodes
+ *       them as spaces or replaces the results of the dirty cases with {@code <rejected>}. The
+ *       number of the unsupported characters is printed to the standard error stream at the end.
+ *       The option is not supported by the {@code --mmap}, {@code --pack}, {@code --unpack}, {@code
+ *       --decode}, {@code --compile-dictionary} and {@code --predict} modes
+ * </ul>
+ *
  * @author Alexey Gudnev
  */
 public class T9SpellingMain {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int DEFAULT_PREDICTION_LIMIT = 10;
+  private static final int DEFAULT_SERVER_PORT = 9009;
+  private static final int MAX_PORT = 0xFFFF;
+  private static final String METRICS_NAME = "main";
+  private static final int ANALYSIS_CHUNK_SIZE = 1 << 16;
+  // the internal mode of a worker process of the sharded mode
+  private static final String SHARD_MODE = "--shard";
+  // the modes that do not encode the cases by the configured processor
+  private static final Set<String> STRICT_MODES =
+      Set.of("--mmap", "--pack", "--unpack", "--decode", "--compile-dictionary", "--predict");
+  // the counters a worker reports to the coordinator
+  private static final String UNSUPPORTED_COUNTER = "unsupported";
+  private static final String MESSAGES_COUNTER = "messages";
+  private static final String CHARACTERS_COUNTER = "characters";
+  private static final String OUTPUT_COUNTER = "output";
+  private static final String ERRORS_COUNTER = "errors";
+  private static final String LATENCY_NANOS_COUNTER = "latencyNanos";
+  private static final List<String> WORKER_JVM_OPTIONS =
+      Arrays.asList("-Xms", "-Xmx", "-Xss", "--add-modules");
 
   /**
    * An entry point.
@@ -28,18 +141,563 @@ public class T9SpellingMain {
    * @param args the application arguments.
    */
   public static void main(String[] args) {
+    T9Engine engine = T9Engine.DEFAULT;
+    T9MessageMetrics metrics = null;
+    UnsupportedCharacterPolicy policy = null;
+    int index = 0;
+    options:
+    while (index < args.length) {
+      switch (args[index]) {
+        case "--layout":
+          if (index + 1 >= args.length) {
+            System.err.println("The keypad layout is not specified");
+            return;
+          }
+          engine = new T9Engine(loadLayout(args[index + 1]));
+          index += 2;
+          break;
+        case "--on-error":
+          if (index + 1 >= args.length) {
+            System.err.println("The unsupported character policy is not specified");
+            return;
+          }
+          policy = parsePolicy(args[index + 1]);
+          if (policy == null) {
+            return;
+          }
+          index += 2;
+          break;
+        case "--metrics":
+          metrics = new T9MessageMetrics();
+          metrics.register(METRICS_NAME);
+          index++;
+          break;
+        default:
+          break options;
+      }
+    }
+    String[] options = Arrays.copyOfRange(args, 0, index);
+    args = Arrays.copyOfRange(args, index, args.length);
+    String mode = args.length > 0 ? args[0] : "";
+    if (policy != null && STRICT_MODES.contains(mode)) {
+      System.err.println("The unsupported character policy is not supported by the mode: " + mode);
+      return;
+    }
+    LongAdder unsupported = new LongAdder();
+    IUnsupportedCharacterListener listener = (message, position) -> unsupported.increment();
+    IMessageProcessor encoder = engine.getMessageProcessor();
+    IMessageProcessor processor = encoder;
+    if (policy != null) {
+      encoder = new T9LenientMessageProcessor(engine.getTable(), policy, ' ', listener);
+      // a rejected case is marked, so it is not mistaken for an empty message
+      processor =
+          policy == UnsupportedCharacterPolicy.REJECT
+              ? new RejectMarkingMessageProcessor(engine.getTable(), listener)
+              : encoder;
+    }
+    processor = meter(processor, metrics);
+    boolean failed = false;
+
+    switch (mode) {
+      case "":
+        if (policy == null && metrics == null) {
+          runBatch(engine.getBatchMessageProcessor());
+        } else {
+          runBatch(processor);
+        }
+        break;
+      case "--stream":
+        runStreaming(processor);
+        break;
+      case "--compile-dictionary":
+        if (args.length < 3) {
+          System.err.println("The source dictionary and the index files are not specified");
+          return;
+        }
+        compileDictionary(engine, Paths.get(args[1]), Paths.get(args[2]));
+        break;
+      case "--predict":
+        if (args.length < 2) {
+          System.err.println("The dictionary index file is not specified");
+          return;
+        }
+        int limit =
+            args.length > 2 ? parsePositive(args[2], "prediction limit") : DEFAULT_PREDICTION_LIMIT;
+        if (limit <= 0) {
+          return;
+        }
+        runPrediction(Paths.get(args[1]), limit);
+        break;
+      case "--server":
+        int port = args.length > 1 ? parsePositive(args[1], "port") : DEFAULT_SERVER_PORT;
+        if (port <= 0) {
+          return;
+        }
+        if (port > MAX_PORT) {
+          System.err.println("The port must not be greater than " + MAX_PORT + ": " + args[1]);
+          return;
+        }
+        runServer(processor, port);
+        break;
+      case "--analyze":
+        if (policy == null && metrics == null) {
+          runAnalysis(engine.getKeypressAnalyzer());
+        } else {
+          runAnalysis(meter(encoder, metrics));
+        }
+        break;
+      case "--pack":
+        runPacking(engine);
+        break;
+      case "--unpack":
+        runUnpacking(engine);
+        break;
+      case "--decode":
+        IMessageDecoder decoder = engine.getMessageDecoder();
+        runStreaming(meter(decoder::decode, metrics));
+        break;
+      case "--parallel":
+        int workers =
+            args.length > 1
+                ? parsePositive(args[1], "number of workers")
+                : Runtime.getRuntime().availableProcessors();
+        if (workers <= 0) {
+          return;
+        }
+        runParallel(processor, workers);
+        break;
+      case "--dir":
+        if (args.length < 3) {
+          System.err.println("The input files and the output directory are not specified");
+          return;
+        }
+        int fileWorkers =
+            args.length > 3
+                ? parsePositive(args[3], "number of workers")
+                : Runtime.getRuntime().availableProcessors();
+        if (fileWorkers <= 0) {
+          return;
+        }
+        failed = !runDirectory(processor, args[1], Paths.get(args[2]), fileWorkers);
+        break;
+      case "--shards":
+        if (args.length < 4) {
+          System.err.println("The number of shards, the input and output files are not specified");
+          return;
+        }
+        int shards = parsePositive(args[1], "number of shards");
+        if (shards <= 0) {
+          return;
+        }
+        failed =
+            !runSharded(
+                options, shards, Paths.get(args[2]), Paths.get(args[3]), unsupported, metrics);
+        break;
+      case SHARD_MODE:
+        failed = !runShard(processor, args, unsupported, metrics);
+        break;
+      case "--mmap":
+        if (args.length < 3) {
+          System.err.println("The input and output files are not specified");
+          return;
+        }
+        runMapped(engine, Paths.get(args[1]), Paths.get(args[2]));
+        break;
+      default:
+        System.err.println("Unsupported mode: " + mode);
+    }
+
+    // a worker reports its counters to the coordinator, which prints the sums of all the workers
+    if (policy != null && !SHARD_MODE.equals(mode)) {
+      System.err.println("Unsupported characters: " + unsupported.sum());
+    }
+    if (metrics != null && !SHARD_MODE.equals(mode) && !"--shards".equals(mode)) {
+      System.err.println("Metrics: " + metrics);
+    }
+    if (failed) {
+      System.exit(1);
+    }
+  }
+
+  // Parses a positive number argument, an invalid one is reported and -1 is returned
+  private static int parsePositive(String value, String name) {
+    try {
+      int result = Integer.parseInt(value);
+      if (result > 0) {
+        return result;
+      }
+    } catch (NumberFormatException ex) {
+      // reported below
+    }
+    System.err.println("The " + name + " must be a positive number: " + value);
+    return -1;
+  }
+
+  // Parses an unsupported character policy, an invalid one is reported and null is returned
+  private static UnsupportedCharacterPolicy parsePolicy(String value) {
+    List<String> names = new ArrayList<>();
+    for (UnsupportedCharacterPolicy policy : UnsupportedCharacterPolicy.values()) {
+      String name = policy.name().toLowerCase(Locale.ROOT);
+      if (name.equals(value.toLowerCase(Locale.ROOT))) {
+        return policy;
+      }
+      names.add(name);
+    }
+    System.err.println(
+        "Unsupported character policy: " + value + ", expected one of " + String.join(", ", names));
+    return null;
+  }
+
+  private static IMessageProcessor meter(IMessageProcessor processor, T9MessageMetrics metrics) {
+    return metrics == null ? processor : new T9MeteredMessageProcessor(processor, metrics);
+  }
+
+  private static T9KeypadTable loadLayout(String layout) {
+    Path file = Paths.get(layout);
+    if (!Files.isRegularFile(file)) {
+      return T9KeypadLayouts.get(layout);
+    }
+    try {
+      return T9KeypadLayouts.load(file);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static void runStreaming(IMessageProcessor processor) {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(System.in, UTF_8), BUFFER_SIZE);
+    Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, UTF_8), BUFFER_SIZE);
+    try {
+      new StreamingCaseProcessor(processor).process(reader, writer);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } finally {
+      flush(writer);
+    }
+  }
+
+  private static void runParallel(IMessageProcessor processor, int workers) {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(System.in, UTF_8), BUFFER_SIZE);
+    Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, UTF_8), BUFFER_SIZE);
+    try {
+      new ParallelCaseProcessor(processor, workers, workers * 4).process(reader, writer);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } finally {
+      flush(writer);
+    }
+  }
+
+  // Returns false if any file has failed
+  private static boolean runDirectory(
+      IMessageProcessor processor, String inputs, Path outputDirectory, int workers) {
+    List<DirectoryCaseProcessor.FileReport> reports;
+    try {
+      List<Path> files = DirectoryCaseProcessor.listInputs(inputs);
+      reports =
+          new DirectoryCaseProcessor(processor, workers)
+              .process(files, outputDirectory, System.err::println);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    int failed = 0;
+    for (DirectoryCaseProcessor.FileReport report : reports) {
+      if (report.getError() != null) {
+        failed++;
+      }
+    }
+    System.err.println("Files: " + reports.size() + ", failed: " + failed);
+    return failed == 0;
+  }
+
+  // Returns false if any worker has failed
+  private static boolean runSharded(
+      String[] options,
+      int shards,
+      Path input,
+      Path output,
+      LongAdder unsupported,
+      T9MessageMetrics metrics) {
+    // the workers run the same application with the same heap and module options
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      for (String option : WORKER_JVM_OPTIONS) {
+        if (argument.startsWith(option)) {
+          command.add(argument);
+          break;
+        }
+      }
+    }
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(T9SpellingMain.class.getName());
+    command.addAll(Arrays.asList(options));
+    command.add(SHARD_MODE);
+
+    Map<String, Long> counters = new HashMap<>();
+    try {
+      int cases = new ShardedCaseProcessor(command, shards).process(input, output, counters);
+      System.err.println("Cases: " + cases);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } catch (IllegalStateException ex) {
+      System.err.println(ex.getMessage());
+      return false;
+    }
+
+    unsupported.add(counters.getOrDefault(UNSUPPORTED_COUNTER, 0L));
+    if (metrics != null) {
+      // the latency percentiles cannot be summed, so only the counts and the mean are printed
+      long messages = counters.getOrDefault(MESSAGES_COUNTER, 0L);
+      long errors = counters.getOrDefault(ERRORS_COUNTER, 0L);
+      long latencyNanos = counters.getOrDefault(LATENCY_NANOS_COUNTER, 0L);
+      System.err.println(
+          String.format(
+              Locale.ROOT,
+              "Metrics: messages=%d, characters=%d, output=%d, errors=%d, latency us: mean=%.1f",
+              messages,
+              counters.getOrDefault(CHARACTERS_COUNTER, 0L),
+              counters.getOrDefault(OUTPUT_COUNTER, 0L),
+              errors,
+              messages + errors == 0 ? 0 : latencyNanos / 1000.0 / (messages + errors)));
+    }
+    return true;
+  }
+
+  // Returns false if the shard is malformed
+  private static boolean runShard(
+      IMessageProcessor processor, String[] args, LongAdder unsupported, T9MessageMetrics metrics) {
+    if (args.length < 6) {
+      System.err.println("The shard is not specified");
+      return false;
+    }
+    long offset = -1;
+    try {
+      offset = Long.parseLong(args[2]);
+    } catch (NumberFormatException ex) {
+      // reported below
+    }
+    if (offset < 0) {
+      System.err.println("The shard offset must be a non-negative number: " + args[2]);
+      return false;
+    }
+    int firstCaseNo = parsePositive(args[3], "first case number");
+    int cases = parsePositive(args[4], "number of cases");
+    if (firstCaseNo <= 0 || cases <= 0) {
+      return false;
+    }
+
+    Path output = Paths.get(args[5]);
+    Map<String, Long> counters = new HashMap<>();
+    try {
+      ShardedCaseProcessor.processShard(
+          processor, Paths.get(args[1]), offset, firstCaseNo, cases, output);
+      counters.put(UNSUPPORTED_COUNTER, unsupported.sum());
+      if (metrics != null) {
+        long messages = metrics.getMessageCount();
+        long errors = metrics.getUnsupportedCharacterErrorCount();
+        counters.put(MESSAGES_COUNTER, messages);
+        counters.put(CHARACTERS_COUNTER, metrics.getCharacterCount());
+        counters.put(OUTPUT_COUNTER, metrics.getOutputCharacterCount());
+        counters.put(ERRORS_COUNTER, errors);
+        counters.put(
+            LATENCY_NANOS_COUNTER,
+            Math.round(metrics.getLatencyMeanMicros() * 1000 * (messages + errors)));
+      }
+      ShardedCaseProcessor.writeCounters(output, counters);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return true;
+  }
+
+  private static void compileDictionary(T9Engine engine, Path source, Path index) {
+    try (BufferedReader reader = Files.newBufferedReader(source)) {
+      int words = new T9DictionaryCompiler(engine.getTable()).compile(reader, index);
+      System.err.println("The dictionary index has " + words + " words");
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static void runPrediction(Path index, int limit) {
+    IPredictiveDictionary dictionary;
+    try {
+      dictionary = T9DictionaryIndex.open(index);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    runStreaming(keys -> String.join(" ", dictionary.lookup(keys, limit)));
+  }
+
+  private static void runServer(IMessageProcessor processor, int port) {
+    try (LineProtocolServer server = new LineProtocolServer(processor, port)) {
+      server.start();
+      System.err.println("Listening on localhost:" + server.getPort());
+      server.await();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void runAnalysis(IKeypressAnalyzer analyzer) {
+    KeypressStatistics statistics = new KeypressStatistics();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(System.in, UTF_8), BUFFER_SIZE)) {
+      int cases = StreamingCaseProcessor.readCaseCount(reader);
+      List<String> chunk = new ArrayList<>(Math.min(cases, ANALYSIS_CHUNK_SIZE));
+      for (int caseNo = 0; caseNo < cases; caseNo++) {
+        chunk.add(readCase(reader, cases, caseNo));
+        if (chunk.size() == ANALYSIS_CHUNK_SIZE) {
+          statistics.add(analyzer.analyze(chunk, ForkJoinPool.commonPool()));
+          chunk.clear();
+        }
+      }
+      statistics.add(analyzer.analyze(chunk, ForkJoinPool.commonPool()));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    System.out.println(statistics);
+  }
+
+  // The cases are encoded by the configured processor, so the unsupported character policy and the
+  // metrics apply, and the statistics are counted from the results
+  private static void runAnalysis(IMessageProcessor processor) {
+    KeypressStatistics statistics = new KeypressStatistics();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(System.in, UTF_8), BUFFER_SIZE)) {
+      int cases = StreamingCaseProcessor.readCaseCount(reader);
+      StringBuilder encoded = new StringBuilder();
+      for (int caseNo = 0; caseNo < cases; caseNo++) {
+        String message = readCase(reader, cases, caseNo);
+        encoded.setLength(0);
+        processor.process(message, encoded);
+        long pauses = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+          char symbol = encoded.charAt(i);
+          if (symbol == ' ') {
+            pauses++;
+          } else {
+            statistics.addPresses(symbol, 1);
+          }
+        }
+        statistics.addPauses(pauses);
+        statistics.addMessages(1, message.length());
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    System.out.println(statistics);
+  }
+
+  private static String readCase(BufferedReader reader, int cases, int caseNo) throws IOException {
+    String line = reader.readLine();
+    if (line == null) {
+      String msg =
+          MessageFormat.format(
+              "Incorrect input format. Expected {0,number,#} cases, but found {1,number,#}",
+              cases,
+              caseNo);
+      throw new IllegalArgumentException(msg);
+    }
+    return line;
+  }
+
+  private static void runPacking(T9Engine engine) {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(System.in, UTF_8), BUFFER_SIZE);
+    try {
+      new PackedCaseProcessor().packAndClose(reader, engine.openPackedWriter(System.out));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static void runUnpacking(T9Engine engine) {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, UTF_8), BUFFER_SIZE);
+    try (IPackedMessageReader reader = engine.openPackedReader(System.in)) {
+      new PackedCaseProcessor().unpack(reader, writer);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } finally {
+      flush(writer);
+    }
+  }
+
+  private static void runMapped(T9Engine engine, Path input, Path output) {
+    try {
+      new MappedFileCaseProcessor(engine.getVectorMessageEncoder()).process(input, output);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static void flush(Writer writer) {
+    try {
+      writer.flush();
+    } catch (IOException ex) {
+      System.err.println("Cannot flush the output: " + ex.getMessage());
+    }
+  }
+
+  private static void runBatch(IMessageProcessor processor) {
+    // the phases are timed only if a recording is possible, otherwise JFR is not even loaded
+    boolean recorded = FlightRecorder.isInitialized();
+    PhaseEvent readPhase = recorded ? PhaseEvent.start("read") : null;
     List<String> strings = read();
+    finish(readPhase, strings.size());
     if (strings.isEmpty()) {
       System.err.println("The input has unsupported format");
       return;
     }
 
-    Collection<String> processed = process(strings);
+    PhaseEvent processPhase = recorded ? PhaseEvent.start("process") : null;
+    Collection<String> processed = process(processor, strings);
+    finish(processPhase, processed.size());
+
+    PhaseEvent printPhase = recorded ? PhaseEvent.start("print") : null;
     print(processed);
+    finish(printPhase, processed.size());
   }
 
-  private static Collection<String> process(List<String> strings) {
-    IMessageProcessor processor = new T9MessageProcessor();
+  private static void runBatch(IBatchMessageProcessor processor) {
+    boolean recorded = FlightRecorder.isInitialized();
+    PhaseEvent readPhase = recorded ? PhaseEvent.start("read") : null;
+    List<String> strings = read();
+    finish(readPhase, strings.size());
+    if (strings.isEmpty()) {
+      System.err.println("The input has unsupported format");
+      return;
+    }
+
+    PhaseEvent processPhase = recorded ? PhaseEvent.start("process") : null;
+    EncodedBatch batch = processor.process(strings);
+    finish(processPhase, batch.size());
+
+    PhaseEvent printPhase = recorded ? PhaseEvent.start("print") : null;
+    Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, UTF_8), BUFFER_SIZE);
+    try {
+      batch.writeCases(writer, 1);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } finally {
+      flush(writer);
+    }
+    finish(printPhase, batch.size());
+  }
+
+  private static void finish(PhaseEvent phase, int cases) {
+    if (phase != null) {
+      phase.finish(cases);
+    }
+  }
+
+  private static Collection<String> process(IMessageProcessor processor, List<String> strings) {
     List<String> result = new ArrayList<>(strings.size());
 
     for (int index = 0; index < strings.size(); index++) {
@@ -53,26 +711,44 @@ public class T9SpellingMain {
   }
 
   private static List<String> read() {
-    try (Scanner scanner = new Scanner(System.in)) {
-      if (!scanner.hasNextLine()) {
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(System.in, UTF_8), BUFFER_SIZE)) {
+      String header = reader.readLine();
+      if (header == null) {
         throw new IllegalArgumentException("Incorrect input format. Input is empty");
       }
       int lines = 0;
       try {
-        lines = Integer.parseInt(scanner.nextLine());
+        lines = Integer.parseInt(header);
       } catch (NumberFormatException ex) {
         throw new IllegalArgumentException("Incorrect input format", ex);
       }
 
       List<String> strings = new ArrayList<>(lines);
       while (--lines >= 0) {
-        strings.add(scanner.nextLine());
+        String line = reader.readLine();
+        if (line == null) {
+          throw new IllegalArgumentException("Incorrect input format. Input has too few cases");
+        }
+        strings.add(line);
       }
       return Collections.unmodifiableList(strings);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
     }
   }
 
   private static void print(Collection<String> messages) {
-    messages.forEach(System.out::println);
+    Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, UTF_8), BUFFER_SIZE);
+    try {
+      for (String message : messages) {
+        writer.write(message);
+        writer.write(System.lineSeparator());
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } finally {
+      flush(writer);
+    }
   }
 }
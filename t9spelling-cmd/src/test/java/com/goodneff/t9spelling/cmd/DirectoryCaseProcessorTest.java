@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.goodneff.t9spelling.internal.core.T9Engine;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * A set of test cases for {@link DirectoryCaseProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class DirectoryCaseProcessorTest {
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testLargestFilesFirst() throws IOException {
+    Path small = write("small.txt", "1\nhi\n");
+    Path large = write("large.txt", "3\nhello world\nhello world\nhello world\n");
+    Path medium = write("medium.txt", "2\nhello\nworld\n");
+    Path output = folder.getRoot().toPath().resolve("out");
+
+    List<Path> completed = new ArrayList<>();
+    List<DirectoryCaseProcessor.FileReport> reports =
+        new DirectoryCaseProcessor(T9Engine.DEFAULT.getMessageProcessor(), 1)
+            .process(
+                Arrays.asList(small, large, medium),
+                output,
+                report -> completed.add(report.getInput()));
+
+    // a single worker completes the files in the order of the scheduling
+    assertEquals(Arrays.asList(large, medium, small), completed);
+    assertEquals(3, reports.size());
+    assertEquals(3, reports.get(0).getCases());
+    assertEquals("Case #1: 44 444" + LINE_SEPARATOR, read(output.resolve("small.txt")));
+  }
+
+  @Test
+  public void testFailedFileReported() throws IOException {
+    Path good = write("good.txt", "2\nhi\nyes\n");
+    Path missing = write("missing.txt", "3\nhi\nyes\n");
+    Path unsupported = write("unsupported.txt", "2\nhi\ny#s\n");
+    Path output = folder.getRoot().toPath().resolve("out");
+
+    List<DirectoryCaseProcessor.FileReport> reports =
+        new DirectoryCaseProcessor(T9Engine.DEFAULT.getMessageProcessor(), 2)
+            .process(Arrays.asList(good, missing, unsupported), output, report -> {});
+
+    assertEquals(3, reports.size());
+    int failed = 0;
+    for (DirectoryCaseProcessor.FileReport report : reports) {
+      if (report.getInput().equals(good)) {
+        assertNull(report.getError());
+        assertEquals(2, report.getCases());
+      } else {
+        assertNotNull(report.getError());
+        assertEquals(0, report.getCases());
+        failed++;
+      }
+    }
+    assertEquals(2, failed);
+
+    // the failed files leave neither a partial output nor a temporary file
+    assertFalse(Files.exists(output.resolve("missing.txt")));
+    assertFalse(Files.exists(output.resolve("unsupported.txt")));
+    try (Stream<Path> files = Files.list(output)) {
+      assertEquals(Arrays.asList(output.resolve("good.txt")), files.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testFailedFileKeepsPreviousOutput() throws IOException {
+    Path input = write("cases.txt", "2\nhi\n");
+    Path output = folder.newFolder("out").toPath();
+    Files.write(output.resolve("cases.txt"), "previous".getBytes(UTF_8));
+
+    List<DirectoryCaseProcessor.FileReport> reports =
+        new DirectoryCaseProcessor(T9Engine.DEFAULT.getMessageProcessor(), 1)
+            .process(Arrays.asList(input), output, report -> {});
+
+    assertNotNull(reports.get(0).getError());
+    assertEquals("previous", read(output.resolve("cases.txt")));
+  }
+
+  private Path write(String name, String content) throws IOException {
+    Path file = folder.getRoot().toPath().resolve(name);
+    Files.write(file, content.getBytes(UTF_8));
+    return file;
+  }
+
+  private static String read(Path file) throws IOException {
+    return new String(Files.readAllBytes(file), UTF_8);
+  }
+}
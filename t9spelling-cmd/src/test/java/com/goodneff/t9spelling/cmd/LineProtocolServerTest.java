@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.goodneff.t9spelling.internal.core.T9Engine;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link LineProtocolServer}
+ *
+ * @author Alexey Gudnev
+ */
+public class LineProtocolServerTest {
+  private LineProtocolServer server;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new LineProtocolServer(T9Engine.DEFAULT.getMessageProcessor(), 0);
+    server.start();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+
+  @Test(timeout = 10_000)
+  public void testRequestResponse() throws IOException {
+    try (Socket socket = connect();
+        BufferedReader reader = readerOf(socket);
+        Writer writer = writerOf(socket)) {
+      writer.write("hi\n");
+      writer.flush();
+      assertEquals("44 444", reader.readLine());
+
+      writer.write("hello world\r\n");
+      writer.flush();
+      assertEquals("4433555 555666096667775553", reader.readLine());
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void testPipelinedRequests() throws IOException {
+    try (Socket socket = connect();
+        BufferedReader reader = readerOf(socket);
+        Writer writer = writerOf(socket)) {
+      writer.write("a\nb\n\nyes#\nc\n");
+      writer.flush();
+
+      String[] responses = new String[5];
+      for (int i = 0; i < responses.length; i++) {
+        responses[i] = reader.readLine();
+      }
+      assertEquals("2", responses[0]);
+      assertEquals("22", responses[1]);
+      assertEquals("", responses[2]);
+      assertTrue(responses[3].startsWith(LineProtocolServer.ERROR_PREFIX));
+      assertEquals("222", responses[4]);
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void testTooLongLine() throws IOException {
+    char[] line = new char[LineProtocolServer.MAX_LINE_LENGTH * 3];
+    Arrays.fill(line, 'a');
+    try (Socket socket = connect();
+        BufferedReader reader = readerOf(socket);
+        Writer writer = writerOf(socket)) {
+      writer.write(line);
+      writer.write("\nb\n");
+      writer.flush();
+
+      assertTrue(reader.readLine().startsWith(LineProtocolServer.ERROR_PREFIX));
+      // the rest of the long line is skipped, the next line is served as usual
+      assertEquals("22", reader.readLine());
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void testLongestLine() throws IOException {
+    char[] line = new char[LineProtocolServer.MAX_LINE_LENGTH];
+    Arrays.fill(line, ' ');
+    try (Socket socket = connect();
+        BufferedReader reader = readerOf(socket);
+        Writer writer = writerOf(socket)) {
+      writer.write(line);
+      writer.write("\r\n");
+      writer.flush();
+
+      assertEquals(LineProtocolServer.MAX_LINE_LENGTH * 2 - 1, reader.readLine().length());
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void testCloseWithIdleClient() throws IOException {
+    try (Socket socket = connect();
+        BufferedReader reader = readerOf(socket);
+        Writer writer = writerOf(socket)) {
+      writer.write("a\n");
+      writer.flush();
+      assertEquals("2", reader.readLine());
+
+      // the client is idle, its connection is closed by the server anyway
+      server.close();
+      try {
+        assertNull(reader.readLine());
+      } catch (SocketException ex) {
+        // the connection is reset
+      }
+    }
+  }
+
+  private Socket connect() throws IOException {
+    return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+  }
+
+  private static BufferedReader readerOf(Socket socket) throws IOException {
+    return new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+  }
+
+  private static Writer writerOf(Socket socket) throws IOException {
+    return new OutputStreamWriter(socket.getOutputStream(), UTF_8);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.IAsciiMessageEncoder;
+import com.goodneff.t9spelling.internal.core.T9Engine;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * A set of test cases for {@link MappedFileCaseProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class MappedFileCaseProcessorTest {
+  private static final IAsciiMessageEncoder ENCODER = T9Engine.DEFAULT.getAsciiMessageEncoder();
+  private static final String NL = System.lineSeparator();
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSameAsStreaming() throws IOException {
+    String input = randomInput(new Random(42), 2000, "\n");
+
+    assertSameAsStreaming(input, 1 << 26);
+  }
+
+  @Test
+  public void testLinesAcrossWindows() throws IOException {
+    String input = randomInput(new Random(7), 200, "\n");
+
+    // every window boundary falls at another place of the lines, including right at their ends
+    for (int windowSize = 24; windowSize <= 64; windowSize++) {
+      assertSameAsStreaming(input, windowSize);
+    }
+  }
+
+  @Test
+  public void testCrLf() throws IOException {
+    String input = randomInput(new Random(11), 200, "\r\n");
+
+    // a window may end between the '\r' and the '\n' of a line
+    for (int windowSize = 24; windowSize <= 64; windowSize++) {
+      assertSameAsStreaming(input, windowSize);
+    }
+  }
+
+  @Test
+  public void testNoTrailingLineSeparator() throws IOException {
+    assertEquals(
+        "Case #1: 44 444" + NL + "Case #2: 999337777" + NL, process("2\nhi\nyes", 1 << 26));
+    assertEquals("Case #1: 44 444" + NL + "Case #2: 999337777" + NL, process("2\nhi\nyes", 5));
+    assertEquals("Case #1: 44 444" + NL + "Case #2: 999337777" + NL, process("2\r\nhi\r\nyes", 6));
+  }
+
+  @Test
+  public void testEmptyLines() throws IOException {
+    assertEquals(
+        "Case #1: " + NL + "Case #2: 44 444" + NL + "Case #3: " + NL,
+        process("3\n\nhi\n\n", 1 << 26));
+  }
+
+  @Test
+  public void testCaseCountIsLimit() throws IOException {
+    assertEquals("Case #1: 44 444" + NL, process("1\nhi\nyes\n", 1 << 26));
+  }
+
+  @Test
+  public void testFewerLinesThanCases() throws IOException {
+    Path input = write("5\nhi\nyes\n");
+    Path output = folder.getRoot().toPath().resolve("output.txt");
+
+    try {
+      new MappedFileCaseProcessor(ENCODER, 8).process(input, output);
+      fail("IllegalArgumentException is expected");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("Incorrect input format. Expected 5 cases, but found 2", ex.getMessage());
+    }
+    // the cases processed before the failure are written anyway
+    assertEquals(
+        "Case #1: 44 444" + NL + "Case #2: 999337777" + NL,
+        new String(Files.readAllBytes(output), US_ASCII));
+  }
+
+  @Test
+  public void testEmptyInput() throws IOException {
+    try {
+      process("", 1 << 26);
+      fail("IllegalArgumentException is expected");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("Incorrect input format. Input is empty", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testLineLongerThanWindow() throws IOException {
+    try {
+      process("2\nhi\nhello world\n", 8);
+      fail("IllegalArgumentException is expected");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("Incorrect input format. The line at 5 is too long", ex.getMessage());
+    }
+  }
+
+  private void assertSameAsStreaming(String input, int windowSize) throws IOException {
+    StringWriter expected = new StringWriter();
+    new StreamingCaseProcessor(T9Engine.DEFAULT.getMessageProcessor())
+        .process(new BufferedReader(new StringReader(input)), expected);
+
+    assertEquals("window of " + windowSize, expected.toString(), process(input, windowSize));
+  }
+
+  private String process(String content, int windowSize) throws IOException {
+    Path input = write(content);
+    Path output = folder.getRoot().toPath().resolve("output.txt");
+    new MappedFileCaseProcessor(ENCODER, windowSize).process(input, output);
+    return new String(Files.readAllBytes(output), US_ASCII);
+  }
+
+  private Path write(String content) throws IOException {
+    Path file = folder.getRoot().toPath().resolve("input.txt");
+    Files.write(file, content.getBytes(US_ASCII));
+    return file;
+  }
+
+  private static String randomInput(Random random, int cases, String lineSeparator) {
+    StringBuilder input = new StringBuilder().append(cases).append(lineSeparator);
+    for (int i = 0; i < cases; i++) {
+      int length = random.nextInt(20);
+      for (int j = 0; j < length; j++) {
+        input.append(random.nextInt(5) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+      }
+      input.append(lineSeparator);
+    }
+    return input.toString();
+  }
+}
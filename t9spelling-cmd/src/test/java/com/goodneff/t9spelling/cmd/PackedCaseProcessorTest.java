@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.IPackedMessageReader;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import com.goodneff.t9spelling.internal.core.T9Engine;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link PackedCaseProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class PackedCaseProcessorTest {
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    ByteArrayOutputStream packed = new ByteArrayOutputStream();
+    int cases =
+        new PackedCaseProcessor()
+            .packAndClose(
+                reader("3\nhi\nyes\nhello world\n"), T9Engine.DEFAULT.openPackedWriter(packed));
+
+    assertEquals(3, cases);
+    assertEquals(
+        "Case #1: 44 444"
+            + LINE_SEPARATOR
+            + "Case #2: 999337777"
+            + LINE_SEPARATOR
+            + "Case #3: 4433555 555666096667775553"
+            + LINE_SEPARATOR,
+        unpack(packed.toByteArray()));
+  }
+
+  @Test
+  public void testMissingCasesRejected() throws IOException {
+    ByteArrayOutputStream packed = new ByteArrayOutputStream();
+    try {
+      new PackedCaseProcessor()
+          .packAndClose(reader("3\nhi\nyes\n"), T9Engine.DEFAULT.openPackedWriter(packed));
+      fail("IllegalArgumentException is expected");
+    } catch (IllegalArgumentException ex) {
+      // expected
+    }
+
+    assertTruncated(packed.toByteArray());
+  }
+
+  @Test
+  public void testUnsupportedCharacterRejected() throws IOException {
+    ByteArrayOutputStream packed = new ByteArrayOutputStream();
+    try {
+      new PackedCaseProcessor()
+          .packAndClose(reader("3\nhi\nye#s\nfoo\n"), T9Engine.DEFAULT.openPackedWriter(packed));
+      fail("UnsupportedCharacterException is expected");
+    } catch (UnsupportedCharacterException ex) {
+      // expected
+    }
+
+    assertTruncated(packed.toByteArray());
+  }
+
+  private static void assertTruncated(byte[] packed) {
+    try {
+      unpack(packed);
+      fail("IOException is expected");
+    } catch (IOException ex) {
+      // the written cases are not taken for the complete input
+    }
+  }
+
+  private static BufferedReader reader(String input) {
+    return new BufferedReader(new StringReader(input));
+  }
+
+  private static String unpack(byte[] packed) throws IOException {
+    StringWriter writer = new StringWriter();
+    try (IPackedMessageReader reader =
+        T9Engine.DEFAULT.openPackedReader(new ByteArrayInputStream(packed))) {
+      new PackedCaseProcessor().unpack(reader, writer);
+    }
+    return writer.toString();
+  }
+}
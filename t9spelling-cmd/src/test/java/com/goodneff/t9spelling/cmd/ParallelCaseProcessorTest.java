@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9Engine;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link ParallelCaseProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class ParallelCaseProcessorTest {
+  private static final IMessageProcessor PROCESSOR = T9Engine.DEFAULT.getMessageProcessor();
+  private static final String NL = System.lineSeparator();
+
+  @Test
+  public void testSameAsStreaming() throws IOException {
+    // a few batches of 1024 cases and a partial one, the workers finish them in any order
+    Random random = new Random(42);
+    StringBuilder input = new StringBuilder("5000\n");
+    for (int i = 0; i < 5000; i++) {
+      int length = random.nextInt(40);
+      for (int j = 0; j < length; j++) {
+        input.append(random.nextInt(5) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+      }
+      input.append('\n');
+    }
+    StringWriter expected = new StringWriter();
+    new StreamingCaseProcessor(PROCESSOR).process(reader(input.toString()), expected);
+
+    for (int workers : new int[] {1, 2, 4}) {
+      StringWriter output = new StringWriter();
+
+      int cases =
+          new ParallelCaseProcessor(PROCESSOR, workers, 2)
+              .process(reader(input.toString()), output);
+
+      assertEquals(5000, cases);
+      assertEquals(expected.toString(), output.toString());
+    }
+  }
+
+  @Test
+  public void testNoCases() throws IOException {
+    StringWriter output = new StringWriter();
+
+    assertEquals(0, new ParallelCaseProcessor(PROCESSOR, 2, 2).process(reader("0\n"), output));
+    assertEquals("", output.toString());
+  }
+
+  @Test
+  public void testWorkerFailure() throws IOException {
+    IMessageProcessor failing =
+        message -> {
+          if (message.equals("boom")) {
+            throw new IllegalStateException("The message cannot be processed");
+          }
+          return PROCESSOR.process(message);
+        };
+    StringBuilder input = new StringBuilder("3000\n");
+    StringBuilder expected = new StringBuilder();
+    for (int i = 1; i <= 3000; i++) {
+      input.append(i == 1500 ? "boom" : "hi").append('\n');
+      if (i <= 1024) {
+        expected.append("Case #").append(i).append(": 44 444").append(NL);
+      }
+    }
+    StringWriter output = new StringWriter();
+
+    try {
+      new ParallelCaseProcessor(failing, 4, 2).process(reader(input.toString()), output);
+      fail("IllegalStateException is expected");
+    } catch (IllegalStateException ex) {
+      assertEquals("The message cannot be processed", ex.getMessage());
+    }
+    // the batches before the failed one are written
+    assertEquals(expected.toString(), output.toString());
+  }
+
+  @Test
+  public void testFewerLinesThanCases() throws IOException {
+    StringWriter output = new StringWriter();
+
+    try {
+      new ParallelCaseProcessor(PROCESSOR, 2, 2).process(reader("3\nhi\nyes\n"), output);
+      fail("IllegalArgumentException is expected");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("Incorrect input format. Expected 3 cases, but found 2", ex.getMessage());
+    }
+    assertEquals("Case #1: 44 444" + NL + "Case #2: 999337777" + NL, output.toString());
+  }
+
+  @Test
+  public void testCaseCountIsLimit() throws IOException {
+    StringWriter output = new StringWriter();
+
+    int cases = new ParallelCaseProcessor(PROCESSOR, 2, 2).process(reader("1\nhi\nyes\n"), output);
+
+    assertEquals(1, cases);
+    assertEquals("Case #1: 44 444" + NL, output.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoWorkers() {
+    new ParallelCaseProcessor(PROCESSOR, 0, 2);
+  }
+
+  private static BufferedReader reader(String input) {
+    return new BufferedReader(new StringReader(input));
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.internal.core.T9Engine;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * A set of test cases for {@link ShardedCaseProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class ShardedCaseProcessorTest {
+  private static final IMessageProcessor PROCESSOR = T9Engine.DEFAULT.getMessageProcessor();
+  private static final List<String> WORKER = Arrays.asList("unused");
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSplit() throws IOException {
+    Path input = write("5\nab\ncd\nef\ngh\nij\n");
+
+    List<ShardedCaseProcessor.Shard> plan = new ShardedCaseProcessor(WORKER, 2).split(input);
+
+    assertEquals(2, plan.size());
+    assertShard(plan.get(0), 2, 1, 3);
+    assertShard(plan.get(1), 11, 4, 2);
+  }
+
+  @Test
+  public void testSplitCoversAllCases() throws IOException {
+    Random random = new Random(42);
+    StringBuilder content = new StringBuilder("1000\n");
+    for (int i = 0; i < 1000; i++) {
+      content.append("hello world".substring(random.nextInt(11))).append('\n');
+    }
+    Path input = write(content.toString());
+
+    for (int shards = 1; shards <= 16; shards++) {
+      List<ShardedCaseProcessor.Shard> plan = new ShardedCaseProcessor(WORKER, shards).split(input);
+      assertEquals(shards, plan.size());
+      int nextCaseNo = 1;
+      for (ShardedCaseProcessor.Shard shard : plan) {
+        assertEquals(nextCaseNo, shard.getFirstCaseNo());
+        assertTrue(shard.getCases() > 0);
+        nextCaseNo += shard.getCases();
+      }
+      assertEquals(1001, nextCaseNo);
+    }
+  }
+
+  @Test
+  public void testMoreShardsThanCases() throws IOException {
+    Path input = write("3\nab\ncd\nef\n");
+
+    List<ShardedCaseProcessor.Shard> plan = new ShardedCaseProcessor(WORKER, 10).split(input);
+
+    assertEquals(3, plan.size());
+    for (int i = 0; i < plan.size(); i++) {
+      assertShard(plan.get(i), 2 + 3 * i, i + 1, 1);
+    }
+  }
+
+  @Test
+  public void testNoCases() throws IOException {
+    Path input = write("0\n");
+    Path output = folder.getRoot().toPath().resolve("output.txt");
+
+    assertEquals(0, new ShardedCaseProcessor(WORKER, 4).split(input).size());
+    assertEquals(0, new ShardedCaseProcessor(WORKER, 4).process(input, output));
+    assertEquals(0, Files.size(output));
+  }
+
+  @Test
+  public void testFewerLinesThanCases() throws IOException {
+    Path input = write("3\nab\ncd\n");
+
+    try {
+      new ShardedCaseProcessor(WORKER, 2).split(input);
+      fail("IllegalArgumentException is expected");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("Incorrect input format. Expected 3 cases, but found 2", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testLastLineWithoutTerminator() throws IOException {
+    Path input = write("2\nab\ncd");
+
+    List<ShardedCaseProcessor.Shard> plan = new ShardedCaseProcessor(WORKER, 2).split(input);
+
+    assertEquals(2, plan.size());
+    assertShard(plan.get(1), 5, 2, 1);
+  }
+
+  @Test
+  public void testCrLfInput() throws IOException {
+    Path input = write("3\r\nhi\r\nab\r\ncd\r\n");
+
+    List<ShardedCaseProcessor.Shard> plan = new ShardedCaseProcessor(WORKER, 3).split(input);
+
+    assertEquals(3, plan.size());
+    assertShard(plan.get(0), 3, 1, 1);
+    assertShard(plan.get(1), 7, 2, 1);
+    assertShard(plan.get(2), 11, 3, 1);
+    assertArrayEquals(processInOneGo(input), processInShards(input, 3));
+  }
+
+  @Test
+  public void testShardsSameAsStreaming() throws IOException {
+    Random random = new Random(7);
+    StringBuilder content = new StringBuilder("5000\n");
+    for (int i = 0; i < 5000; i++) {
+      int length = random.nextInt(40);
+      for (int j = 0; j < length; j++) {
+        content.append(random.nextInt(5) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+      }
+      content.append('\n');
+    }
+    Path input = write(content.toString());
+
+    byte[] expected = processInOneGo(input);
+    for (int shards : new int[] {1, 2, 3, 7, 64}) {
+      assertArrayEquals(expected, processInShards(input, shards));
+    }
+  }
+
+  @Test
+  public void testFailedWorkerKeepsPreviousOutput() throws IOException {
+    Path input = write("2\nab\ncd\n");
+    Path output = folder.getRoot().toPath().resolve("output.txt");
+    Files.write(output, "previous".getBytes(UTF_8));
+    List<String> failingWorker =
+        Arrays.asList(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-invalid");
+
+    try {
+      new ShardedCaseProcessor(failingWorker, 2).process(input, output);
+      fail("IllegalStateException is expected");
+    } catch (IllegalStateException ex) {
+      // expected
+    }
+
+    assertEquals("previous", new String(Files.readAllBytes(output), UTF_8));
+    try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+      assertEquals(
+          Arrays.asList("input.txt", "output.txt"),
+          files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testWorkersReportCounters() throws IOException {
+    Path input = write("4\nhi\na#b\nyes\n#\n");
+    Path output = folder.getRoot().toPath().resolve("output.txt");
+    List<String> worker =
+        Arrays.asList(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-cp",
+            System.getProperty("java.class.path"),
+            T9SpellingMain.class.getName(),
+            "--on-error",
+            "skip",
+            "--shard");
+    Map<String, Long> counters = new HashMap<>();
+    counters.put("unsupported", 1L);
+
+    assertEquals(4, new ShardedCaseProcessor(worker, 2).process(input, output, counters));
+
+    assertEquals(Long.valueOf(3), counters.get("unsupported"));
+    try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+      assertEquals(
+          Arrays.asList("input.txt", "output.txt"),
+          files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+    }
+  }
+
+  private Path write(String content) throws IOException {
+    Path file = folder.getRoot().toPath().resolve("input.txt");
+    Files.write(file, content.getBytes(UTF_8));
+    return file;
+  }
+
+  private byte[] processInOneGo(Path input) throws IOException {
+    Path output = folder.getRoot().toPath().resolve("streaming.txt");
+    try (BufferedReader reader = Files.newBufferedReader(input, UTF_8);
+        Writer writer = Files.newBufferedWriter(output, UTF_8)) {
+      new StreamingCaseProcessor(PROCESSOR).process(reader, writer);
+    }
+    return Files.readAllBytes(output);
+  }
+
+  // Processes every shard in-process the same way a worker does and merges the shard files
+  private byte[] processInShards(Path input, int shards) throws IOException {
+    List<ShardedCaseProcessor.Shard> plan = new ShardedCaseProcessor(WORKER, shards).split(input);
+    List<Path> shardOutputs = new ArrayList<>();
+    for (int i = 0; i < plan.size(); i++) {
+      ShardedCaseProcessor.Shard shard = plan.get(i);
+      Path shardOutput = folder.getRoot().toPath().resolve("shard-" + i);
+      ShardedCaseProcessor.processShard(
+          PROCESSOR,
+          input,
+          shard.getOffset(),
+          shard.getFirstCaseNo(),
+          shard.getCases(),
+          shardOutput);
+      shardOutputs.add(shardOutput);
+    }
+    Path output = folder.getRoot().toPath().resolve("merged.txt");
+    ShardedCaseProcessor.merge(shardOutputs, output);
+    return Files.readAllBytes(output);
+  }
+
+  private static void assertShard(
+      ShardedCaseProcessor.Shard shard, long offset, int firstCaseNo, int cases) {
+    assertEquals(offset, shard.getOffset());
+    assertEquals(firstCaseNo, shard.getFirstCaseNo());
+    assertEquals(cases, shard.getCases());
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.cmd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.IUnsupportedCharacterListener;
+import com.goodneff.t9spelling.internal.core.T9Engine;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link StreamingCaseProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class StreamingCaseProcessorTest {
+  private static final String NL = System.lineSeparator();
+
+  private final StreamingCaseProcessor processor =
+      new StreamingCaseProcessor(T9Engine.DEFAULT.getMessageProcessor());
+
+  @Test
+  public void testAllCases() throws IOException {
+    StringWriter output = new StringWriter();
+
+    int cases = processor.process(reader("2\nhi\nyes\n"), output);
+
+    assertEquals(2, cases);
+    assertEquals("Case #1: 44 444" + NL + "Case #2: 999337777" + NL, output.toString());
+  }
+
+  @Test
+  public void testCaseCountIsLimit() throws IOException {
+    StringWriter output = new StringWriter();
+
+    int cases = processor.process(reader("1\nhi\nyes\n"), output);
+
+    assertEquals(1, cases);
+    assertEquals("Case #1: 44 444" + NL, output.toString());
+  }
+
+  @Test
+  public void testRejectedCasesAreMarked() throws IOException {
+    StreamingCaseProcessor rejecting =
+        new StreamingCaseProcessor(
+            new RejectMarkingMessageProcessor(
+                T9Engine.DEFAULT.getTable(), IUnsupportedCharacterListener.IGNORE));
+    StringWriter output = new StringWriter();
+
+    int cases = rejecting.process(reader("3\nab\nAB\n\n"), output);
+
+    assertEquals(3, cases);
+    assertEquals(
+        "Case #1: 2 22" + NL + "Case #2: <rejected>" + NL + "Case #3: " + NL, output.toString());
+  }
+
+  @Test
+  public void testEmptyInput() throws IOException {
+    try {
+      processor.process(reader(""), new StringWriter());
+      fail("IllegalArgumentException is expected");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("Incorrect input format. Input is empty", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testManyChunks() throws IOException {
+    StringBuilder input = new StringBuilder("10000\n");
+    StringBuilder expected = new StringBuilder();
+    for (int i = 1; i <= 10_000; i++) {
+      input.append("hello world\n");
+      expected.append("Case #").append(i).append(": 4433555 555666096667775553").append(NL);
+    }
+    FlushRecordingWriter output = new FlushRecordingWriter();
+
+    assertEquals(10_000, processor.process(reader(input.toString()), output));
+
+    assertEquals(expected.toString(), output.toString());
+    // the buffer is flushed whenever it is full, but not after the last chunk
+    assertTrue(output.flushed.size() > 1);
+    assertTrue(output.flushed.get(output.flushed.size() - 1).length() < expected.length());
+  }
+
+  @Test
+  public void testSlowReaderGetsEarlyOutput() throws IOException {
+    FlushRecordingWriter output = new FlushRecordingWriter();
+    List<String> seenBeforeRead = new ArrayList<>();
+    Reader input =
+        new SlowReader(
+            Arrays.asList("3\nhi\n", "yes\n", "hello world\n"),
+            () -> seenBeforeRead.add(output.lastFlushed()));
+
+    assertEquals(3, processor.process(new BufferedReader(input), output));
+
+    // every case is flushed before the reader is asked for the next line that is not ready yet
+    assertEquals(
+        Arrays.asList(
+            "", "Case #1: 44 444" + NL, "Case #1: 44 444" + NL + "Case #2: 999337777" + NL),
+        seenBeforeRead);
+    assertEquals(
+        "Case #1: 44 444"
+            + NL
+            + "Case #2: 999337777"
+            + NL
+            + "Case #3: 4433555 555666096667775553"
+            + NL,
+        output.toString());
+  }
+
+  @Test
+  public void testRangeOfCases() throws IOException {
+    BufferedReader reader = reader("hi\nyes\nhello world\n");
+    reader.readLine();
+    StringWriter output = new StringWriter();
+
+    int cases = processor.process(reader, output, 2, 1);
+
+    assertEquals(1, cases);
+    assertEquals("Case #2: 999337777" + NL, output.toString());
+    assertEquals("hello world", reader.readLine());
+  }
+
+  @Test
+  public void testRangeOfCasesWithCrLf() throws IOException {
+    StringWriter output = new StringWriter();
+
+    int cases = processor.process(reader("yes\r\nhi\r\n"), output, 7, 2);
+
+    assertEquals(2, cases);
+    assertEquals("Case #7: 999337777" + NL + "Case #8: 44 444" + NL, output.toString());
+  }
+
+  @Test
+  public void testNoCases() throws IOException {
+    StringWriter output = new StringWriter();
+
+    assertEquals(0, processor.process(reader("hi\n"), output, 1, 0));
+    assertEquals("", output.toString());
+  }
+
+  @Test
+  public void testFewerLinesThanCases() throws IOException {
+    StringWriter output = new StringWriter();
+
+    try {
+      processor.process(reader("hi\nyes\n"), output, 3, 3);
+      fail("IllegalArgumentException is expected");
+    } catch (IllegalArgumentException ex) {
+      assertEquals("Incorrect input format. Expected 3 cases, but found 2", ex.getMessage());
+    }
+    // the cases processed before the failure are written anyway
+    assertEquals("Case #3: 44 444" + NL + "Case #4: 999337777" + NL, output.toString());
+  }
+
+  private static BufferedReader reader(String input) {
+    return new BufferedReader(new StringReader(input));
+  }
+
+  /** A writer that records its content on every flush. */
+  private static final class FlushRecordingWriter extends StringWriter {
+    private final List<String> flushed = new ArrayList<>();
+
+    @Override
+    public void flush() {
+      flushed.add(toString());
+    }
+
+    private String lastFlushed() {
+      return flushed.isEmpty() ? "" : flushed.get(flushed.size() - 1);
+    }
+  }
+
+  /** A reader that delivers its input piece by piece and is not ready between the pieces. */
+  private static final class SlowReader extends Reader {
+    private final Deque<String> pieces;
+    private final Runnable beforeNextPiece;
+    private String piece = "";
+    private int position;
+
+    private SlowReader(List<String> pieces, Runnable beforeNextPiece) {
+      this.pieces = new ArrayDeque<>(pieces);
+      this.beforeNextPiece = beforeNextPiece;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+      if (position == piece.length()) {
+        if (pieces.isEmpty()) {
+          return -1;
+        }
+        beforeNextPiece.run();
+        piece = pieces.poll();
+        position = 0;
+      }
+      int count = Math.min(length, piece.length() - position);
+      piece.getChars(position, position + count, buffer, offset);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public boolean ready() {
+      return position < piece.length();
+    }
+
+    @Override
+    public void close() {}
+  }
+}
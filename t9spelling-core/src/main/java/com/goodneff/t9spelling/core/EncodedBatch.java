@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The results of a batch of messages encoded by an {@link IBatchMessageProcessor}.
+ *
+ * <p>All the results are kept in a single contiguous array, the result of the message {@code i}
+ * spans from {@code offsets[i]} to {@code offsets[i + 1]}. So a batch of any size is two arrays
+ * regardless of the number of messages.
+ *
+ * <p>The batch is immutable as long as the arrays are not modified by the caller.
+ *
+ * @author Alexey Gudnev
+ * @see IBatchMessageProcessor
+ */
+public final class EncodedBatch {
+  private static final String CASE_PREFIX = "Case #";
+  private static final String CASE_SEPARATOR = ": ";
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+  // the number of digits of Integer.MAX_VALUE
+  private static final int MAX_DIGITS = 10;
+
+  private final char[] chars;
+  private final int[] offsets;
+
+  /**
+   * Instantiates a batch over the specified arrays.
+   *
+   * @param chars the results of all the messages one after another, cannot be {@code null}.
+   * @param offsets the offsets of the results in the {@code chars} array followed by the end of the
+   *     last result, cannot be {@code null} or empty.
+   * @throws IllegalArgumentException if an array is not specified or the offsets are empty.
+   */
+  public EncodedBatch(char[] chars, int[] offsets) {
+    if (chars == null || offsets == null || offsets.length == 0) {
+      throw new IllegalArgumentException("The chars and offsets cannot be 'null' or empty");
+    }
+    this.chars = chars;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Returns the number of messages in the batch.
+   *
+   * @return the number of messages.
+   */
+  public int size() {
+    return offsets.length - 1;
+  }
+
+  /**
+   * Returns the result of the message at the specified {@code index}.
+   *
+   * @param index the index of the message.
+   * @return the encoded message, never {@code null}.
+   * @throws IndexOutOfBoundsException if the index is out of range.
+   */
+  public String getMessage(int index) {
+    return String.valueOf(chars, getStart(index), getEnd(index) - getStart(index));
+  }
+
+  /**
+   * Returns the offset of the result of the message at the specified {@code index} in the {@link
+   * #getChars()} array.
+   *
+   * @param index the index of the message.
+   * @return the start offset of the result.
+   * @throws IndexOutOfBoundsException if the index is out of range.
+   */
+  public int getStart(int index) {
+    checkIndex(index);
+    return offsets[index];
+  }
+
+  /**
+   * Returns the end offset (exclusive) of the result of the message at the specified {@code index}
+   * in the {@link #getChars()} array.
+   *
+   * @param index the index of the message.
+   * @return the end offset of the result.
+   * @throws IndexOutOfBoundsException if the index is out of range.
+   */
+  public int getEnd(int index) {
+    checkIndex(index);
+    return offsets[index + 1];
+  }
+
+  /**
+   * Returns the array of all the results. It is not copied.
+   *
+   * @return the results array, never {@code null}.
+   */
+  public char[] getChars() {
+    return chars;
+  }
+
+  /**
+   * Writes all the results to the {@code writer} in the T9 Spelling output format, i.e. as the
+   * "Case #N: ..." lines, where N is the case number starting from {@code firstCaseNo}.
+   *
+   * <p>The case numbers are formatted into a reusable array, so nothing is allocated per case. The
+   * writer is not flushed or closed, it is up to the caller.
+   *
+   * @param writer the writer to write to, cannot be {@code null}.
+   * @param firstCaseNo the number of the first case, must not be negative.
+   * @throws IllegalArgumentException if the writer is {@code null} or the first case number is
+   *     negative.
+   * @throws IOException if an I/O error occurs.
+   */
+  public void writeCases(Writer writer, int firstCaseNo) throws IOException {
+    if (writer == null) {
+      throw new IllegalArgumentException("The 'writer' argument cannot be null");
+    }
+    if (firstCaseNo < 0) {
+      throw new IllegalArgumentException("The first case number cannot be negative");
+    }
+
+    char[] digits = new char[MAX_DIGITS];
+    for (int index = 0; index < size(); index++) {
+      writer.write(CASE_PREFIX);
+      int caseNo = firstCaseNo + index;
+      int position = digits.length;
+      do {
+        digits[--position] = (char) ('0' + caseNo % 10);
+        caseNo /= 10;
+      } while (caseNo != 0);
+      writer.write(digits, position, digits.length - position);
+      writer.write(CASE_SEPARATOR);
+      writer.write(chars, offsets[index], offsets[index + 1] - offsets[index]);
+      writer.write(LINE_SEPARATOR);
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("The message index is out of range: " + index);
+    }
+  }
+}
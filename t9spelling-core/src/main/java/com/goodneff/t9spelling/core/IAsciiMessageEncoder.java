@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * The byte-level message encoder interface.
+ *
+ * <p>Encodes the messages stored as raw ASCII bytes into ASCII bytes with the same result as a
+ * {@link IMessageProcessor} gives for the same messages.
+ *
+ * @author Alexey Gudnev
+ * @see IMessageProcessor
+ */
+public interface IAsciiMessageEncoder {
+
+  /**
+   * Returns the maximal number of bytes the encoding of a message of the specified length takes.
+   *
+   * @param messageLength the message length in bytes.
+   * @return the maximal length of the encoded message.
+   */
+  long maxEncodedLength(int messageLength);
+
+  /**
+   * Encodes the message stored in the {@code input} bytes from {@code from} (inclusive) to {@code
+   * to} (exclusive) and puts the result to the {@code output} starting from its current position.
+   *
+   * <p>The input position is not changed. If the message cannot be encoded, the output position is
+   * left unchanged.
+   *
+   * @param input the input bytes, cannot be {@code null}.
+   * @param from the index of the first message byte.
+   * @param to the index after the last message byte.
+   * @param output the output buffer, cannot be {@code null}.
+   * @return the number of bytes put to the output.
+   * @throws UnsupportedCharacterException if the message has unsupported characters.
+   * @throws BufferOverflowException if the output has not enough room for the result.
+   * @see #maxEncodedLength(int)
+   */
+  int encode(ByteBuffer input, int from, int to, ByteBuffer output);
+}
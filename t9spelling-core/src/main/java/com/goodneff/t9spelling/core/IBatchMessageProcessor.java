@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import java.util.List;
+
+/**
+ * The batch message processor interface.
+ *
+ * <p>It encodes a whole batch of messages at once into an {@link EncodedBatch}, so the fixed costs
+ * of a call, e.g. the argument checks, the result allocation and the case numbering, are paid once
+ * per batch rather than once per message.
+ *
+ * @author Alexey Gudnev
+ */
+public interface IBatchMessageProcessor {
+
+  /**
+   * Encodes all the {@code messages}.
+   *
+   * <p>If any message has an unsupported character, the whole batch is rejected.
+   *
+   * @param messages the messages to encode, cannot be {@code null}.
+   * @return the encoded batch of the same size, never {@code null}.
+   * @throws IllegalArgumentException if the messages or any of them are {@code null}.
+   * @throws UnsupportedCharacterException if a message has unsupported characters.
+   */
+  EncodedBatch process(List<? extends CharSequence> messages);
+}
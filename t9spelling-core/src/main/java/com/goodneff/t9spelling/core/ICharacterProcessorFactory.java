@@ -16,7 +16,7 @@ import com.goodneff.t9spelling.internal.core.T9CharacterProcessorFactory;
  */
 public interface ICharacterProcessorFactory {
 
-  /** The shared instance of the factory. */
+  /** The shared instance of the factory. It is immutable and can be used from any thread. */
   ICharacterProcessorFactory INSTANCE = new T9CharacterProcessorFactory();
 
   /**
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The keypress analyzer interface.
+ *
+ * <p>It computes the {@link KeypressStatistics} of the messages as if they were encoded by an
+ * {@link IMessageProcessor} of the same keypad, but without producing the encoded messages.
+ *
+ * @author Alexey Gudnev
+ */
+public interface IKeypressAnalyzer {
+
+  /**
+   * Analyzes the {@code message} and adds the result to the {@code statistics}.
+   *
+   * <p>If the message has an unsupported character, the statistics are left unchanged.
+   *
+   * @param message the message to analyze, cannot be {@code null}.
+   * @param statistics the statistics to add the result to, cannot be {@code null}.
+   * @throws IllegalArgumentException if the message or the statistics are {@code null}.
+   * @throws UnsupportedCharacterException if the message has unsupported characters.
+   */
+  void analyze(CharSequence message, KeypressStatistics statistics);
+
+  /**
+   * Analyzes all the {@code messages} on the calling thread.
+   *
+   * @param messages the messages to analyze, cannot be {@code null}.
+   * @return the statistics of all the messages, never {@code null}.
+   * @throws IllegalArgumentException if the messages or any of them are {@code null}.
+   * @throws UnsupportedCharacterException if a message has unsupported characters.
+   */
+  KeypressStatistics analyze(List<? extends CharSequence> messages);
+
+  /**
+   * Analyzes all the {@code messages} in parallel on the specified {@code pool}.
+   *
+   * <p>The messages are split into chunks, every chunk is analyzed into its own statistics and the
+   * statistics are added up, so the worker threads share nothing.
+   *
+   * @param messages the messages to analyze, cannot be {@code null}.
+   * @param pool the pool to run the analysis on, cannot be {@code null}.
+   * @return the statistics of all the messages, never {@code null}.
+   * @throws IllegalArgumentException if an argument or any of the messages are {@code null}.
+   * @throws UnsupportedCharacterException if a message has unsupported characters.
+   */
+  KeypressStatistics analyze(List<? extends CharSequence> messages, ForkJoinPool pool);
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+/**
+ * The message decoder interface.
+ *
+ * <p>Decodes the result of a {@link IMessageProcessor} back into the original message.
+ *
+ * @author Alexey Gudnev
+ * @see IMessageProcessor
+ */
+public interface IMessageDecoder {
+
+  /**
+   * Decodes the specified {@code encoded} message and returns the original one.
+   *
+   * @param encoded the encoded message, cannot be {@code null}.
+   * @return the original message, never {@code null}.
+   * @throws IllegalArgumentException if the encoded message is {@code null} or malformed.
+   */
+  String decode(String encoded);
+
+  /**
+   * Decodes the specified {@code encoded} message and appends the original one to the {@code
+   * output}.
+   *
+   * <p>If the encoded message is malformed, the output is left unchanged.
+   *
+   * @param encoded the encoded message, cannot be {@code null}.
+   * @param output the output to append the original message to, cannot be {@code null}.
+   * @throws IllegalArgumentException if the encoded message or the output is {@code null} or if the
+   *     encoded message is malformed.
+   */
+  default void decode(CharSequence encoded, StringBuilder output) {
+    if (encoded == null || output == null) {
+      throw new IllegalArgumentException("The 'encoded' and 'output' arguments cannot be null");
+    }
+    output.append(decode(encoded.toString()));
+  }
+}
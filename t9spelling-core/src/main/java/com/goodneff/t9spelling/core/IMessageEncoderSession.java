@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * The incremental message encoder interface.
+ *
+ * <p>A session encodes a message that arrives in pieces, e.g. characters, chunks or a whole {@link
+ * Reader}, and writes the result to its sink as it goes. The key of the last encoded character is
+ * carried from one piece to the next one, so the result is the same as if the message was encoded
+ * at once and the memory footprint does not depend on the message length.
+ *
+ * <p>If a piece has an unsupported character, the characters of the piece before it are already
+ * encoded and the session can be used further.
+ *
+ * <p>A session is stateful and not thread-safe.
+ *
+ * @author Alexey Gudnev
+ */
+public interface IMessageEncoderSession extends Flushable, Closeable {
+
+  /**
+   * Encodes the next {@code character} of the message.
+   *
+   * @param character the character to encode.
+   * @throws UnsupportedCharacterException if the character is not supported.
+   * @throws IOException if the result cannot be written.
+   */
+  void append(char character) throws IOException;
+
+  /**
+   * Encodes the next {@code chunk} of the message.
+   *
+   * @param chunk the characters to encode, cannot be {@code null}.
+   * @throws IllegalArgumentException if the chunk is {@code null}.
+   * @throws UnsupportedCharacterException if the chunk has unsupported characters.
+   * @throws IOException if the result cannot be written.
+   */
+  void append(CharSequence chunk) throws IOException;
+
+  /**
+   * Encodes the remaining characters of the {@code chunk} and advances its position.
+   *
+   * @param chunk the buffer of the characters to encode, cannot be {@code null}.
+   * @throws IllegalArgumentException if the chunk is {@code null}.
+   * @throws UnsupportedCharacterException if the chunk has unsupported characters, the position of
+   *     the chunk is left at the unsupported character.
+   * @throws IOException if the result cannot be written.
+   */
+  void append(CharBuffer chunk) throws IOException;
+
+  /**
+   * Encodes all the characters of the {@code reader} up to its end. The reader is not closed.
+   *
+   * @param reader the reader of the characters to encode, cannot be {@code null}.
+   * @return the number of the encoded characters.
+   * @throws IllegalArgumentException if the reader is {@code null}.
+   * @throws UnsupportedCharacterException if the reader has unsupported characters.
+   * @throws IOException if the characters cannot be read or the result cannot be written.
+   */
+  long append(Reader reader) throws IOException;
+
+  /**
+   * Ends the current message, so the next character starts a new message without a pause.
+   *
+   * <p>Nothing is written between the messages, the caller writes the separator to the sink after
+   * flushing the session if needed.
+   */
+  void endMessage();
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import javax.management.MXBean;
+
+/**
+ * The message processing metrics interface.
+ *
+ * <p>It is exposed as a JMX MXBean, so every getter is a read-only attribute that can be watched
+ * with any JMX client, e.g. JConsole or Java Mission Control. The latencies are measured per
+ * message and reported in microseconds.
+ *
+ * @author Alexey Gudnev
+ */
+@MXBean
+public interface IMessageMetrics {
+
+  /**
+   * Returns the number of successfully processed messages.
+   *
+   * @return the number of messages.
+   */
+  long getMessageCount();
+
+  /**
+   * Returns the number of characters of the successfully processed messages.
+   *
+   * @return the number of input characters.
+   */
+  long getCharacterCount();
+
+  /**
+   * Returns the number of characters produced by the processing. Since the produced characters are
+   * key symbols and pauses, it is also the number of output bytes in any ASCII compatible charset.
+   *
+   * @return the number of output characters.
+   */
+  long getOutputCharacterCount();
+
+  /**
+   * Returns the number of messages rejected because of unsupported characters.
+   *
+   * @return the number of rejected messages.
+   */
+  long getUnsupportedCharacterErrorCount();
+
+  /**
+   * Returns the mean processing latency.
+   *
+   * @return the mean latency in microseconds, {@code 0} if nothing is processed.
+   */
+  double getLatencyMeanMicros();
+
+  /**
+   * Returns the median processing latency.
+   *
+   * @return the latency in microseconds.
+   */
+  double getLatency50thPercentileMicros();
+
+  /**
+   * Returns the 99th percentile of the processing latency.
+   *
+   * @return the latency in microseconds.
+   */
+  double getLatency99thPercentileMicros();
+
+  /**
+   * Returns the 99.9th percentile of the processing latency.
+   *
+   * @return the latency in microseconds.
+   */
+  double getLatency999thPercentileMicros();
+
+  /**
+   * Returns the maximal processing latency.
+   *
+   * @return the latency in microseconds.
+   */
+  double getLatencyMaxMicros();
+}
@@ -4,12 +4,19 @@
  */
 package com.goodneff.t9spelling.core;
 
+import java.io.IOException;
+
 /**
  * The message processor interface.
  *
  * <p>Processes the incoming string message into a string that represents a result of the processor
  * logic applying./p>
  *
+ * <p>Besides the string-to-string processing it can write the result into a caller-owned output, so
+ * a caller can reuse a single buffer for many messages. The default implementations of these
+ * methods delegate to {@link #process(String)}, implementations are encouraged to override them
+ * with allocation-free versions.
+ *
  * @author Alexey Gudnev
  */
 public interface IMessageProcessor {
@@ -24,4 +31,41 @@ public interface IMessageProcessor {
    * @throws UnsupportedCharacterException if the message has unsupported characters.
    */
   String process(String message);
+
+  /**
+   * Processes the specified {@code message} and appends a result of processing to the {@code
+   * output}.
+   *
+   * <p>If the message cannot be processed, the output may contain a part of the result.
+   *
+   * @param message the incoming {@code message}, cannot be {@code null}.
+   * @param output the output to append the result to, cannot be {@code null}.
+   * @throws IllegalArgumentException if the message or the output is {@code null}.
+   * @throws UnsupportedCharacterException if the message has unsupported characters.
+   * @throws IOException if the output fails to append the result.
+   */
+  default void process(CharSequence message, Appendable output) throws IOException {
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+    output.append(process(message.toString()));
+  }
+
+  /**
+   * Processes the specified {@code message} and appends a result of processing to the {@code
+   * output}.
+   *
+   * <p>If the message cannot be processed, the output is left unchanged.
+   *
+   * @param message the incoming {@code message}, cannot be {@code null}.
+   * @param output the output to append the result to, cannot be {@code null}.
+   * @throws IllegalArgumentException if the message or the output is {@code null}.
+   * @throws UnsupportedCharacterException if the message has unsupported characters.
+   */
+  default void process(CharSequence message, StringBuilder output) {
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+    output.append(process(message.toString()));
+  }
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The packed message reader interface.
+ *
+ * <p>A reader reads the messages written by an {@link IPackedMessageWriter} one by one and restores
+ * their key sequences in the textual form, i.e. exactly as {@link IMessageProcessor} returns them.
+ *
+ * <p>A reader is stateful and not thread-safe.
+ *
+ * @author Alexey Gudnev
+ * @see IPackedMessageWriter
+ */
+public interface IPackedMessageReader extends Closeable {
+
+  /**
+   * Reads the next message and appends its key sequence to the {@code output}.
+   *
+   * @param output the output to append the key sequence to, cannot be {@code null}.
+   * @return {@code true} if a message is read, {@code false} if there are no more messages.
+   * @throws IllegalArgumentException if the output is {@code null}.
+   * @throws IOException if the messages cannot be read or the packed data is malformed or written
+   *     for another keypad.
+   */
+  boolean read(StringBuilder output) throws IOException;
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * The packed message writer interface.
+ *
+ * <p>A writer encodes the messages and writes their key sequences in the compact binary form
+ * instead of the textual one. The messages are written one after another and can be read back in
+ * the textual form by an {@link IPackedMessageReader} built for the same keypad.
+ *
+ * <p>A writer is stateful and not thread-safe.
+ *
+ * @author Alexey Gudnev
+ * @see IPackedMessageReader
+ */
+public interface IPackedMessageWriter extends Flushable, Closeable {
+
+  /**
+   * Encodes the {@code message} and writes it as the next packed message.
+   *
+   * <p>If the message has unsupported characters, nothing is written and the writer can be used
+   * further.
+   *
+   * @param message the message to encode, cannot be {@code null}.
+   * @throws IllegalArgumentException if the message is {@code null}.
+   * @throws UnsupportedCharacterException if the message has unsupported characters.
+   * @throws IOException if the result cannot be written.
+   */
+  void write(CharSequence message) throws IOException;
+
+  /**
+   * Closes the writer without terminating the stream.
+   *
+   * <p>The written messages are flushed, but the stream is left without its terminator, so a reader
+   * rejects it as truncated. Use it instead of {@link #close()} when the writing has failed, so an
+   * incomplete stream cannot be taken for a complete one. It does nothing if the writer is already
+   * closed.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  void abort() throws IOException;
+}
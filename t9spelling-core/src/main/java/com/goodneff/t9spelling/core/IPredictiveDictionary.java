@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import java.util.List;
+
+/**
+ * The predictive text dictionary interface.
+ *
+ * <p>Provides the candidate words for a sequence of keys, i.e. the words that are typed with the
+ * keys when every key is pressed once per character.
+ *
+ * @author Alexey Gudnev
+ */
+public interface IPredictiveDictionary {
+
+  /**
+   * Returns the candidate words for the specified {@code keys} ranked from the most to the least
+   * frequent one.
+   *
+   * @param keys the sequence of key symbols, e.g. {@code "4355"}, cannot be {@code null}.
+   * @param limit the maximal number of the candidates to return, must not be negative.
+   * @return an unmodifiable list of the candidates, never {@code null}. It is empty if there are no
+   *     words for the keys.
+   * @throws IllegalArgumentException if the keys are {@code null} or the limit is negative.
+   */
+  List<String> lookup(CharSequence keys, int limit);
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+/**
+ * The listener of the unsupported characters found during the processing.
+ *
+ * <p>It reports the errors without any exception, so a message with unsupported characters costs
+ * about as much as a valid one.
+ *
+ * @author Alexey Gudnev
+ * @see UnsupportedCharacterPolicy
+ */
+@FunctionalInterface
+public interface IUnsupportedCharacterListener {
+  /** The listener that ignores everything. */
+  IUnsupportedCharacterListener IGNORE = (message, index) -> {};
+
+  /**
+   * Invoked for every unsupported character of a message.
+   *
+   * <p>The listener is invoked by the processing thread, so it must be thread-safe if the processor
+   * is shared between threads.
+   *
+   * @param message the processed message, it must not be kept after the method returns.
+   * @param index the index of the unsupported character in the message.
+   */
+  void onUnsupportedCharacter(CharSequence message, int index);
+}
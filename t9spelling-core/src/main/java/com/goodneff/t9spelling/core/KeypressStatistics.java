@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+import java.time.Duration;
+
+/**
+ * The keypress statistics of encoded messages.
+ *
+ * <p>The statistics are an accumulator filled by an {@link IKeypressAnalyzer}: the number of
+ * messages and their characters, the number of key presses with a per-digit histogram and the
+ * number of pauses, i.e. the figures of the encoded messages that are computed without producing
+ * them. The presses of the key symbols other than the digits {@code 0-9} are counted in the total
+ * only.
+ *
+ * <p>The statistics are mutable and not thread-safe. The parallel analysis fills separate instances
+ * and {@link #add(KeypressStatistics) adds} them up.
+ *
+ * @author Alexey Gudnev
+ * @see IKeypressAnalyzer
+ */
+public final class KeypressStatistics {
+  /** The number of digits in the histogram. */
+  public static final int DIGITS = 10;
+
+  private long messageCount;
+  private long characterCount;
+  private long pressCount;
+  private long pauseCount;
+  private final long[] digitPressCounts = new long[DIGITS];
+
+  /**
+   * Adds the messages of the specified total length.
+   *
+   * @param messages the number of messages, cannot be negative.
+   * @param characters the number of characters of the messages, cannot be negative.
+   * @throws IllegalArgumentException if a number is negative.
+   */
+  public void addMessages(long messages, long characters) {
+    if (messages < 0 || characters < 0) {
+      throw new IllegalArgumentException(
+          "The number of messages and characters cannot be negative");
+    }
+    messageCount += messages;
+    characterCount += characters;
+  }
+
+  /**
+   * Adds the presses of the key of the specified {@code symbol}.
+   *
+   * @param symbol the key symbol.
+   * @param presses the number of presses, cannot be negative.
+   * @throws IllegalArgumentException if the number of presses is negative.
+   */
+  public void addPresses(char symbol, long presses) {
+    if (presses < 0) {
+      throw new IllegalArgumentException("The number of presses cannot be negative");
+    }
+    pressCount += presses;
+    int digit = symbol - '0';
+    if (digit >= 0 && digit < DIGITS) {
+      digitPressCounts[digit] += presses;
+    }
+  }
+
+  /**
+   * Adds the pauses between the presses of the same key.
+   *
+   * @param pauses the number of pauses, cannot be negative.
+   * @throws IllegalArgumentException if the number of pauses is negative.
+   */
+  public void addPauses(long pauses) {
+    if (pauses < 0) {
+      throw new IllegalArgumentException("The number of pauses cannot be negative");
+    }
+    pauseCount += pauses;
+  }
+
+  /**
+   * Adds the {@code other} statistics to these ones.
+   *
+   * @param other the statistics to add, cannot be {@code null}.
+   */
+  public void add(KeypressStatistics other) {
+    if (other == null) {
+      throw new IllegalArgumentException("The statistics cannot be 'null'");
+    }
+    messageCount += other.messageCount;
+    characterCount += other.characterCount;
+    pressCount += other.pressCount;
+    pauseCount += other.pauseCount;
+    for (int digit = 0; digit < DIGITS; digit++) {
+      digitPressCounts[digit] += other.digitPressCounts[digit];
+    }
+  }
+
+  /**
+   * Returns the number of the analyzed messages.
+   *
+   * @return the number of messages.
+   */
+  public long getMessageCount() {
+    return messageCount;
+  }
+
+  /**
+   * Returns the number of characters of the analyzed messages.
+   *
+   * @return the number of characters.
+   */
+  public long getCharacterCount() {
+    return characterCount;
+  }
+
+  /**
+   * Returns the total number of key presses.
+   *
+   * @return the number of presses.
+   */
+  public long getPressCount() {
+    return pressCount;
+  }
+
+  /**
+   * Returns the number of presses of the specified {@code digit} key.
+   *
+   * @param digit the digit in range [0-9].
+   * @return the number of presses.
+   * @throws IllegalArgumentException if the digit is out of range.
+   */
+  public long getDigitPressCount(int digit) {
+    if (digit < 0 || digit >= DIGITS) {
+      throw new IllegalArgumentException("The digit must be in range [0-9]");
+    }
+    return digitPressCounts[digit];
+  }
+
+  /**
+   * Returns the number of pauses.
+   *
+   * @return the number of pauses.
+   */
+  public long getPauseCount() {
+    return pauseCount;
+  }
+
+  /**
+   * Returns the total length of the encoded messages, i.e. the number of the key symbols and the
+   * pauses.
+   *
+   * @return the encoded length.
+   */
+  public long getEncodedLength() {
+    return pressCount + pauseCount;
+  }
+
+  /**
+   * Estimates the time of typing the analyzed messages under a simple cost model, where every key
+   * press and every pause take a fixed time.
+   *
+   * @param pressTime the time of a key press, cannot be {@code null}.
+   * @param pauseTime the time of a pause, cannot be {@code null}.
+   * @return the estimated typing time, never {@code null}.
+   * @throws IllegalArgumentException if a time is not specified.
+   * @throws ArithmeticException if the time overflows the duration.
+   */
+  public Duration estimateTypingTime(Duration pressTime, Duration pauseTime) {
+    if (pressTime == null || pauseTime == null) {
+      throw new IllegalArgumentException("The press and pause times cannot be 'null'");
+    }
+    return pressTime.multipliedBy(pressCount).plus(pauseTime.multipliedBy(pauseCount));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb =
+        new StringBuilder()
+            .append("messages=")
+            .append(messageCount)
+            .append(", characters=")
+            .append(characterCount)
+            .append(", presses=")
+            .append(pressCount)
+            .append(", pauses=")
+            .append(pauseCount)
+            .append(", digits=[");
+    for (int digit = 0; digit < DIGITS; digit++) {
+      sb.append(digit == 0 ? "" : ", ").append(digitPressCounts[digit]);
+    }
+    return sb.append(']').toString();
+  }
+}
@@ -20,4 +20,19 @@ public final class UnsupportedCharacterException extends RuntimeException {
   public UnsupportedCharacterException(String message) {
     super(message);
   }
+
+  /**
+   * Instantiates a new exception with or without the stack trace.
+   *
+   * <p>An exception without the stack trace is cheap to create, it suits the cases when the
+   * unsupported characters are expected and the exception is handled close to the place it is
+   * thrown at.
+   *
+   * @param message the detailed message. The detailed message is saved for later retrieval by the
+   *     {@link #getMessage()} method.
+   * @param writableStackTrace whether the stack trace is captured.
+   */
+  public UnsupportedCharacterException(String message, boolean writableStackTrace) {
+    super(message, null, false, writableStackTrace);
+  }
 }
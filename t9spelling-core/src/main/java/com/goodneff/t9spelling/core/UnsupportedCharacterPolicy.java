@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.core;
+
+/**
+ * The policy of handling the unsupported characters of a message.
+ *
+ * @author Alexey Gudnev
+ * @see IUnsupportedCharacterListener
+ */
+public enum UnsupportedCharacterPolicy {
+  /** The processing fails with an {@link UnsupportedCharacterException}. */
+  FAIL,
+
+  /** The unsupported characters are dropped, the rest of the message is processed. */
+  SKIP,
+
+  /** The unsupported characters are processed as a replacement character. */
+  REPLACE,
+
+  /** The message is rejected as a whole, nothing is produced for it. */
+  REJECT
+}
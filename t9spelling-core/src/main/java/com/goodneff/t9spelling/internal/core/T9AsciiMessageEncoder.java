@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IAsciiMessageEncoder;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+
+/**
+ * The {@link IAsciiMessageEncoder} implementation backed by a {@link T9KeypadTable}.
+ *
+ * <p>It produces the same output as {@link T9TableMessageProcessor}, but it reads the message as
+ * raw ASCII bytes and writes the result as ASCII bytes. So there is no charset decoding and
+ * encoding and the messages can be encoded straight from a memory-mapped file into a direct buffer.
+ *
+ * <p>Any byte outside of the ASCII range is treated as an unsupported character.
+ *
+ * <p>The encoder is immutable and can be shared between threads.
+ *
+ * @author Alexey Gudnev
+ * @see T9KeypadTable
+ */
+public final class T9AsciiMessageEncoder implements IAsciiMessageEncoder {
+  private static final int ASCII_SIZE = 128;
+  private static final byte PAUSE = ' ';
+
+  private final int[] keys = new int[ASCII_SIZE];
+  private final byte[][] sequences = new byte[ASCII_SIZE][];
+  private final int maxSequenceLength;
+
+  /** Instantiates an encoder for the default T9 keypad. */
+  public T9AsciiMessageEncoder() {
+    this(T9KeypadTable.DEFAULT);
+  }
+
+  /**
+   * Instantiates an encoder for the ASCII part of the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @throws IllegalArgumentException if the table is not specified or an ASCII character of the
+   *     table is mapped to a non-ASCII key sequence.
+   */
+  public T9AsciiMessageEncoder(T9KeypadTable table) {
+    if (table == null) {
+      throw new IllegalArgumentException("The keypad table cannot be 'null'");
+    }
+
+    int maxLength = 0;
+    for (char character = 0; character < ASCII_SIZE; character++) {
+      keys[character] = table.keyOf(character);
+      char[] sequence = table.sequenceOf(character);
+      if (sequence == null) {
+        continue;
+      }
+      byte[] bytes = new byte[sequence.length];
+      for (int i = 0; i < sequence.length; i++) {
+        if (sequence[i] >= ASCII_SIZE) {
+          String msg =
+              MessageFormat.format("The ''{0}'' character has non-ASCII key sequence", character);
+          throw new IllegalArgumentException(msg);
+        }
+        bytes[i] = (byte) sequence[i];
+      }
+      sequences[character] = bytes;
+      maxLength = Math.max(maxLength, bytes.length);
+    }
+    this.maxSequenceLength = maxLength;
+  }
+
+  @Override
+  public long maxEncodedLength(int messageLength) {
+    // every character but the first one may be preceded by a pause
+    return (long) messageLength * (maxSequenceLength + 1);
+  }
+
+  @Override
+  public int encode(ByteBuffer input, int from, int to, ByteBuffer output) {
+    int start = output.position();
+    try {
+      int lastKey = T9KeypadTable.NO_KEY;
+      for (int i = from; i < to; i++) {
+        int character = input.get(i) & 0xFF;
+        int key = character < ASCII_SIZE ? keys[character] : T9KeypadTable.NO_KEY;
+        if (key == T9KeypadTable.NO_KEY) {
+          String msg =
+              MessageFormat.format("The character ''{0}'' is not supported", (char) character);
+          throw new UnsupportedCharacterException(msg);
+        }
+        if (key == lastKey) {
+          output.put(PAUSE);
+        }
+        output.put(sequences[character]);
+        lastKey = key;
+      }
+    } catch (RuntimeException ex) {
+      output.position(start);
+      throw ex;
+    }
+    return output.position() - start;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.EncodedBatch;
+import com.goodneff.t9spelling.core.IBatchMessageProcessor;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.text.MessageFormat;
+import java.util.List;
+
+/**
+ * The {@link IBatchMessageProcessor} implementation backed by a {@link T9KeypadTable}.
+ *
+ * <p>The batch is processed in two passes over all the messages. The first one validates the
+ * characters and computes the offsets of the results, the second one fills a single output array of
+ * the exact total length. The results are the same as the ones of {@link T9TableMessageProcessor},
+ * but there is neither a per-message object nor a per-message string.
+ *
+ * <p>The processor is immutable and can be shared between threads.
+ *
+ * @author Alexey Gudnev
+ * @see EncodedBatch
+ */
+public final class T9BatchMessageProcessor implements IBatchMessageProcessor {
+  private static final char PAUSE = ' ';
+
+  private final T9KeypadTable table;
+
+  /** Instantiates a processor for the default T9 keypad. */
+  public T9BatchMessageProcessor() {
+    this(T9KeypadTable.DEFAULT);
+  }
+
+  /**
+   * Instantiates a processor for the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   */
+  public T9BatchMessageProcessor(T9KeypadTable table) {
+    if (table == null) {
+      throw new IllegalArgumentException("The keypad table cannot be 'null'");
+    }
+    this.table = table;
+  }
+
+  @Override
+  public EncodedBatch process(List<? extends CharSequence> messages) {
+    if (messages == null) {
+      throw new IllegalArgumentException("The 'messages' argument cannot be null");
+    }
+
+    int[] offsets = new int[messages.size() + 1];
+    long length = 0;
+    for (int index = 0; index < messages.size(); index++) {
+      offsets[index] = (int) length;
+      length += measure(messages.get(index));
+      if (length > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("The encoded batch is too long");
+      }
+    }
+    offsets[messages.size()] = (int) length;
+
+    char[] chars = new char[(int) length];
+    for (int index = 0; index < messages.size(); index++) {
+      fill(messages.get(index), chars, offsets[index]);
+    }
+    return new EncodedBatch(chars, offsets);
+  }
+
+  // Validates the message and returns the exact length of the result
+  private int measure(CharSequence message) {
+    if (message == null) {
+      throw new IllegalArgumentException("The messages cannot be 'null'");
+    }
+    int length = 0;
+    int lastKey = T9KeypadTable.NO_KEY;
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      int key = table.keyOf(character);
+      if (key == T9KeypadTable.NO_KEY) {
+        String msg = MessageFormat.format("The character ''{0}'' is not supported", character);
+        throw new UnsupportedCharacterException(msg);
+      }
+      if (key == lastKey) {
+        length++;
+      }
+      length += table.sequenceOf(character).length;
+      lastKey = key;
+    }
+    return length;
+  }
+
+  // Fills the result of the validated message at the position
+  private void fill(CharSequence message, char[] output, int position) {
+    int lastKey = T9KeypadTable.NO_KEY;
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      int key = table.keyOf(character);
+      if (key == lastKey) {
+        output[position++] = PAUSE;
+      }
+      char[] sequence = table.sequenceOf(character);
+      System.arraycopy(sequence, 0, output, position, sequence.length);
+      position += sequence.length;
+      lastKey = key;
+    }
+  }
+}
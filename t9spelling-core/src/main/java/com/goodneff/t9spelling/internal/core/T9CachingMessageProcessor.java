@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link IMessageProcessor} implementation that caches the results of processing of single
+ * words.
+ *
+ * <p>The message is split into words and runs of spaces. Every part is processed by the {@code
+ * origin} processor independently and the results are concatenated. It gives the same result as
+ * processing the whole message, because the space character has its own key, so a pause never
+ * appears between a word and a space. The results of the parts are kept in a size-bounded cache, so
+ * the repeated words of a natural language text are processed once.
+ *
+ * <p>The cache is split into segments with their own locks, every segment evicts its least recently
+ * used entries when it is full. The segments share the maximum size, so a small cache has fewer
+ * segments and the cache never holds more entries than the maximum size. Too long parts are not
+ * cached at all. A part is looked up by its characters in place, so a hit allocates nothing, only a
+ * miss makes a string of the part.
+ *
+ * <p><strong>NOTE:</strong> the processor gives wrong results for an {@code origin} processor that
+ * makes a pause between the space character and any other one.
+ *
+ * <p>The processor is thread-safe as long as the {@code origin} processor is thread-safe.
+ *
+ * @author Alexey Gudnev
+ */
+public final class T9CachingMessageProcessor implements IMessageProcessor {
+  private static final char SPACE = ' ';
+  private static final int SEGMENTS = 16;
+  private static final int MAX_CACHED_LENGTH = 64;
+
+  private final IMessageProcessor origin;
+  private final Segment[] segments;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Instantiates a caching processor over the default T9 engine processor.
+   *
+   * @param maximumSize the maximal number of cached words, must be positive.
+   */
+  public T9CachingMessageProcessor(int maximumSize) {
+    this(T9Engine.DEFAULT.getMessageProcessor(), maximumSize);
+  }
+
+  /**
+   * Instantiates a caching processor over the {@code origin} one.
+   *
+   * @param origin the origin processor, cannot be {@code null}.
+   * @param maximumSize the maximal number of cached words, must be positive.
+   */
+  public T9CachingMessageProcessor(IMessageProcessor origin, int maximumSize) {
+    if (origin == null) {
+      throw new IllegalArgumentException("The origin message processor cannot be 'null'");
+    }
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("The maximum size must be positive");
+    }
+    this.origin = origin;
+    // a power of two of the segments, every one of which has at least a single entry
+    int count = Math.min(SEGMENTS, Integer.highestOneBit(maximumSize));
+    this.segments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      int segmentSize = maximumSize / count + (i < maximumSize % count ? 1 : 0);
+      segments[i] = new Segment(segmentSize, evictions);
+    }
+  }
+
+  @Override
+  public String process(String message) {
+    if (message == null) {
+      throw new IllegalArgumentException("The 'message' argument cannot be null");
+    }
+
+    StringBuilder sb = new StringBuilder(message.length() * 2);
+    process(message, sb);
+    return sb.toString();
+  }
+
+  @Override
+  public void process(CharSequence message, StringBuilder output) {
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+
+    int start = output.length();
+    try {
+      for (int from = 0, to; from < message.length(); from = to) {
+        to = endOfPart(message, from);
+        output.append(processPart(message, from, to));
+      }
+    } catch (RuntimeException ex) {
+      output.setLength(start);
+      throw ex;
+    }
+  }
+
+  @Override
+  public void process(CharSequence message, Appendable output) throws IOException {
+    if (output instanceof StringBuilder) {
+      process(message, (StringBuilder) output);
+      return;
+    }
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+
+    // the cached results are appended as they are, a rejected part leaves the previous ones
+    for (int from = 0, to; from < message.length(); from = to) {
+      to = endOfPart(message, from);
+      output.append(processPart(message, from, to));
+    }
+  }
+
+  /**
+   * Returns a snapshot of the cache statistics.
+   *
+   * @return the statistics, never {@code null}.
+   */
+  public Statistics getStatistics() {
+    long size = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return new Statistics(hits.sum(), misses.sum(), evictions.sum(), size);
+  }
+
+  // Returns the end of the word or the run of spaces that starts at the index
+  private static int endOfPart(CharSequence message, int from) {
+    boolean space = message.charAt(from) == SPACE;
+    int to = from + 1;
+    while (to < message.length() && (message.charAt(to) == SPACE) == space) {
+      to++;
+    }
+    return to;
+  }
+
+  /**
+   * Processes a single word or a run of spaces, i.e. the characters of the {@code message} from
+   * {@code from} inclusive to {@code to} exclusive.
+   *
+   * @throws UnsupportedCharacterException if the part has unsupported characters.
+   */
+  private String processPart(CharSequence message, int from, int to) {
+    if (to - from > MAX_CACHED_LENGTH) {
+      misses.increment();
+      return origin.process(message.subSequence(from, to).toString());
+    }
+
+    // the same hash as the string of the part has
+    int hash = 0;
+    for (int i = from; i < to; i++) {
+      hash = 31 * hash + message.charAt(i);
+    }
+    Segment segment = segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    String result;
+    synchronized (segment) {
+      result = segment.find(message, from, to, hash);
+    }
+    if (result != null) {
+      hits.increment();
+      return result;
+    }
+
+    misses.increment();
+    String part = message.subSequence(from, to).toString();
+    result = origin.process(part);
+    synchronized (segment) {
+      segment.put(part, result);
+    }
+    return result;
+  }
+
+  /** A snapshot of the cache statistics. */
+  public static final class Statistics {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+
+    private Statistics(long hitCount, long missCount, long evictionCount, long size) {
+      this.hitCount = hitCount;
+      this.missCount = missCount;
+      this.evictionCount = evictionCount;
+      this.size = size;
+    }
+
+    /**
+     * Returns the number of parts found in the cache.
+     *
+     * @return the number of hits.
+     */
+    public long getHitCount() {
+      return hitCount;
+    }
+
+    /**
+     * Returns the number of parts processed by the origin processor.
+     *
+     * @return the number of misses.
+     */
+    public long getMissCount() {
+      return missCount;
+    }
+
+    /**
+     * Returns the number of parts evicted from the cache.
+     *
+     * @return the number of evictions.
+     */
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    /**
+     * Returns the number of parts in the cache.
+     *
+     * @return the cache size.
+     */
+    public long getSize() {
+      return size;
+    }
+
+    /**
+     * Returns the ratio of hits to all the requests.
+     *
+     * @return the hit rate in range [0, 1], {@code 1} if there were no requests.
+     */
+    public double getHitRate() {
+      long requests = hitCount + missCount;
+      return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+      return "hits="
+          + hitCount
+          + ", misses="
+          + missCount
+          + ", evictions="
+          + evictionCount
+          + ", size="
+          + size;
+    }
+  }
+
+  /** A cache segment with LRU eviction. The access must be synchronized on the segment. */
+  private static final class Segment extends LinkedHashMap<String, String> {
+    private final int maximumSize;
+    private final LongAdder evictions;
+    // the reusable lookup key, it is guarded by the segment lock as the map itself
+    private final Probe probe = new Probe();
+
+    private Segment(int maximumSize, LongAdder evictions) {
+      super(16, 0.75f, true);
+      this.maximumSize = maximumSize;
+      this.evictions = evictions;
+    }
+
+    // Looks up the part of the message without making a string of it
+    private String find(CharSequence message, int from, int to, int hash) {
+      probe.reset(message, from, to, hash);
+      try {
+        return get(probe);
+      } finally {
+        probe.reset(null, 0, 0, 0);
+      }
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      if (size() > maximumSize) {
+        evictions.increment();
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A lookup key that is equal to a string key of the same characters as the part of a message. The
+   * map calls {@code equals} of the looked up key only, so the probe never needs to be equal to a
+   * string the other way round.
+   */
+  private static final class Probe {
+    private CharSequence message;
+    private int from;
+    private int to;
+    private int hash;
+
+    private void reset(CharSequence message, int from, int to, int hash) {
+      this.message = message;
+      this.from = from;
+      this.to = to;
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof String)) {
+        return false;
+      }
+      String key = (String) other;
+      if (key.length() != to - from) {
+        return false;
+      }
+      for (int i = 0; i < key.length(); i++) {
+        if (key.charAt(i) != message.charAt(from + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
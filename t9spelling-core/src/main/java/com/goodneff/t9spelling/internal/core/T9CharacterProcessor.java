@@ -26,7 +26,7 @@ import java.util.stream.Collectors;
  * position. If the character to process is not in the supported characters list, it throws an
  * {@link UnsupportedCharacterException}.
  *
- * <p><strong>NOTE:</strong> The processor implementation is not thread-safe.
+ * <p>The processor is immutable and can be shared between threads.
  *
  * @author Alexey Gudnev
  */
@@ -66,7 +66,7 @@ public class T9CharacterProcessor implements ICharacterProcessor {
       throw new IllegalArgumentException(msg);
     }
 
-    this.supportedCharacters = characters;
+    this.supportedCharacters = Collections.unmodifiableList(characters);
     this.digit = digit;
   }
 
@@ -7,6 +7,7 @@ package com.goodneff.t9spelling.internal.core;
 import com.goodneff.t9spelling.core.ICharacterProcessor;
 import com.goodneff.t9spelling.core.ICharacterProcessorFactory;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,13 +19,15 @@ import java.util.stream.Collectors;
  * lowercase alphabet, i.e. for characters in range [a-z] and the space character. For another
  * characters it produces {@code null}.
  *
- * <p><strong>NOTE:</strong> The factory is not thread-safe.
+ * <p>The factory is immutable. All the processors are created and registered in the constructor, so
+ * a single instance can be shared between threads without any synchronization.
  *
  * @author Alexey Gudnev
  * @see T9CharacterProcessor
  */
 public final class T9CharacterProcessorFactory implements ICharacterProcessorFactory {
-  private final Map<Character, ICharacterProcessor> processorMap = new HashMap<>();
+  private final Map<Character, ICharacterProcessor> processorMap;
+  private final List<ICharacterProcessor> processors;
 
   /** Instantiates a factory instance. */
   public T9CharacterProcessorFactory() {
@@ -39,7 +42,19 @@ public final class T9CharacterProcessorFactory implements ICharacterProcessorFac
     processors.add(new T9CharacterProcessor((byte) 9, 'w', 'x', 'y', 'z'));
     processors.add(new T9CharacterProcessor((byte) 0, ' '));
 
-    processors.forEach(this::registerProcessor);
+    Map<Character, ICharacterProcessor> map = new HashMap<>();
+    processors.forEach(processor -> registerProcessor(map, processor));
+    this.processorMap = Collections.unmodifiableMap(map);
+    this.processors = Collections.unmodifiableList(processors);
+  }
+
+  /**
+   * Returns all processors registered in the factory in the order of registration.
+   *
+   * @return an unmodifiable list of the registered processors, never {@code null}.
+   */
+  public List<ICharacterProcessor> getProcessors() {
+    return processors;
   }
 
   @Override
@@ -47,7 +62,8 @@ public final class T9CharacterProcessorFactory implements ICharacterProcessorFac
     return processorMap.get(character);
   }
 
-  private void registerProcessor(ICharacterProcessor processor) {
+  private static void registerProcessor(
+      Map<Character, ICharacterProcessor> processorMap, ICharacterProcessor processor) {
     processorMap.putAll(
         processor.getSupportedCharacters().stream()
             .collect(Collectors.toMap(Function.identity(), k -> processor)));
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiler of word frequency dictionaries into the {@link T9DictionaryIndex} file format.
+ *
+ * <p>The source dictionary is a text with a word and an optional frequency per line separated by
+ * whitespaces, e.g. {@code "hello 1234"}. The frequency is 1 by default, the frequencies of the
+ * duplicated words are summed up. Empty lines are ignored. The words that have characters
+ * unsupported by the keypad are skipped.
+ *
+ * <p>The compilation is an offline operation, it keeps the whole dictionary in memory.
+ *
+ * @author Alexey Gudnev
+ * @see T9DictionaryIndex
+ */
+public final class T9DictionaryCompiler {
+  private final T9KeypadTable table;
+
+  /** Instantiates a compiler for the default T9 keypad. */
+  public T9DictionaryCompiler() {
+    this(T9KeypadTable.DEFAULT);
+  }
+
+  /**
+   * Instantiates a compiler for the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   */
+  public T9DictionaryCompiler(T9KeypadTable table) {
+    if (table == null) {
+      throw new IllegalArgumentException("The keypad table cannot be 'null'");
+    }
+    this.table = table;
+  }
+
+  /**
+   * Compiles the {@code source} dictionary into the {@code target} index file. The target file is
+   * created or truncated.
+   *
+   * @param source the source dictionary, cannot be {@code null}.
+   * @param target the target index file, cannot be {@code null}.
+   * @return the number of words in the index.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the source has incorrect format.
+   */
+  public int compile(BufferedReader source, Path target) throws IOException {
+    try (OutputStream out = Files.newOutputStream(target)) {
+      return compile(source, out);
+    }
+  }
+
+  /**
+   * Compiles the {@code source} dictionary into the {@code target} stream. The stream is not
+   * closed.
+   *
+   * @param source the source dictionary, cannot be {@code null}.
+   * @param target the target stream, cannot be {@code null}.
+   * @return the number of words in the index.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the source has incorrect format.
+   */
+  public int compile(BufferedReader source, OutputStream target) throws IOException {
+    List<Entry> entries = read(source);
+    entries.sort(
+        Comparator.comparing((Entry entry) -> entry.keys)
+            .thenComparing(Comparator.comparingLong((Entry entry) -> entry.frequency).reversed())
+            .thenComparing(entry -> entry.word));
+    write(entries, target);
+    return entries.size();
+  }
+
+  private List<Entry> read(BufferedReader source) throws IOException {
+    Map<String, Long> frequencies = new HashMap<>();
+    int lineNo = 0;
+    String line;
+    while ((line = source.readLine()) != null) {
+      lineNo++;
+      String[] parts = line.trim().split("\\s+");
+      if (parts[0].isEmpty()) {
+        continue;
+      }
+      if (parts.length > 2) {
+        String msg =
+            MessageFormat.format("Incorrect dictionary format at line {0,number,#}", lineNo);
+        throw new IllegalArgumentException(msg);
+      }
+      long frequency;
+      try {
+        frequency = parts.length == 2 ? Long.parseLong(parts[1]) : 1L;
+      } catch (NumberFormatException ex) {
+        String msg = MessageFormat.format("Incorrect frequency at line {0,number,#}", lineNo);
+        throw new IllegalArgumentException(msg, ex);
+      }
+      frequencies.merge(parts[0], frequency, Long::sum);
+    }
+
+    List<Entry> entries = new ArrayList<>(frequencies.size());
+    for (Map.Entry<String, Long> item : frequencies.entrySet()) {
+      String keys = keysOf(item.getKey());
+      if (keys != null) {
+        entries.add(new Entry(keys, item.getKey(), item.getValue()));
+      }
+    }
+    return entries;
+  }
+
+  // Returns the keys of the word or null if the word has unsupported characters
+  private String keysOf(String word) {
+    char[] keys = new char[word.length()];
+    for (int i = 0; i < word.length(); i++) {
+      char[] sequence = table.sequenceOf(word.charAt(i));
+      if (sequence == null || sequence.length == 0) {
+        return null;
+      }
+      keys[i] = sequence[0];
+    }
+    return String.valueOf(keys);
+  }
+
+  private static void write(List<Entry> entries, OutputStream target) throws IOException {
+    List<byte[]> keys = new ArrayList<>();
+    List<Integer> entryStarts = new ArrayList<>();
+    List<byte[]> words = new ArrayList<>(entries.size());
+    String lastKeys = null;
+    for (int index = 0; index < entries.size(); index++) {
+      Entry entry = entries.get(index);
+      if (!entry.keys.equals(lastKeys)) {
+        keys.add(entry.keys.getBytes(US_ASCII));
+        entryStarts.add(index);
+        lastKeys = entry.keys;
+      }
+      words.add(entry.word.getBytes(UTF_8));
+    }
+    entryStarts.add(entries.size());
+
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target));
+    out.writeInt(T9DictionaryIndex.MAGIC);
+    out.writeInt(T9DictionaryIndex.VERSION);
+    out.writeInt(keys.size());
+    out.writeInt(entries.size());
+    writeOffsets(keys, out);
+    for (int start : entryStarts) {
+      out.writeInt(start);
+    }
+    writeOffsets(words, out);
+    for (byte[] item : keys) {
+      out.write(item);
+    }
+    for (byte[] item : words) {
+      out.write(item);
+    }
+    out.flush();
+  }
+
+  private static void writeOffsets(List<byte[]> items, DataOutputStream out) throws IOException {
+    long offset = 0;
+    out.writeInt(0);
+    for (byte[] item : items) {
+      offset += item.length;
+      out.writeInt(Math.toIntExact(offset));
+    }
+  }
+
+  private static final class Entry {
+    private final String keys;
+    private final String word;
+    private final long frequency;
+
+    private Entry(String keys, String word, long frequency) {
+      this.keys = keys;
+      this.word = word;
+      this.frequency = frequency;
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.goodneff.t9spelling.core.IPredictiveDictionary;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@link IPredictiveDictionary} implementation backed by a memory-mapped index file.
+ *
+ * <p>The index file is produced by {@link T9DictionaryCompiler}. All the words with the same keys
+ * form a group, the groups are sorted by the keys and the words of a group are sorted from the most
+ * to the least frequent one. So a lookup is a binary search over the group keys followed by reading
+ * the first words of the found group. Nothing is parsed or loaded on the heap when the index is
+ * opened, and several processes opening the same file share a single copy in the page cache.
+ *
+ * <p>The file layout is the following, all numbers are big-endian 32-bit integers:
+ *
+ * <pre>
+ * magic, version, group count G, word count W
+ * key offsets       [G + 1] - offsets of the group keys in the key data
+ * group starts      [G + 1] - indexes of the first word of every group
+ * word offsets      [W + 1] - offsets of the words in the word data
+ * key data                  - ASCII group keys
+ * word data                 - UTF-8 words
+ * </pre>
+ *
+ * <p>Since the file is mapped as a whole, it cannot exceed 2 GB.
+ *
+ * <p>The index is immutable and can be shared between threads.
+ *
+ * @author Alexey Gudnev
+ * @see T9DictionaryCompiler
+ */
+public final class T9DictionaryIndex implements IPredictiveDictionary {
+  /* package-private */ static final int MAGIC = 0x54394458;
+  /* package-private */ static final int VERSION = 1;
+
+  private static final int HEADER_SIZE = 16;
+
+  private final ByteBuffer buffer;
+  private final int groupCount;
+  private final int keyOffsetsStart;
+  private final int groupStartsStart;
+  private final int wordOffsetsStart;
+  private final int keyDataStart;
+  private final int wordDataStart;
+
+  /**
+   * Instantiates an index over the specified {@code buffer} with the index file content.
+   *
+   * @param buffer the index content, cannot be {@code null}. Only absolute reads are used, so the
+   *     buffer position and limit are not changed.
+   * @throws IllegalArgumentException if the buffer is not specified or is not an index.
+   */
+  public T9DictionaryIndex(ByteBuffer buffer) {
+    if (buffer == null) {
+      throw new IllegalArgumentException("The buffer cannot be 'null'");
+    }
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("The buffer is not a dictionary index");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      String msg =
+          MessageFormat.format("Unsupported dictionary index version {0}", buffer.getInt(4));
+      throw new IllegalArgumentException(msg);
+    }
+
+    this.buffer = buffer;
+    this.groupCount = buffer.getInt(8);
+    int wordCount = buffer.getInt(12);
+    this.keyOffsetsStart = HEADER_SIZE;
+    this.groupStartsStart = keyOffsetsStart + (groupCount + 1) * Integer.BYTES;
+    this.wordOffsetsStart = groupStartsStart + (groupCount + 1) * Integer.BYTES;
+    this.keyDataStart = wordOffsetsStart + (wordCount + 1) * Integer.BYTES;
+    this.wordDataStart = keyDataStart + buffer.getInt(keyOffsetsStart + groupCount * Integer.BYTES);
+    if (wordDataStart + buffer.getInt(wordOffsetsStart + wordCount * Integer.BYTES)
+        > buffer.capacity()) {
+      throw new IllegalArgumentException("The dictionary index is truncated");
+    }
+  }
+
+  /**
+   * Opens the specified index {@code file} via memory mapping.
+   *
+   * @param file the index file, cannot be {@code null}.
+   * @return an index, never {@code null}.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the file is not an index.
+   */
+  public static T9DictionaryIndex open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      return new T9DictionaryIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  @Override
+  public List<String> lookup(CharSequence keys, int limit) {
+    if (keys == null) {
+      throw new IllegalArgumentException("The 'keys' argument cannot be null");
+    }
+    if (limit < 0) {
+      throw new IllegalArgumentException("The limit cannot be negative");
+    }
+
+    int group = find(keys);
+    if (group < 0 || limit == 0) {
+      return Collections.emptyList();
+    }
+    int from = intAt(groupStartsStart, group);
+    int to = Math.min(intAt(groupStartsStart, group + 1), from + limit);
+    List<String> words = new ArrayList<>(to - from);
+    for (int word = from; word < to; word++) {
+      words.add(wordAt(word));
+    }
+    return Collections.unmodifiableList(words);
+  }
+
+  // Returns the group index of the keys or -1 if there is no such group
+  private int find(CharSequence keys) {
+    int low = 0;
+    int high = groupCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = compareKey(middle, keys);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  private int compareKey(int group, CharSequence keys) {
+    int from = keyDataStart + intAt(keyOffsetsStart, group);
+    int length = keyDataStart + intAt(keyOffsetsStart, group + 1) - from;
+    int common = Math.min(length, keys.length());
+    for (int i = 0; i < common; i++) {
+      int difference = (buffer.get(from + i) & 0xFF) - keys.charAt(i);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return length - keys.length();
+  }
+
+  private String wordAt(int word) {
+    int from = wordDataStart + intAt(wordOffsetsStart, word);
+    byte[] bytes = new byte[wordDataStart + intAt(wordOffsetsStart, word + 1) - from];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(from + i);
+    }
+    return new String(bytes, UTF_8);
+  }
+
+  private int intAt(int sectionStart, int index) {
+    return buffer.getInt(sectionStart + index * Integer.BYTES);
+  }
+}
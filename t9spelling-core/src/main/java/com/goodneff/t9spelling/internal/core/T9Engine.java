@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IAsciiMessageEncoder;
+import com.goodneff.t9spelling.core.IBatchMessageProcessor;
+import com.goodneff.t9spelling.core.IKeypressAnalyzer;
+import com.goodneff.t9spelling.core.IMessageDecoder;
+import com.goodneff.t9spelling.core.IMessageEncoderSession;
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.IPackedMessageReader;
+import com.goodneff.t9spelling.core.IPackedMessageWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * The T9 engine.
+ *
+ * <p>Bundles all the table-driven encoders and decoders of a single keypad. The engine and all its
+ * parts are immutable and have no per-call state, so a single engine can be used from any number of
+ * threads at the same time without locks, thread-local copies or defensive copying.
+ *
+ * <p>The {@link #DEFAULT} engine is created once and safely published by the class initialization.
+ * It is the thread-safe counterpart of the shared {@link
+ * com.goodneff.t9spelling.core.ICharacterProcessorFactory#INSTANCE} factory.
+ *
+ * @author Alexey Gudnev
+ * @see T9KeypadTable
+ */
+public final class T9Engine {
+  /** The shared engine of the default T9 keypad. */
+  public static final T9Engine DEFAULT = new T9Engine(T9KeypadTable.DEFAULT);
+
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final String VECTOR_ENCODER_CLASS =
+      "com.goodneff.t9spelling.internal.core.T9VectorMessageEncoder";
+
+  private final T9KeypadTable table;
+  private final IMessageProcessor messageProcessor;
+  private final IBatchMessageProcessor batchMessageProcessor;
+  private final T9AsciiMessageEncoder asciiMessageEncoder;
+  private final IKeypressAnalyzer keypressAnalyzer;
+  // resolved on the first use, so a keypad that cannot be decoded or packed can still encode
+  private volatile IMessageDecoder messageDecoder;
+  private volatile T9PackedCodes packedCodes;
+  // resolved on the first use, so the engines that never encode files do not look up the module
+  private volatile IAsciiMessageEncoder vectorMessageEncoder;
+
+  /**
+   * Instantiates an engine for the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @throws IllegalArgumentException if the table is not specified or it is not supported by the
+   *     encoders. The decoder and the packed format are checked on their first use.
+   */
+  public T9Engine(T9KeypadTable table) {
+    if (table == null) {
+      throw new IllegalArgumentException("The keypad table cannot be 'null'");
+    }
+    this.table = table;
+    this.messageProcessor = new T9TableMessageProcessor(table);
+    this.batchMessageProcessor = new T9BatchMessageProcessor(table);
+    this.asciiMessageEncoder = new T9AsciiMessageEncoder(table);
+    this.keypressAnalyzer = new T9KeypressAnalyzer(table);
+  }
+
+  /**
+   * Returns the keypad table of the engine.
+   *
+   * @return the keypad table, never {@code null}.
+   */
+  public T9KeypadTable getTable() {
+    return table;
+  }
+
+  /**
+   * Returns the thread-safe message processor of the engine.
+   *
+   * @return the message processor, never {@code null}.
+   */
+  public IMessageProcessor getMessageProcessor() {
+    return messageProcessor;
+  }
+
+  /**
+   * Returns the thread-safe batch message processor of the engine.
+   *
+   * @return the batch message processor, never {@code null}.
+   */
+  public IBatchMessageProcessor getBatchMessageProcessor() {
+    return batchMessageProcessor;
+  }
+
+  /**
+   * Returns the thread-safe message decoder of the engine.
+   *
+   * @return the message decoder, never {@code null}.
+   * @throws IllegalArgumentException if the key sequences of the keypad cannot be decoded
+   *     unambiguously.
+   */
+  public IMessageDecoder getMessageDecoder() {
+    IMessageDecoder decoder = messageDecoder;
+    if (decoder == null) {
+      // a race creates equivalent immutable decoders, any of them can be published
+      decoder = new T9MessageDecoder(table);
+      messageDecoder = decoder;
+    }
+    return decoder;
+  }
+
+  /**
+   * Returns the thread-safe ASCII message encoder of the engine.
+   *
+   * @return the ASCII message encoder, never {@code null}.
+   */
+  public T9AsciiMessageEncoder getAsciiMessageEncoder() {
+    return asciiMessageEncoder;
+  }
+
+  /**
+   * Opens a new incremental encoder session that writes to the {@code writer}.
+   *
+   * <p>Unlike the other parts of the engine, a session is stateful and must be confined to a single
+   * thread.
+   *
+   * @param writer the sink of the session, cannot be {@code null}. It is closed with the session.
+   * @return a new session, never {@code null}.
+   * @throws IllegalArgumentException if the writer is not specified.
+   */
+  public IMessageEncoderSession openEncoderSession(Writer writer) {
+    return new T9MessageEncoderSession(table, writer);
+  }
+
+  /**
+   * Opens a new writer of the packed messages that writes to the {@code stream}.
+   *
+   * <p>Unlike the other parts of the engine, a writer is stateful and must be confined to a single
+   * thread.
+   *
+   * @param stream the sink of the writer, cannot be {@code null}. It is closed with the writer.
+   * @return a new writer, never {@code null}.
+   * @throws IllegalArgumentException if the stream is not specified or the keypad has too many key
+   *     sequences to be packed.
+   */
+  public IPackedMessageWriter openPackedWriter(OutputStream stream) {
+    return new T9PackedMessageWriter(getPackedCodes(), stream);
+  }
+
+  /**
+   * Opens a new reader of the packed messages written by {@link #openPackedWriter(OutputStream)} of
+   * an engine of the same keypad.
+   *
+   * <p>Unlike the other parts of the engine, a reader is stateful and must be confined to a single
+   * thread.
+   *
+   * @param stream the source of the reader, cannot be {@code null}. It is closed with the reader.
+   * @return a new reader, never {@code null}.
+   * @throws IllegalArgumentException if the stream is not specified or the keypad has too many key
+   *     sequences to be packed.
+   */
+  public IPackedMessageReader openPackedReader(InputStream stream) {
+    return new T9PackedMessageReader(getPackedCodes(), stream);
+  }
+
+  /**
+   * Returns the thread-safe keypress analyzer of the engine.
+   *
+   * @return the keypress analyzer, never {@code null}.
+   */
+  public IKeypressAnalyzer getKeypressAnalyzer() {
+    return keypressAnalyzer;
+  }
+
+  /**
+   * Returns the thread-safe ASCII message encoder of the engine that uses the SIMD instructions.
+   *
+   * <p>It is {@link T9VectorMessageEncoder} if the {@code jdk.incubator.vector} module is added to
+   * the runtime and the platform has vectors of at least 16 bytes. Otherwise it is the same encoder
+   * as {@link #getAsciiMessageEncoder()} returns. Both produce the same output.
+   *
+   * @return the vectorized ASCII message encoder or the scalar one, never {@code null}.
+   */
+  public IAsciiMessageEncoder getVectorMessageEncoder() {
+    IAsciiMessageEncoder encoder = vectorMessageEncoder;
+    if (encoder == null) {
+      // a race creates equivalent immutable encoders, any of them can be published
+      encoder = vectorize(table, asciiMessageEncoder);
+      vectorMessageEncoder = encoder;
+    }
+    return encoder;
+  }
+
+  private T9PackedCodes getPackedCodes() {
+    T9PackedCodes codes = packedCodes;
+    if (codes == null) {
+      // a race creates equivalent immutable codes, any of them can be published
+      codes = new T9PackedCodes(table);
+      packedCodes = codes;
+    }
+    return codes;
+  }
+
+  private static IAsciiMessageEncoder vectorize(
+      T9KeypadTable table, T9AsciiMessageEncoder fallback) {
+    if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+      return fallback;
+    }
+    // the encoder is loaded reflectively, so the engine does not depend on the incubating module
+    try {
+      return Class.forName(VECTOR_ENCODER_CLASS)
+          .asSubclass(IAsciiMessageEncoder.class)
+          .getConstructor(T9KeypadTable.class)
+          .newInstance(table);
+    } catch (ReflectiveOperationException | LinkageError ex) {
+      return fallback;
+    }
+  }
+}
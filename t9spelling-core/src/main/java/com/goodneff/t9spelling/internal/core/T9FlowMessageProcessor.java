@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@link Flow.Processor} adapter of an {@link IMessageProcessor}.
+ *
+ * <p>Every message received from the upstream publisher is encoded by the {@code origin} processor
+ * and the result is emitted to the downstream subscriber. The processor keeps at most {@code
+ * bufferSize} messages that are requested, being encoded or waiting for the downstream demand. It
+ * requests the upstream messages in batches, when at least a half of the buffer is free, so a slow
+ * downstream subscriber throttles the upstream publisher and the encoded messages never pile up.
+ *
+ * <p>The messages are encoded on the thread that delivers them, unless an {@link Executor} is
+ * specified. In that case the messages are encoded in parallel and the results are emitted either
+ * in the order of the messages or in the order of completion.
+ *
+ * <p>If a message cannot be encoded, the upstream subscription is cancelled and the error is
+ * signalled to the downstream subscriber after the results emitted before it. An upstream error is
+ * signalled after all the buffered results.
+ *
+ * <p>The processor supports a single subscriber, all the other ones are rejected with {@link
+ * IllegalStateException}. It can be subscribed to a single publisher only.
+ *
+ * @author Alexey Gudnev
+ */
+public final class T9FlowMessageProcessor implements Flow.Processor<String, String> {
+  /** The default number of the buffered messages. */
+  public static final int DEFAULT_BUFFER_SIZE = 256;
+
+  private final IMessageProcessor origin;
+  private final int bufferSize;
+  private final int requestThreshold;
+  private final Executor executor;
+  private final boolean ordered;
+
+  private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+  private final AtomicReference<Flow.Subscriber<? super String>> downstream =
+      new AtomicReference<>();
+  // the slots in the order of the messages if ordered, otherwise in the order of completion
+  private final Queue<Slot> results = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger wip = new AtomicInteger();
+  private final AtomicLong demand = new AtomicLong();
+  private final AtomicLong received = new AtomicLong();
+  private final AtomicInteger pending = new AtomicInteger();
+
+  private volatile boolean done;
+  private volatile Throwable error;
+  private volatile boolean cancelled;
+  private volatile Throwable violation;
+
+  // accessed by the drain loop only
+  private long requested;
+  private boolean terminated;
+
+  /**
+   * Instantiates a processor that encodes the messages on the delivering thread.
+   *
+   * @param origin the origin processor, cannot be {@code null}.
+   * @param bufferSize the maximal number of the buffered messages, must be positive.
+   * @throws IllegalArgumentException if the origin processor is not specified or the buffer size is
+   *     not positive.
+   */
+  public T9FlowMessageProcessor(IMessageProcessor origin, int bufferSize) {
+    this(origin, bufferSize, null, true);
+  }
+
+  /**
+   * Instantiates a processor that encodes the messages in parallel on the {@code executor}.
+   *
+   * @param origin the thread-safe origin processor, cannot be {@code null}.
+   * @param bufferSize the maximal number of the buffered messages, must be positive. It also limits
+   *     the number of the messages encoded at the same time.
+   * @param executor the executor to encode the messages on, the messages are encoded on the
+   *     delivering thread if it is {@code null}.
+   * @param ordered {@code true} if the results are emitted in the order of the messages, {@code
+   *     false} if they are emitted as soon as they are ready.
+   * @throws IllegalArgumentException if the origin processor is not specified or the buffer size is
+   *     not positive.
+   */
+  public T9FlowMessageProcessor(
+      IMessageProcessor origin, int bufferSize, Executor executor, boolean ordered) {
+    if (origin == null) {
+      throw new IllegalArgumentException("The origin message processor cannot be 'null'");
+    }
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("The buffer size must be positive");
+    }
+    this.origin = origin;
+    this.bufferSize = bufferSize;
+    this.requestThreshold = Math.max(bufferSize / 2, 1);
+    this.executor = executor;
+    this.ordered = ordered || executor == null;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super String> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("The subscriber cannot be 'null'");
+    }
+    if (!downstream.compareAndSet(null, subscriber)) {
+      subscriber.onSubscribe(new RejectedSubscription());
+      subscriber.onError(new IllegalStateException("The processor has a subscriber already"));
+      return;
+    }
+    subscriber.onSubscribe(new DownstreamSubscription());
+    drain();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    if (subscription == null) {
+      throw new NullPointerException("The subscription cannot be 'null'");
+    }
+    if (!upstream.compareAndSet(null, subscription) || cancelled) {
+      subscription.cancel();
+      return;
+    }
+    drain();
+  }
+
+  @Override
+  public void onNext(String message) {
+    if (message == null) {
+      throw new NullPointerException("The message cannot be 'null'");
+    }
+    if (done || cancelled) {
+      return;
+    }
+    received.incrementAndGet();
+    pending.incrementAndGet();
+    Slot slot = new Slot(message);
+    if (ordered) {
+      results.offer(slot);
+    }
+    if (executor == null) {
+      slot.run();
+      return;
+    }
+    try {
+      executor.execute(slot);
+    } catch (RejectedExecutionException ex) {
+      slot.complete(null, ex);
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    if (throwable == null) {
+      throw new NullPointerException("The error cannot be 'null'");
+    }
+    error = throwable;
+    done = true;
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    done = true;
+    drain();
+  }
+
+  private void drain() {
+    if (wip.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    do {
+      Flow.Subscriber<? super String> subscriber = downstream.get();
+      if (subscriber != null && !terminated) {
+        emit(subscriber);
+      }
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void emit(Flow.Subscriber<? super String> subscriber) {
+    Throwable invalidRequest = violation;
+    if (invalidRequest != null) {
+      terminate();
+      subscriber.onError(invalidRequest);
+      return;
+    }
+
+    long emitted = 0;
+    long limit = demand.get();
+    while (emitted != limit) {
+      if (cancelled) {
+        terminated = true;
+        results.clear();
+        return;
+      }
+      Slot slot = results.peek();
+      if (slot == null || !slot.completed) {
+        break;
+      }
+      results.poll();
+      pending.decrementAndGet();
+      if (slot.error != null) {
+        terminate();
+        subscriber.onError(slot.error);
+        return;
+      }
+      subscriber.onNext(slot.result);
+      emitted++;
+    }
+    if (emitted != 0 && limit != Long.MAX_VALUE) {
+      demand.addAndGet(-emitted);
+    }
+
+    if (cancelled) {
+      terminated = true;
+      results.clear();
+    } else if (done && pending.get() == 0) {
+      terminated = true;
+      Throwable throwable = error;
+      if (throwable != null) {
+        subscriber.onError(throwable);
+      } else {
+        subscriber.onComplete();
+      }
+    } else if (!done) {
+      requestUpstream();
+    }
+  }
+
+  private void requestUpstream() {
+    Flow.Subscription subscription = upstream.get();
+    if (subscription == null) {
+      return;
+    }
+    // the requested messages that are not received yet plus the received ones that are not emitted
+    long free = bufferSize - (requested - received.get()) - pending.get();
+    if (free >= requestThreshold) {
+      requested += free;
+      subscription.request(free);
+    }
+  }
+
+  private void terminate() {
+    terminated = true;
+    cancelled = true;
+    results.clear();
+    Flow.Subscription subscription = upstream.get();
+    if (subscription != null) {
+      subscription.cancel();
+    }
+  }
+
+  /** The encoding of a single message. */
+  private final class Slot implements Runnable {
+    private final String message;
+    private String result;
+    private RuntimeException error;
+    private volatile boolean completed;
+
+    private Slot(String message) {
+      this.message = message;
+    }
+
+    @Override
+    public void run() {
+      try {
+        complete(origin.process(message), null);
+      } catch (RuntimeException ex) {
+        complete(null, ex);
+      }
+    }
+
+    private void complete(String result, RuntimeException error) {
+      this.result = result;
+      this.error = error;
+      this.completed = true;
+      if (!ordered) {
+        results.offer(this);
+      }
+      drain();
+    }
+  }
+
+  /** The subscription of the downstream subscriber. */
+  private final class DownstreamSubscription implements Flow.Subscription {
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        violation =
+            new IllegalArgumentException("The number of requested messages must be positive");
+        drain();
+        return;
+      }
+      long current;
+      long next;
+      do {
+        current = demand.get();
+        next = current + n < 0 ? Long.MAX_VALUE : current + n;
+      } while (!demand.compareAndSet(current, next));
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      Flow.Subscription subscription = upstream.get();
+      if (subscription != null) {
+        subscription.cancel();
+      }
+      drain();
+    }
+  }
+
+  /** The subscription of a rejected subscriber. */
+  private static final class RejectedSubscription implements Flow.Subscription {
+
+    @Override
+    public void request(long n) {}
+
+    @Override
+    public void cancel() {}
+  }
+}
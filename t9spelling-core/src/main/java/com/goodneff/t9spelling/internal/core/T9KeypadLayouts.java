@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The loader of keypad layouts.
+ *
+ * <p>A layout is defined in the {@link Properties} format, where every entry maps a digit to the
+ * ordered characters of its key, e.g. {@code 2=abc}. The definitions are read as UTF-8, the space
+ * character must be escaped as usual for the format. A layout is compiled into a {@link
+ * T9KeypadTable} once, so switching between loaded layouts costs a table swap only.
+ *
+ * <p>The built-in layouts are the classpath resources {@code
+ * /com/goodneff/t9spelling/layouts/<name>.properties}: {@code latin} (the default keypad), {@code
+ * latin-extended}, {@code cyrillic} and {@code greek}.
+ *
+ * <p>The loader is thread-safe.
+ *
+ * @author Alexey Gudnev
+ * @see T9KeypadTable
+ */
+public final class T9KeypadLayouts {
+  /** The name of the built-in layout of the default T9 keypad. */
+  public static final String DEFAULT_LAYOUT = "latin";
+
+  private static final String RESOURCE_PATH = "/com/goodneff/t9spelling/layouts/";
+  private static final String RESOURCE_SUFFIX = ".properties";
+  private static final ConcurrentMap<String, T9KeypadTable> TABLES = new ConcurrentHashMap<>();
+
+  private T9KeypadLayouts() {}
+
+  /**
+   * Returns the compiled table of the built-in layout with the specified {@code name}. The layout
+   * is loaded and compiled on the first request only.
+   *
+   * @param name the layout name, cannot be {@code null}.
+   * @return a compiled table, never {@code null}.
+   * @throws IllegalArgumentException if there is no such layout or it is malformed.
+   */
+  public static T9KeypadTable get(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("The layout name cannot be 'null'");
+    }
+    return TABLES.computeIfAbsent(name, T9KeypadLayouts::loadResource);
+  }
+
+  /**
+   * Loads and compiles the layout defined in the specified {@code file}.
+   *
+   * @param file the layout file, cannot be {@code null}.
+   * @return a compiled table, never {@code null}.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if the layout is malformed.
+   */
+  public static T9KeypadTable load(Path file) throws IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("The layout file cannot be 'null'");
+    }
+    try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+      return load(reader);
+    }
+  }
+
+  /**
+   * Loads and compiles the layout definition read from the {@code reader}.
+   *
+   * <p>The keys are ordered by their digits, so the same definition always gives the same table.
+   *
+   * @param reader the source of the definition, cannot be {@code null}.
+   * @return a compiled table, never {@code null}.
+   * @throws IOException if an I/O error occurs.
+   * @throws IllegalArgumentException if a key is not a single digit, a key has no characters, or a
+   *     character is assigned to several keys.
+   */
+  public static T9KeypadTable load(Reader reader) throws IOException {
+    if (reader == null) {
+      throw new IllegalArgumentException("The reader cannot be 'null'");
+    }
+
+    Properties definition = new Properties();
+    definition.load(reader);
+
+    Map<Byte, String> keys = new TreeMap<>();
+    for (String digit : definition.stringPropertyNames()) {
+      if (digit.length() != 1 || digit.charAt(0) < '0' || digit.charAt(0) > '9') {
+        String msg = MessageFormat.format("The layout key ''{0}'' is not a digit", digit);
+        throw new IllegalArgumentException(msg);
+      }
+      keys.put((byte) (digit.charAt(0) - '0'), definition.getProperty(digit));
+    }
+
+    Map<Character, Byte> assigned = new HashMap<>();
+    List<T9CharacterProcessor> processors = new ArrayList<>(keys.size());
+    for (Map.Entry<Byte, String> key : keys.entrySet()) {
+      for (char character : key.getValue().toCharArray()) {
+        Byte other = assigned.put(character, key.getKey());
+        if (other != null && !other.equals(key.getKey())) {
+          String msg =
+              MessageFormat.format(
+                  "The ''{0}'' character is assigned to the keys {1} and {2}",
+                  character, other, key.getKey());
+          throw new IllegalArgumentException(msg);
+        }
+      }
+      processors.add(new T9CharacterProcessor(key.getKey(), key.getValue().toCharArray()));
+    }
+    return T9KeypadTable.compile(processors);
+  }
+
+  private static T9KeypadTable loadResource(String name) {
+    InputStream stream =
+        T9KeypadLayouts.class.getResourceAsStream(RESOURCE_PATH + name + RESOURCE_SUFFIX);
+    if (stream == null) {
+      String msg = MessageFormat.format("Unknown keypad layout ''{0}''", name);
+      throw new IllegalArgumentException(msg);
+    }
+    try (Reader reader = new InputStreamReader(stream, UTF_8)) {
+      return load(reader);
+    } catch (IOException ex) {
+      String msg = MessageFormat.format("Cannot load the ''{0}'' keypad layout", name);
+      throw new IllegalArgumentException(msg, ex);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.ICharacterProcessor;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A keypad compiled into flat lookup tables.
+ *
+ * <p>The table is built once from a set of {@link ICharacterProcessor} instances. Every supported
+ * character is mapped to the index of its processor (the key) and to the precomputed result of
+ * processing it (the key sequence), so a lookup is a single array access without boxing or string
+ * building.
+ *
+ * <p>The tables of the keypad layouts other than the default one are provided by {@link
+ * T9KeypadLayouts}.
+ *
+ * <p>Two characters are considered to be on the same key if they are supported by the same
+ * processor instance. It is the same rule {@link T9MessageProcessor} uses to make a pause.
+ *
+ * <p>The table is immutable after compilation.
+ *
+ * @author Alexey Gudnev
+ * @see T9TableMessageProcessor
+ */
+public final class T9KeypadTable {
+  /** The key value of characters that are not supported by the table. */
+  public static final int NO_KEY = -1;
+
+  // the default keypad of T9CharacterProcessorFactory precomputed as constants: the characters of
+  // every key in the order of the processors and the symbols of the keys
+  private static final String[] DEFAULT_CHARACTERS = {
+    "abc", "def", "ghi", "jkl", "mno", "pqrs", "tuv", "wxyz", " "
+  };
+  private static final String DEFAULT_SYMBOLS = "234567890";
+
+  /**
+   * The table of the default T9 keypad provided by {@link T9CharacterProcessorFactory}.
+   *
+   * <p>The table is built from precomputed constants with plain loops, so the class initialization
+   * does not instantiate the processors and does not bootstrap any lambda or stream, which matters
+   * for the startup time of short-lived processes.
+   */
+  public static final T9KeypadTable DEFAULT = precomputed(DEFAULT_CHARACTERS, DEFAULT_SYMBOLS);
+
+  private static final int DENSE_RANGE_LIMIT = 1 << 12;
+  private static final int DENSE_RANGE_FACTOR = 4;
+  private static final int PAGE_BITS = 8;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+  private static final int PAGES = (Character.MAX_VALUE + 1) >>> PAGE_BITS;
+
+  // the dense representation, the arrays are indexed by the character minus the offset
+  private final int offset;
+  private final int[] keys;
+  private final char[][] sequences;
+
+  // the paged representation, the pages are indexed by the high bits of the character
+  private final int[][] keyPages;
+  private final char[][][] sequencePages;
+
+  private final int characterLimit;
+
+  private T9KeypadTable(int offset, int[] keys, char[][] sequences) {
+    this.offset = offset;
+    this.keys = keys;
+    this.sequences = sequences;
+    this.keyPages = null;
+    this.sequencePages = null;
+    this.characterLimit = offset + keys.length;
+  }
+
+  private T9KeypadTable(int[][] keyPages, char[][][] sequencePages, int characterLimit) {
+    this.offset = 0;
+    this.keys = null;
+    this.sequences = null;
+    this.keyPages = keyPages;
+    this.sequencePages = sequencePages;
+    this.characterLimit = characterLimit;
+  }
+
+  /**
+   * Compiles the specified {@code processors} into a table.
+   *
+   * <p>If a character is supported by several processors, the last one wins. It matches the
+   * registration logic of {@link T9CharacterProcessorFactory}.
+   *
+   * <p>The representation of the table depends on the range of the supported characters. A compact
+   * range, e.g. a single alphabet, is compiled into dense arrays that cover the range only. A
+   * sparse set of characters spread over the Unicode is compiled into a two-level table of
+   * 256-character pages, where all the pages without supported characters are shared. In both cases
+   * a lookup costs one or two array accesses regardless of the number of the supported characters.
+   *
+   * @param processors the processors to compile, cannot be {@code null}.
+   * @return a compiled table, never {@code null}.
+   * @throws IllegalArgumentException if the processors are not specified.
+   */
+  public static T9KeypadTable compile(Collection<? extends ICharacterProcessor> processors) {
+    if (processors == null) {
+      throw new IllegalArgumentException("The processors cannot be 'null'");
+    }
+
+    int minCharacter = Character.MAX_VALUE + 1;
+    int maxCharacter = -1;
+    for (ICharacterProcessor processor : processors) {
+      for (char character : processor.getSupportedCharacters()) {
+        minCharacter = Math.min(minCharacter, character);
+        maxCharacter = Math.max(maxCharacter, character);
+      }
+    }
+    if (maxCharacter < 0) {
+      return new T9KeypadTable(0, new int[0], new char[0][]);
+    }
+
+    int range = maxCharacter - minCharacter + 1;
+    int[] keys = new int[range];
+    char[][] sequences = new char[range][];
+    Arrays.fill(keys, NO_KEY);
+
+    int count = 0;
+    int key = 0;
+    for (ICharacterProcessor processor : processors) {
+      for (char character : processor.getSupportedCharacters()) {
+        int index = character - minCharacter;
+        if (keys[index] == NO_KEY) {
+          count++;
+        }
+        keys[index] = key;
+        sequences[index] = processor.process(character).toCharArray();
+      }
+      key++;
+    }
+
+    if (range <= DENSE_RANGE_LIMIT || range <= count * DENSE_RANGE_FACTOR) {
+      return new T9KeypadTable(minCharacter, keys, sequences);
+    }
+    return paged(minCharacter, keys, sequences);
+  }
+
+  private static T9KeypadTable precomputed(String[] characters, String symbols) {
+    int minCharacter = Character.MAX_VALUE;
+    int maxCharacter = 0;
+    for (String keyCharacters : characters) {
+      for (int i = 0; i < keyCharacters.length(); i++) {
+        minCharacter = Math.min(minCharacter, keyCharacters.charAt(i));
+        maxCharacter = Math.max(maxCharacter, keyCharacters.charAt(i));
+      }
+    }
+
+    int range = maxCharacter - minCharacter + 1;
+    int[] keys = new int[range];
+    char[][] sequences = new char[range][];
+    Arrays.fill(keys, NO_KEY);
+    for (int key = 0; key < characters.length; key++) {
+      for (int i = 0; i < characters[key].length(); i++) {
+        int index = characters[key].charAt(i) - minCharacter;
+        keys[index] = key;
+        sequences[index] = new char[i + 1];
+        Arrays.fill(sequences[index], symbols.charAt(key));
+      }
+    }
+    return new T9KeypadTable(minCharacter, keys, sequences);
+  }
+
+  private static T9KeypadTable paged(int offset, int[] keys, char[][] sequences) {
+    int[] emptyKeyPage = new int[PAGE_SIZE];
+    Arrays.fill(emptyKeyPage, NO_KEY);
+    char[][] emptySequencePage = new char[PAGE_SIZE][];
+
+    int[][] keyPages = new int[PAGES][];
+    char[][][] sequencePages = new char[PAGES][][];
+    Arrays.fill(keyPages, emptyKeyPage);
+    Arrays.fill(sequencePages, emptySequencePage);
+    for (int index = 0; index < keys.length; index++) {
+      if (keys[index] == NO_KEY) {
+        continue;
+      }
+      int character = offset + index;
+      int page = character >>> PAGE_BITS;
+      if (keyPages[page] == emptyKeyPage) {
+        keyPages[page] = emptyKeyPage.clone();
+        sequencePages[page] = new char[PAGE_SIZE][];
+      }
+      keyPages[page][character & PAGE_MASK] = keys[index];
+      sequencePages[page][character & PAGE_MASK] = sequences[index];
+    }
+    return new T9KeypadTable(keyPages, sequencePages, offset + keys.length);
+  }
+
+  /**
+   * Returns the upper limit of the supported characters. All the supported characters are less than
+   * the limit.
+   *
+   * @return the exclusive upper limit of the supported characters.
+   */
+  public int getCharacterLimit() {
+    return characterLimit;
+  }
+
+  /**
+   * Returns the key of the specified {@code character}.
+   *
+   * @param character the character to look up.
+   * @return a non-negative key index or {@link #NO_KEY} if the character is not supported.
+   */
+  public int keyOf(char character) {
+    if (keyPages != null) {
+      return keyPages[character >>> PAGE_BITS][character & PAGE_MASK];
+    }
+    int index = character - offset;
+    return index >= 0 && index < keys.length ? keys[index] : NO_KEY;
+  }
+
+  /**
+   * Returns the key sequence of the specified {@code character}.
+   *
+   * <p>The returned array is shared and must not be modified.
+   *
+   * @param character the character to look up.
+   * @return the key sequence or {@code null} if the character is not supported.
+   */
+  public char[] sequenceOf(char character) {
+    if (sequencePages != null) {
+      return sequencePages[character >>> PAGE_BITS][character & PAGE_MASK];
+    }
+    int index = character - offset;
+    return index >= 0 && index < sequences.length ? sequences[index] : null;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IKeypressAnalyzer;
+import com.goodneff.t9spelling.core.KeypressStatistics;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@link IKeypressAnalyzer} implementation backed by a {@link T9KeypadTable}.
+ *
+ * <p>A message is analyzed with the same lookups and the same pause rule as {@link
+ * T9TableMessageProcessor} uses, but the key sequences are counted instead of being appended, so
+ * the analysis allocates nothing. The message is checked before anything is counted, so a message
+ * with an unsupported character leaves the statistics unchanged.
+ *
+ * <p>The analyzer is immutable and can be shared between threads.
+ *
+ * @author Alexey Gudnev
+ * @see KeypressStatistics
+ */
+public final class T9KeypressAnalyzer implements IKeypressAnalyzer {
+  private static final int CHUNK_SIZE = 1 << 12;
+
+  private final T9KeypadTable table;
+
+  /** Instantiates an analyzer for the default T9 keypad. */
+  public T9KeypressAnalyzer() {
+    this(T9KeypadTable.DEFAULT);
+  }
+
+  /**
+   * Instantiates an analyzer for the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   */
+  public T9KeypressAnalyzer(T9KeypadTable table) {
+    if (table == null) {
+      throw new IllegalArgumentException("The keypad table cannot be 'null'");
+    }
+    this.table = table;
+  }
+
+  @Override
+  public void analyze(CharSequence message, KeypressStatistics statistics) {
+    if (message == null || statistics == null) {
+      throw new IllegalArgumentException("The 'message' and 'statistics' arguments cannot be null");
+    }
+
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      if (table.keyOf(character) == T9KeypadTable.NO_KEY) {
+        String msg = MessageFormat.format("The character ''{0}'' is not supported", character);
+        throw new UnsupportedCharacterException(msg);
+      }
+    }
+
+    int pauses = 0;
+    int lastKey = T9KeypadTable.NO_KEY;
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      int key = table.keyOf(character);
+      if (key == lastKey) {
+        pauses++;
+      }
+      for (char symbol : table.sequenceOf(character)) {
+        statistics.addPresses(symbol, 1);
+      }
+      lastKey = key;
+    }
+    statistics.addPauses(pauses);
+    statistics.addMessages(1, message.length());
+  }
+
+  @Override
+  public KeypressStatistics analyze(List<? extends CharSequence> messages) {
+    if (messages == null) {
+      throw new IllegalArgumentException("The 'messages' argument cannot be null");
+    }
+    return analyze(messages, 0, messages.size());
+  }
+
+  @Override
+  public KeypressStatistics analyze(List<? extends CharSequence> messages, ForkJoinPool pool) {
+    if (messages == null || pool == null) {
+      throw new IllegalArgumentException("The 'messages' and 'pool' arguments cannot be null");
+    }
+    return pool.invoke(new AnalysisTask(messages, 0, messages.size()));
+  }
+
+  private KeypressStatistics analyze(List<? extends CharSequence> messages, int from, int to) {
+    KeypressStatistics statistics = new KeypressStatistics();
+    for (int i = from; i < to; i++) {
+      analyze(messages.get(i), statistics);
+    }
+    return statistics;
+  }
+
+  /** Analyzes a range of the messages, it splits the range until the chunks are small enough. */
+  private final class AnalysisTask extends RecursiveTask<KeypressStatistics> {
+    private final List<? extends CharSequence> messages;
+    private final int from;
+    private final int to;
+
+    private AnalysisTask(List<? extends CharSequence> messages, int from, int to) {
+      this.messages = messages;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected KeypressStatistics compute() {
+      if (to - from <= CHUNK_SIZE) {
+        return analyze(messages, from, to);
+      }
+      int middle = (from + to) >>> 1;
+      AnalysisTask right = new AnalysisTask(messages, middle, to);
+      right.fork();
+      KeypressStatistics statistics = new AnalysisTask(messages, from, middle).compute();
+      statistics.add(right.join());
+      return statistics;
+    }
+  }
+}
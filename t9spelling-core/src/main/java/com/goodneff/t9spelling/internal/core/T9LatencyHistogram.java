@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent latency histogram with a fixed relative precision.
+ *
+ * <p>The recorded values are grouped the same way as HdrHistogram does it: every power of two range
+ * is split into 16 equal buckets, so any value is reported with an error below 1/16 of it, and the
+ * whole range of non-negative longs takes less than a thousand counters. Recording a value is a
+ * couple of bit operations and an atomic increment, there is no allocation and no lock.
+ *
+ * <p>The histogram is thread-safe. The values read while other threads record are not an atomic
+ * snapshot, but every recorded value is eventually visible.
+ *
+ * @author Alexey Gudnev
+ */
+public final class T9LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder total = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records the specified {@code value}.
+   *
+   * @param value the value to record, a negative one is recorded as {@code 0}.
+   */
+  public void record(long value) {
+    long recorded = Math.max(value, 0);
+    counts.incrementAndGet(indexOf(recorded));
+    total.add(recorded);
+    long current = max.get();
+    while (recorded > current && !max.compareAndSet(current, recorded)) {
+      current = max.get();
+    }
+  }
+
+  /**
+   * Returns the number of the recorded values.
+   *
+   * @return the count.
+   */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the maximal recorded value.
+   *
+   * @return the exact maximal value, {@code 0} if nothing is recorded.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the mean of the recorded values.
+   *
+   * @return the exact mean value, {@code 0} if nothing is recorded.
+   */
+  public double getMean() {
+    long count = getCount();
+    return count == 0 ? 0 : (double) total.sum() / count;
+  }
+
+  /**
+   * Returns the value at the specified {@code percentile}, i.e. the value that is greater than or
+   * equal to the specified part of the recorded values.
+   *
+   * @param percentile the percentile in range [0, 100].
+   * @return the highest value of the bucket of the percentile, but not greater than the maximal
+   *     recorded value. It is {@code 0} if nothing is recorded.
+   * @throws IllegalArgumentException if the percentile is out of the range.
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("The percentile must be in range [0, 100]");
+    }
+
+    long[] snapshot = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), getMax());
+      }
+    }
+    return 0;
+  }
+
+  private static int indexOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long highestValueOf(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.IUnsupportedCharacterListener;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import com.goodneff.t9spelling.core.UnsupportedCharacterPolicy;
+import java.io.IOException;
+import java.text.MessageFormat;
+
+/**
+ * The {@link IMessageProcessor} implementation backed by a {@link T9KeypadTable} that handles the
+ * unsupported characters according to an {@link UnsupportedCharacterPolicy}.
+ *
+ * <p>The unsupported characters are reported to an {@link IUnsupportedCharacterListener} and
+ * counted by {@link #encode(CharSequence, StringBuilder)}, so a dirty message neither throws nor
+ * allocates anything. The pauses are put as if the skipped characters were not in the message and
+ * the replaced ones were the replacement character. Even the {@link
+ * UnsupportedCharacterPolicy#FAIL} policy throws an exception without the stack trace.
+ *
+ * <p>The processor is thread-safe as long as the listener is thread-safe.
+ *
+ * @author Alexey Gudnev
+ * @see T9TableMessageProcessor
+ */
+public final class T9LenientMessageProcessor implements IMessageProcessor {
+  private static final char PAUSE = ' ';
+  private static final char DEFAULT_REPLACEMENT = ' ';
+
+  private final T9KeypadTable table;
+  private final UnsupportedCharacterPolicy policy;
+  private final char replacement;
+  private final IUnsupportedCharacterListener listener;
+
+  /**
+   * Instantiates a processor for the default T9 keypad that replaces the unsupported characters
+   * with spaces, if the policy is {@link UnsupportedCharacterPolicy#REPLACE}.
+   *
+   * @param policy the policy, cannot be {@code null}.
+   */
+  public T9LenientMessageProcessor(UnsupportedCharacterPolicy policy) {
+    this(T9KeypadTable.DEFAULT, policy, DEFAULT_REPLACEMENT, IUnsupportedCharacterListener.IGNORE);
+  }
+
+  /**
+   * Instantiates a processor for the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @param policy the policy, cannot be {@code null}.
+   * @param replacement the replacement of the unsupported characters, it is used by the {@link
+   *     UnsupportedCharacterPolicy#REPLACE} policy only and must be supported by the table.
+   * @param listener the listener of the unsupported characters, cannot be {@code null}.
+   * @throws IllegalArgumentException if an argument is not specified or the replacement is not
+   *     supported by the table.
+   */
+  public T9LenientMessageProcessor(
+      T9KeypadTable table,
+      UnsupportedCharacterPolicy policy,
+      char replacement,
+      IUnsupportedCharacterListener listener) {
+    if (table == null || policy == null || listener == null) {
+      throw new IllegalArgumentException("The table, policy and listener cannot be 'null'");
+    }
+    if (policy == UnsupportedCharacterPolicy.REPLACE
+        && table.keyOf(replacement) == T9KeypadTable.NO_KEY) {
+      String msg =
+          MessageFormat.format("The replacement character ''{0}'' is not supported", replacement);
+      throw new IllegalArgumentException(msg);
+    }
+    this.table = table;
+    this.policy = policy;
+    this.replacement = replacement;
+    this.listener = listener;
+  }
+
+  @Override
+  public String process(String message) {
+    if (message == null) {
+      throw new IllegalArgumentException("The 'message' argument cannot be null");
+    }
+
+    StringBuilder sb = new StringBuilder(message.length() * 2);
+    encode(message, sb);
+    return sb.toString();
+  }
+
+  @Override
+  public void process(CharSequence message, StringBuilder output) {
+    encode(message, output);
+  }
+
+  @Override
+  public void process(CharSequence message, Appendable output) throws IOException {
+    if (output instanceof StringBuilder) {
+      process(message, (StringBuilder) output);
+      return;
+    }
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+
+    // the output cannot be rolled back, so the message is checked before anything is written
+    if (policy == UnsupportedCharacterPolicy.FAIL || policy == UnsupportedCharacterPolicy.REJECT) {
+      if (check(message) > 0) {
+        return;
+      }
+    }
+    int lastKey = T9KeypadTable.NO_KEY;
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      int key = table.keyOf(character);
+      if (key == T9KeypadTable.NO_KEY) {
+        // the message is checked already, unless the policy is to skip or to replace
+        listener.onUnsupportedCharacter(message, i);
+        if (policy != UnsupportedCharacterPolicy.REPLACE) {
+          continue;
+        }
+        character = replacement;
+        key = table.keyOf(character);
+      }
+      if (key == lastKey) {
+        output.append(PAUSE);
+      }
+      for (char symbol : table.sequenceOf(character)) {
+        output.append(symbol);
+      }
+      lastKey = key;
+    }
+  }
+
+  /**
+   * Processes the {@code message} and appends the result to the {@code output}.
+   *
+   * <p>If the message is rejected or the processing fails, the output is left unchanged.
+   *
+   * @param message the message to process, cannot be {@code null}.
+   * @param output the output to append the result to, cannot be {@code null}.
+   * @return the number of the unsupported characters of the message, the message is rejected if the
+   *     number is positive and the policy is {@link UnsupportedCharacterPolicy#REJECT}.
+   * @throws IllegalArgumentException if the message or the output is {@code null}.
+   * @throws UnsupportedCharacterException if the message has unsupported characters and the policy
+   *     is {@link UnsupportedCharacterPolicy#FAIL}.
+   */
+  public int encode(CharSequence message, StringBuilder output) {
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+
+    int start = output.length();
+    int unsupported = 0;
+    int lastKey = T9KeypadTable.NO_KEY;
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      int key = table.keyOf(character);
+      if (key == T9KeypadTable.NO_KEY) {
+        unsupported++;
+        listener.onUnsupportedCharacter(message, i);
+        if (policy == UnsupportedCharacterPolicy.FAIL) {
+          output.setLength(start);
+          String msg = MessageFormat.format("The character ''{0}'' is not supported", character);
+          throw new UnsupportedCharacterException(msg, false);
+        }
+        if (policy != UnsupportedCharacterPolicy.REPLACE) {
+          continue;
+        }
+        character = replacement;
+        key = table.keyOf(character);
+      }
+      if (unsupported > 0 && policy == UnsupportedCharacterPolicy.REJECT) {
+        // the message is rejected, the rest of it is only checked
+        continue;
+      }
+      if (key == lastKey) {
+        output.append(PAUSE);
+      }
+      output.append(table.sequenceOf(character));
+      lastKey = key;
+    }
+
+    if (unsupported > 0 && policy == UnsupportedCharacterPolicy.REJECT) {
+      output.setLength(start);
+    }
+    return unsupported;
+  }
+
+  // Reports the unsupported characters of the message and returns their number
+  private int check(CharSequence message) {
+    int unsupported = 0;
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      if (table.keyOf(character) == T9KeypadTable.NO_KEY) {
+        unsupported++;
+        listener.onUnsupportedCharacter(message, i);
+        if (policy == UnsupportedCharacterPolicy.FAIL) {
+          String msg = MessageFormat.format("The character ''{0}'' is not supported", character);
+          throw new UnsupportedCharacterException(msg, false);
+        }
+      }
+    }
+    return unsupported;
+  }
+}
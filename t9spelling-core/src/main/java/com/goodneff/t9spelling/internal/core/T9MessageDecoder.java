@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IMessageDecoder;
+import java.text.MessageFormat;
+import java.util.Arrays;
+
+/**
+ * The {@link IMessageDecoder} implementation backed by a {@link T9KeypadTable}.
+ *
+ * <p>It decodes the result of {@link T9TableMessageProcessor} or {@link T9MessageProcessor} built
+ * for the same keypad. The encoded message is parsed in a single pass as runs of the same key
+ * symbol, every run is resolved to a character by its symbol and length with a plain array lookup.
+ *
+ * <p>The decoder is strict. It accepts a pause only between two runs of the same symbol, i.e.
+ * exactly where the encoder puts it, and rejects runs that do not correspond to any character.
+ *
+ * <p>The decoder is immutable and can be shared between threads.
+ *
+ * @author Alexey Gudnev
+ * @see T9KeypadTable
+ */
+public final class T9MessageDecoder implements IMessageDecoder {
+  private static final char PAUSE = ' ';
+  private static final int NO_CHARACTER = -1;
+
+  // the characters by the key symbol and the number of presses minus one
+  private final int[][] characters;
+
+  /** Instantiates a decoder for the default T9 keypad. */
+  public T9MessageDecoder() {
+    this(T9KeypadTable.DEFAULT);
+  }
+
+  /**
+   * Instantiates a decoder for the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @throws IllegalArgumentException if the table is not specified or cannot be decoded
+   *     unambiguously, i.e. a key sequence is not a run of a single symbol, the same symbol is used
+   *     by different keys, or different characters have the same key sequence.
+   */
+  public T9MessageDecoder(T9KeypadTable table) {
+    if (table == null) {
+      throw new IllegalArgumentException("The keypad table cannot be 'null'");
+    }
+
+    int[][] result = new int[0][];
+    int[] symbolKeys = new int[0];
+    for (int code = 0; code < table.getCharacterLimit(); code++) {
+      char character = (char) code;
+      char[] sequence = table.sequenceOf(character);
+      if (sequence == null) {
+        continue;
+      }
+      char symbol = checkSequence(character, sequence);
+      if (symbol >= result.length) {
+        result = Arrays.copyOf(result, symbol + 1);
+        int from = symbolKeys.length;
+        symbolKeys = Arrays.copyOf(symbolKeys, symbol + 1);
+        Arrays.fill(symbolKeys, from, symbolKeys.length, T9KeypadTable.NO_KEY);
+      }
+
+      int key = table.keyOf(character);
+      if (symbolKeys[symbol] != T9KeypadTable.NO_KEY && symbolKeys[symbol] != key) {
+        String msg = MessageFormat.format("The ''{0}'' symbol is used by several keys", symbol);
+        throw new IllegalArgumentException(msg);
+      }
+      symbolKeys[symbol] = key;
+
+      int[] row = result[symbol] == null ? new int[0] : result[symbol];
+      if (row.length < sequence.length) {
+        int from = row.length;
+        row = Arrays.copyOf(row, sequence.length);
+        Arrays.fill(row, from, row.length, NO_CHARACTER);
+        result[symbol] = row;
+      }
+      if (row[sequence.length - 1] != NO_CHARACTER) {
+        String msg =
+            MessageFormat.format(
+                "The ''{0}'' and ''{1}'' characters have the same key sequence",
+                (char) row[sequence.length - 1], character);
+        throw new IllegalArgumentException(msg);
+      }
+      row[sequence.length - 1] = character;
+    }
+    this.characters = result;
+  }
+
+  @Override
+  public String decode(String encoded) {
+    if (encoded == null) {
+      throw new IllegalArgumentException("The 'encoded' argument cannot be null");
+    }
+
+    StringBuilder sb = new StringBuilder(encoded.length());
+    decode(encoded, sb);
+    return sb.toString();
+  }
+
+  @Override
+  public void decode(CharSequence encoded, StringBuilder output) {
+    if (encoded == null || output == null) {
+      throw new IllegalArgumentException("The 'encoded' and 'output' arguments cannot be null");
+    }
+
+    int start = output.length();
+    int length = encoded.length();
+    int index = 0;
+    while (index < length) {
+      char symbol = encoded.charAt(index);
+      if (symbol == PAUSE) {
+        // a pause is allowed between two runs of the same symbol only
+        if (index == 0
+            || index == length - 1
+            || encoded.charAt(index + 1) != encoded.charAt(index - 1)) {
+          output.setLength(start);
+          throw malformed(index);
+        }
+        index++;
+        continue;
+      }
+
+      int runStart = index;
+      do {
+        index++;
+      } while (index < length && encoded.charAt(index) == symbol);
+
+      int character = characterOf(symbol, index - runStart);
+      if (character == NO_CHARACTER) {
+        output.setLength(start);
+        throw malformed(runStart);
+      }
+      output.append((char) character);
+    }
+  }
+
+  private int characterOf(char symbol, int presses) {
+    if (symbol >= characters.length) {
+      return NO_CHARACTER;
+    }
+    int[] row = characters[symbol];
+    return row != null && presses <= row.length ? row[presses - 1] : NO_CHARACTER;
+  }
+
+  private static char checkSequence(char character, char[] sequence) {
+    char symbol = sequence.length > 0 ? sequence[0] : PAUSE;
+    for (char item : sequence) {
+      if (item != symbol || item == PAUSE) {
+        String msg =
+            MessageFormat.format(
+                "The key sequence of the ''{0}'' character is not a run of a single symbol",
+                character);
+        throw new IllegalArgumentException(msg);
+      }
+    }
+    if (symbol == PAUSE) {
+      String msg = MessageFormat.format("The ''{0}'' character has no key sequence", character);
+      throw new IllegalArgumentException(msg);
+    }
+    return symbol;
+  }
+
+  private static IllegalArgumentException malformed(int index) {
+    String msg =
+        MessageFormat.format(
+            "The encoded message has a malformed key sequence at {0,number,#}", index);
+    return new IllegalArgumentException(msg);
+  }
+}
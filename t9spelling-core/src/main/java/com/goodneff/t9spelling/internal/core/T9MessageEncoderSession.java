@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.goodneff.t9spelling.core.IMessageEncoderSession;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.text.MessageFormat;
+
+/**
+ * The {@link IMessageEncoderSession} implementation backed by a {@link T9KeypadTable}.
+ *
+ * <p>The key sequences are collected in a fixed buffer that is written to the sink when it is full,
+ * on {@link #flush()} and on {@link #close()}. So the first results are written as soon as the
+ * buffer is filled, and a message of any length is encoded in constant memory.
+ *
+ * @author Alexey Gudnev
+ * @see T9TableMessageProcessor
+ */
+public final class T9MessageEncoderSession implements IMessageEncoderSession {
+  private static final char PAUSE = ' ';
+  private static final int BUFFER_SIZE = 1 << 13;
+
+  private final T9KeypadTable table;
+  private final Writer writer;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
+  private int lastKey = T9KeypadTable.NO_KEY;
+  private char[] readBuffer;
+  private boolean closed;
+
+  /**
+   * Instantiates a session that writes the result to the {@code writer}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @param writer the sink of the result, cannot be {@code null}. It is closed with the session.
+   * @throws IllegalArgumentException if the table or the writer is not specified.
+   */
+  public T9MessageEncoderSession(T9KeypadTable table, Writer writer) {
+    if (table == null || writer == null) {
+      throw new IllegalArgumentException("The keypad table and writer cannot be 'null'");
+    }
+    this.table = table;
+    this.writer = writer;
+  }
+
+  /**
+   * Instantiates a session that writes the result to the {@code channel} in UTF-8, which is ASCII
+   * for the digit key symbols.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @param channel the sink of the result, cannot be {@code null}. It is closed with the session.
+   * @throws IllegalArgumentException if the table or the channel is not specified.
+   */
+  public T9MessageEncoderSession(T9KeypadTable table, WritableByteChannel channel) {
+    this(table, channel == null ? null : Channels.newWriter(channel, UTF_8));
+  }
+
+  @Override
+  public void append(char character) throws IOException {
+    ensureOpen();
+    int key = table.keyOf(character);
+    if (key == T9KeypadTable.NO_KEY) {
+      String msg = MessageFormat.format("The character ''{0}'' is not supported", character);
+      throw new UnsupportedCharacterException(msg);
+    }
+    char[] sequence = table.sequenceOf(character);
+    if (position + sequence.length >= buffer.length) {
+      flushBuffer();
+    }
+    if (key == lastKey) {
+      buffer[position++] = PAUSE;
+    }
+    System.arraycopy(sequence, 0, buffer, position, sequence.length);
+    position += sequence.length;
+    lastKey = key;
+  }
+
+  @Override
+  public void append(CharSequence chunk) throws IOException {
+    if (chunk == null) {
+      throw new IllegalArgumentException("The 'chunk' argument cannot be null");
+    }
+    for (int i = 0; i < chunk.length(); i++) {
+      append(chunk.charAt(i));
+    }
+  }
+
+  @Override
+  public void append(CharBuffer chunk) throws IOException {
+    if (chunk == null) {
+      throw new IllegalArgumentException("The 'chunk' argument cannot be null");
+    }
+    while (chunk.hasRemaining()) {
+      append(chunk.get(chunk.position()));
+      chunk.position(chunk.position() + 1);
+    }
+  }
+
+  @Override
+  public long append(Reader reader) throws IOException {
+    if (reader == null) {
+      throw new IllegalArgumentException("The 'reader' argument cannot be null");
+    }
+    if (readBuffer == null) {
+      readBuffer = new char[BUFFER_SIZE];
+    }
+    long count = 0;
+    for (int read = reader.read(readBuffer); read >= 0; read = reader.read(readBuffer)) {
+      for (int i = 0; i < read; i++) {
+        append(readBuffer[i]);
+      }
+      count += read;
+    }
+    return count;
+  }
+
+  @Override
+  public void endMessage() {
+    lastKey = T9KeypadTable.NO_KEY;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    flushBuffer();
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      flushBuffer();
+    } finally {
+      closed = true;
+      writer.close();
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    writer.write(buffer, 0, position);
+    position = 0;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("The session is closed");
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IMessageMetrics;
+import java.lang.management.ManagementFactory;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The {@link IMessageMetrics} implementation fed by {@link T9MeteredMessageProcessor}.
+ *
+ * <p>The counters are {@link LongAdder}s and the latencies are kept in a {@link
+ * T9LatencyHistogram}, so recording never blocks the processing threads.
+ *
+ * <p>The metrics are thread-safe.
+ *
+ * @author Alexey Gudnev
+ * @see T9MeteredMessageProcessor
+ */
+public final class T9MessageMetrics implements IMessageMetrics {
+  /** The JMX domain of the metrics MBeans. */
+  public static final String DOMAIN = "com.goodneff.t9spelling";
+
+  private static final double NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+
+  private final LongAdder messages = new LongAdder();
+  private final LongAdder characters = new LongAdder();
+  private final LongAdder outputCharacters = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final T9LatencyHistogram latency = new T9LatencyHistogram();
+
+  /**
+   * Records a successfully processed message.
+   *
+   * @param length the message length.
+   * @param outputLength the length of the processing result.
+   * @param nanos the processing duration in nanoseconds.
+   */
+  public void recordMessage(int length, int outputLength, long nanos) {
+    messages.increment();
+    characters.add(length);
+    outputCharacters.add(outputLength);
+    latency.record(nanos);
+  }
+
+  /**
+   * Records a message rejected because of unsupported characters.
+   *
+   * @param nanos the duration of the failed processing in nanoseconds.
+   */
+  public void recordUnsupportedCharacterError(long nanos) {
+    errors.increment();
+    latency.record(nanos);
+  }
+
+  @Override
+  public long getMessageCount() {
+    return messages.sum();
+  }
+
+  @Override
+  public long getCharacterCount() {
+    return characters.sum();
+  }
+
+  @Override
+  public long getOutputCharacterCount() {
+    return outputCharacters.sum();
+  }
+
+  @Override
+  public long getUnsupportedCharacterErrorCount() {
+    return errors.sum();
+  }
+
+  @Override
+  public double getLatencyMeanMicros() {
+    return latency.getMean() / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public double getLatency50thPercentileMicros() {
+    return latency.getValueAtPercentile(50) / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public double getLatency99thPercentileMicros() {
+    return latency.getValueAtPercentile(99) / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public double getLatency999thPercentileMicros() {
+    return latency.getValueAtPercentile(99.9) / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public double getLatencyMaxMicros() {
+    return latency.getMax() / NANOS_PER_MICRO;
+  }
+
+  /**
+   * Registers the metrics in the platform MBean server under the {@code
+   * com.goodneff.t9spelling:type=MessageMetrics,name=<name>} object name.
+   *
+   * @param name the name that distinguishes the metrics, cannot be {@code null}.
+   * @return the object name of the registered MBean, never {@code null}.
+   * @throws IllegalArgumentException if the name is not specified or the MBean cannot be
+   *     registered, e.g. the name is already taken.
+   */
+  public ObjectName register(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("The metrics name cannot be 'null'");
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName objectName =
+          new ObjectName(DOMAIN + ":type=MessageMetrics,name=" + ObjectName.quote(name));
+      server.registerMBean(this, objectName);
+      return objectName;
+    } catch (JMException ex) {
+      String msg = MessageFormat.format("Cannot register the ''{0}'' metrics", name);
+      throw new IllegalArgumentException(msg, ex);
+    }
+  }
+
+  @Override
+  public String toString() {
+    // the same decimal separator in any default locale, so the printed line can be parsed
+    return String.format(
+        Locale.ROOT,
+        "messages=%d, characters=%d, output=%d, errors=%d, "
+            + "latency us: mean=%.1f, p50=%.1f, p99=%.1f, p99.9=%.1f, max=%.1f",
+        getMessageCount(),
+        getCharacterCount(),
+        getOutputCharacterCount(),
+        getUnsupportedCharacterErrorCount(),
+        getLatencyMeanMicros(),
+        getLatency50thPercentileMicros(),
+        getLatency99thPercentileMicros(),
+        getLatency999thPercentileMicros(),
+        getLatencyMaxMicros());
+  }
+}
@@ -25,8 +25,10 @@ import java.util.Objects;
  * </ul>
  *
  * <strong>NOTE:</strong> if the processor of the next incoming character is {@code null} it throws
- * an {@link UnsupportedCharacterException} <strong>NOTE:</strong> The processor implementation is
- * not thread-safe.
+ * an {@link UnsupportedCharacterException}.
+ *
+ * <p>The processor is immutable. It is thread-safe as long as its character processor factory and
+ * the character processors are thread-safe, which is true for the default ones.
  *
  * @author Alexey Gudnev
  * @see ICharacterProcessor
@@ -37,8 +39,20 @@ public final class T9MessageProcessor implements IMessageProcessor {
 
   // NOTE: It is better to use DI (guava/spring/pico), but let's limit our requirements with the
   // factory
-  private ICharacterProcessorFactory characterProcessorFactory =
-      ICharacterProcessorFactory.INSTANCE;
+  private final ICharacterProcessorFactory characterProcessorFactory;
+
+  /** Instantiates a processor with the shared character processor factory. */
+  public T9MessageProcessor() {
+    this(ICharacterProcessorFactory.INSTANCE);
+  }
+
+  // For testing purposes
+  /* package-private */ T9MessageProcessor(ICharacterProcessorFactory characterProcessorFactory) {
+    if (characterProcessorFactory == null) {
+      throw new IllegalArgumentException("The character processor factory cannot be 'null'");
+    }
+    this.characterProcessorFactory = characterProcessorFactory;
+  }
 
   @Override
   public String process(String message) {
@@ -65,13 +79,4 @@ public final class T9MessageProcessor implements IMessageProcessor {
     }
     return sb.toString();
   }
-
-  // For testing purposes
-  /* package-private */ void setCharacterProcessorFactory(
-      ICharacterProcessorFactory characterProcessorFactory) {
-    if (characterProcessorFactory == null) {
-      throw new IllegalArgumentException("The character processor factory cannot be 'null'");
-    }
-    this.characterProcessorFactory = characterProcessorFactory;
-  }
 }
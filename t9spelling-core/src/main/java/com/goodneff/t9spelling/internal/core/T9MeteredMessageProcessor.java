@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+
+/**
+ * The {@link IMessageProcessor} decorator that measures the {@code origin} processor.
+ *
+ * <p>Every processed message is recorded in the {@link T9MessageMetrics} and a {@link
+ * T9SlowMessageEvent} is committed for the messages that are slower than the event threshold. The
+ * metering is enabled by wrapping a processor, so an unwrapped processor pays nothing for it.
+ *
+ * <p>The processor is thread-safe as long as the {@code origin} processor is thread-safe.
+ *
+ * @author Alexey Gudnev
+ * @see T9MessageMetrics
+ */
+public final class T9MeteredMessageProcessor implements IMessageProcessor {
+  private final IMessageProcessor origin;
+  private final T9MessageMetrics metrics;
+
+  /**
+   * Instantiates a metered processor over the {@code origin} one.
+   *
+   * @param origin the origin processor, cannot be {@code null}.
+   * @param metrics the metrics to record to, cannot be {@code null}.
+   */
+  public T9MeteredMessageProcessor(IMessageProcessor origin, T9MessageMetrics metrics) {
+    if (origin == null || metrics == null) {
+      throw new IllegalArgumentException("The origin processor and metrics cannot be 'null'");
+    }
+    this.origin = origin;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public String process(String message) {
+    if (message == null) {
+      throw new IllegalArgumentException("The 'message' argument cannot be null");
+    }
+
+    StringBuilder sb = new StringBuilder(message.length() * 2);
+    process(message, sb);
+    return sb.toString();
+  }
+
+  @Override
+  public void process(CharSequence message, StringBuilder output) {
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+
+    int start = output.length();
+    T9SlowMessageEvent event = new T9SlowMessageEvent();
+    event.begin();
+    long startNanos = System.nanoTime();
+    try {
+      origin.process(message, output);
+    } catch (UnsupportedCharacterException ex) {
+      metrics.recordUnsupportedCharacterError(System.nanoTime() - startNanos);
+      commit(event, message.length(), 0, true);
+      throw ex;
+    }
+    int outputLength = output.length() - start;
+    metrics.recordMessage(message.length(), outputLength, System.nanoTime() - startNanos);
+    commit(event, message.length(), outputLength, false);
+  }
+
+  @Override
+  public void process(CharSequence message, Appendable output) throws IOException {
+    if (output instanceof StringBuilder) {
+      process(message, (StringBuilder) output);
+      return;
+    }
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+
+    CountingAppendable counting = new CountingAppendable(output);
+    T9SlowMessageEvent event = new T9SlowMessageEvent();
+    event.begin();
+    long startNanos = System.nanoTime();
+    try {
+      origin.process(message, counting);
+    } catch (UnsupportedCharacterException ex) {
+      metrics.recordUnsupportedCharacterError(System.nanoTime() - startNanos);
+      commit(event, message.length(), counting.count, true);
+      throw ex;
+    }
+    metrics.recordMessage(message.length(), counting.count, System.nanoTime() - startNanos);
+    commit(event, message.length(), counting.count, false);
+  }
+
+  private static void commit(
+      T9SlowMessageEvent event, int messageLength, int outputLength, boolean unsupported) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.messageLength = messageLength;
+      event.outputLength = outputLength;
+      event.unsupportedCharacter = unsupported;
+      event.commit();
+    }
+  }
+
+  /** Counts the characters appended to the delegate. */
+  private static final class CountingAppendable implements Appendable {
+    private final Appendable delegate;
+    private int count;
+
+    private CountingAppendable(Appendable delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+      CharSequence value = csq == null ? "null" : csq;
+      delegate.append(value);
+      count += value.length();
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+      CharSequence value = csq == null ? "null" : csq;
+      delegate.append(value, start, end);
+      count += end - start;
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+      delegate.append(c);
+      count++;
+      return this;
+    }
+  }
+}
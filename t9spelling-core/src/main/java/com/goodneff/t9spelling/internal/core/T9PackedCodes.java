@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The codes of the packed format of a {@link T9KeypadTable}.
+ *
+ * <p>Every distinct pair of a key and a key sequence of the table gets a code, so the key sequence
+ * of a character, e.g. {@code 555}, is packed as a single code of the minimal fixed bit width. The
+ * pauses are not packed at all, they are restored between two codes of the same key. The codes are
+ * assigned in the order of the characters, so the same table always gets the same codes.
+ *
+ * <p>The packed stream starts with a header of the magic bytes, the format version, the bit width
+ * and the checksum of the codes, so a stream written for another keypad is rejected. The header is
+ * followed by the big-endian bit stream of the codes, every message is terminated by {@link
+ * #END_OF_MESSAGE}, the stream is terminated by {@link #END_OF_STREAM} and padded with zero bits up
+ * to a whole byte.
+ *
+ * @author Alexey Gudnev
+ */
+final class T9PackedCodes {
+  /** The code that terminates a message. */
+  static final int END_OF_MESSAGE = 0;
+
+  /** The code that terminates the stream. */
+  static final int END_OF_STREAM = 1;
+
+  /** The length of the header in bytes. */
+  static final int HEADER_LENGTH = 9;
+
+  private static final byte[] MAGIC = {'T', '9', 'P'};
+  private static final byte VERSION = 1;
+  private static final int FIRST_CODE = 2;
+
+  // the codes by the character, the unsupported characters have the END_OF_MESSAGE code
+  private final char[] codes;
+  private final int[] keys;
+  private final char[][] sequences;
+  private final int width;
+  private final int checksum;
+
+  /**
+   * Assigns the codes of the specified {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @throws IllegalArgumentException if the table is not specified or it has too many distinct key
+   *     sequences to be packed.
+   */
+  T9PackedCodes(T9KeypadTable table) {
+    if (table == null) {
+      throw new IllegalArgumentException("The keypad table cannot be 'null'");
+    }
+
+    Map<String, Integer> known = new HashMap<>();
+    char[] result = new char[table.getCharacterLimit()];
+    int[] resultKeys = new int[FIRST_CODE];
+    char[][] resultSequences = new char[FIRST_CODE][];
+    int count = FIRST_CODE;
+    for (int code = 0; code < result.length; code++) {
+      char character = (char) code;
+      int key = table.keyOf(character);
+      if (key == T9KeypadTable.NO_KEY) {
+        continue;
+      }
+      char[] sequence = table.sequenceOf(character);
+      Integer existing = known.putIfAbsent(key + ":" + String.valueOf(sequence), count);
+      if (existing != null) {
+        result[character] = (char) existing.intValue();
+        continue;
+      }
+      if (count > Character.MAX_VALUE) {
+        throw new IllegalArgumentException("The keypad table has too many key sequences");
+      }
+      if (count == resultKeys.length) {
+        resultKeys = Arrays.copyOf(resultKeys, count * 2);
+        resultSequences = Arrays.copyOf(resultSequences, count * 2);
+      }
+      resultKeys[count] = key;
+      resultSequences[count] = sequence;
+      result[character] = (char) count++;
+    }
+
+    this.codes = result;
+    this.keys = Arrays.copyOf(resultKeys, count);
+    this.sequences = Arrays.copyOf(resultSequences, count);
+    this.width = Math.max(Integer.SIZE - Integer.numberOfLeadingZeros(count - 1), 1);
+    this.checksum = checksum(width, keys, sequences);
+  }
+
+  /**
+   * Returns the code of the specified {@code character}.
+   *
+   * @param character the character to look up.
+   * @return the code or {@link #END_OF_MESSAGE} if the character is not supported.
+   */
+  int codeOf(char character) {
+    return character < codes.length ? codes[character] : END_OF_MESSAGE;
+  }
+
+  /**
+   * Returns the number of the codes including the reserved ones.
+   *
+   * @return the number of the codes.
+   */
+  int getCount() {
+    return keys.length;
+  }
+
+  /**
+   * Returns the bit width of a code.
+   *
+   * @return the number of bits of a code, from 1 to 16.
+   */
+  int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the key of the specified {@code code}.
+   *
+   * @param code the code of a key sequence.
+   * @return the key index.
+   */
+  int keyOf(int code) {
+    return keys[code];
+  }
+
+  /**
+   * Returns the key sequence of the specified {@code code}.
+   *
+   * <p>The returned array is shared and must not be modified.
+   *
+   * @param code the code of a key sequence.
+   * @return the key sequence.
+   */
+  char[] sequenceOf(int code) {
+    return sequences[code];
+  }
+
+  /**
+   * Puts the header of a packed stream to the {@code buffer}.
+   *
+   * @param buffer the buffer of at least {@link #HEADER_LENGTH} bytes.
+   * @return the length of the header.
+   */
+  int putHeader(byte[] buffer) {
+    System.arraycopy(MAGIC, 0, buffer, 0, MAGIC.length);
+    buffer[3] = VERSION;
+    buffer[4] = (byte) width;
+    for (int i = 0; i < Integer.BYTES; i++) {
+      buffer[5 + i] = (byte) (checksum >>> (Integer.SIZE - Byte.SIZE * (i + 1)));
+    }
+    return HEADER_LENGTH;
+  }
+
+  /**
+   * Checks that the header of a packed stream is written for the same codes.
+   *
+   * @param header the header of {@link #HEADER_LENGTH} bytes.
+   * @throws IOException if the header is not a header of a packed stream or it is written for
+   *     another keypad.
+   */
+  void checkHeader(byte[] header) throws IOException {
+    if (header[0] != MAGIC[0] || header[1] != MAGIC[1] || header[2] != MAGIC[2]) {
+      throw new IOException("The stream is not a packed stream");
+    }
+    if (header[3] != VERSION) {
+      throw new IOException("The packed stream version " + header[3] + " is not supported");
+    }
+    int actual = 0;
+    for (int i = 0; i < Integer.BYTES; i++) {
+      actual = (actual << Byte.SIZE) | (header[5 + i] & 0xFF);
+    }
+    if (header[4] != width || actual != checksum) {
+      throw new IOException("The packed stream is written for another keypad");
+    }
+  }
+
+  private static int checksum(int width, int[] keys, char[][] sequences) {
+    CRC32 crc = new CRC32();
+    update(crc, width);
+    for (int code = FIRST_CODE; code < keys.length; code++) {
+      update(crc, keys[code]);
+      update(crc, sequences[code].length);
+      for (char symbol : sequences[code]) {
+        update(crc, symbol);
+      }
+    }
+    return (int) crc.getValue();
+  }
+
+  private static void update(CRC32 crc, int value) {
+    for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      crc.update(value >>> shift);
+    }
+  }
+}
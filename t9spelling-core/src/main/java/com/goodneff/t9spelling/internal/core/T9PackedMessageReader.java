@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IPackedMessageReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The {@link IPackedMessageReader} implementation backed by a {@link T9KeypadTable}.
+ *
+ * <p>It reads the streams written by {@link T9PackedMessageWriter} for the same keypad. The header
+ * is checked on the first read, every code is resolved to its key sequence with a plain array
+ * lookup and the pauses are put between the codes of the same key, so the result is exactly the
+ * same as the one of {@link T9TableMessageProcessor}. The stream is read through a fixed buffer.
+ *
+ * @author Alexey Gudnev
+ * @see T9PackedMessageWriter
+ */
+public final class T9PackedMessageReader implements IPackedMessageReader {
+  private static final char PAUSE = ' ';
+  private static final int BUFFER_SIZE = 1 << 13;
+
+  private final T9PackedCodes codes;
+  private final int width;
+  private final int mask;
+  private final InputStream stream;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  // the pending bits are the lowest bits, the higher ones are already read
+  private long bits;
+  private int bitCount;
+  private boolean started;
+  private boolean ended;
+
+  /**
+   * Instantiates a reader for the default T9 keypad that reads from the {@code stream}.
+   *
+   * @param stream the source of the packed messages, cannot be {@code null}. It is closed with the
+   *     reader.
+   */
+  public T9PackedMessageReader(InputStream stream) {
+    this(T9KeypadTable.DEFAULT, stream);
+  }
+
+  /**
+   * Instantiates a reader for the specified keypad {@code table} that reads from the {@code
+   * stream}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @param stream the source of the packed messages, cannot be {@code null}. It is closed with the
+   *     reader.
+   * @throws IllegalArgumentException if the table or the stream is not specified or the table has
+   *     too many key sequences to be packed.
+   */
+  public T9PackedMessageReader(T9KeypadTable table, InputStream stream) {
+    this(new T9PackedCodes(table), stream);
+  }
+
+  /* package-private */ T9PackedMessageReader(T9PackedCodes codes, InputStream stream) {
+    if (stream == null) {
+      throw new IllegalArgumentException("The stream cannot be 'null'");
+    }
+    this.codes = codes;
+    this.width = codes.getWidth();
+    this.mask = (1 << width) - 1;
+    this.stream = stream;
+  }
+
+  @Override
+  public boolean read(StringBuilder output) throws IOException {
+    if (output == null) {
+      throw new IllegalArgumentException("The 'output' argument cannot be null");
+    }
+    if (!started) {
+      readHeader();
+      started = true;
+    }
+    if (ended) {
+      return false;
+    }
+
+    int start = output.length();
+    int lastKey = T9KeypadTable.NO_KEY;
+    try {
+      for (int code = next(); code != T9PackedCodes.END_OF_MESSAGE; code = next()) {
+        if (code == T9PackedCodes.END_OF_STREAM) {
+          ended = true;
+          if (lastKey != T9KeypadTable.NO_KEY) {
+            throw new IOException("The packed stream ends in the middle of a message");
+          }
+          return false;
+        }
+        if (code >= codes.getCount()) {
+          throw new IOException("The packed stream has an unknown code " + code);
+        }
+        int key = codes.keyOf(code);
+        if (key == lastKey) {
+          output.append(PAUSE);
+        }
+        output.append(codes.sequenceOf(code));
+        lastKey = key;
+      }
+    } catch (IOException ex) {
+      // the message is read either completely or not at all
+      output.setLength(start);
+      throw ex;
+    }
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    stream.close();
+  }
+
+  private void readHeader() throws IOException {
+    byte[] header = new byte[T9PackedCodes.HEADER_LENGTH];
+    for (int i = 0; i < header.length; i++) {
+      header[i] = (byte) nextByte();
+    }
+    codes.checkHeader(header);
+  }
+
+  private int next() throws IOException {
+    while (bitCount < width) {
+      bits = (bits << Byte.SIZE) | nextByte();
+      bitCount += Byte.SIZE;
+    }
+    bitCount -= width;
+    return (int) (bits >>> bitCount) & mask;
+  }
+
+  private int nextByte() throws IOException {
+    if (position == limit) {
+      int read = stream.read(buffer);
+      while (read == 0) {
+        read = stream.read(buffer);
+      }
+      if (read < 0) {
+        throw new EOFException("The packed stream is truncated");
+      }
+      position = 0;
+      limit = read;
+    }
+    return buffer[position++] & 0xFF;
+  }
+}
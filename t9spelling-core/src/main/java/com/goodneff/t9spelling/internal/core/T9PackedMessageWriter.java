@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IPackedMessageWriter;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.MessageFormat;
+
+/**
+ * The {@link IPackedMessageWriter} implementation backed by a {@link T9KeypadTable}.
+ *
+ * <p>The key sequence of every character is written as a single code of a few bits and the pauses
+ * are not written at all, e.g. a character of the default keypad takes 5 bits instead of up to 5
+ * bytes of the textual form. The codes are collected in a fixed buffer that is written to the
+ * stream when it is full, on {@link #flush()} and on {@link #close()}.
+ *
+ * <p>The stream is complete only after the writer is closed. A flushed stream can be read up to the
+ * flushed messages, except the last few bits. An aborted stream is never complete.
+ *
+ * @author Alexey Gudnev
+ * @see T9PackedMessageReader
+ */
+public final class T9PackedMessageWriter implements IPackedMessageWriter {
+  private static final int BUFFER_SIZE = 1 << 13;
+
+  private final T9PackedCodes codes;
+  private final int width;
+  private final OutputStream stream;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int position;
+  // the pending bits are the lowest bits, the higher ones are already put to the buffer
+  private long bits;
+  private int bitCount;
+  private boolean closed;
+
+  /**
+   * Instantiates a writer for the default T9 keypad that writes to the {@code stream}.
+   *
+   * @param stream the sink of the packed messages, cannot be {@code null}. It is closed with the
+   *     writer.
+   */
+  public T9PackedMessageWriter(OutputStream stream) {
+    this(T9KeypadTable.DEFAULT, stream);
+  }
+
+  /**
+   * Instantiates a writer for the specified keypad {@code table} that writes to the {@code stream}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @param stream the sink of the packed messages, cannot be {@code null}. It is closed with the
+   *     writer.
+   * @throws IllegalArgumentException if the table or the stream is not specified or the table has
+   *     too many key sequences to be packed.
+   */
+  public T9PackedMessageWriter(T9KeypadTable table, OutputStream stream) {
+    this(new T9PackedCodes(table), stream);
+  }
+
+  /* package-private */ T9PackedMessageWriter(T9PackedCodes codes, OutputStream stream) {
+    if (stream == null) {
+      throw new IllegalArgumentException("The stream cannot be 'null'");
+    }
+    this.codes = codes;
+    this.width = codes.getWidth();
+    this.stream = stream;
+    this.position = codes.putHeader(buffer);
+  }
+
+  @Override
+  public void write(CharSequence message) throws IOException {
+    if (message == null) {
+      throw new IllegalArgumentException("The 'message' argument cannot be null");
+    }
+    ensureOpen();
+
+    // the message is checked first, so a rejected message leaves nothing in the stream
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      if (codes.codeOf(character) == T9PackedCodes.END_OF_MESSAGE) {
+        String msg = MessageFormat.format("The character ''{0}'' is not supported", character);
+        throw new UnsupportedCharacterException(msg);
+      }
+    }
+    for (int i = 0; i < message.length(); i++) {
+      put(codes.codeOf(message.charAt(i)));
+    }
+    put(T9PackedCodes.END_OF_MESSAGE);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    flushBuffer();
+    stream.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      put(T9PackedCodes.END_OF_STREAM);
+      if (bitCount > 0) {
+        // the last byte is padded with zero bits
+        put(0, Byte.SIZE - bitCount);
+      }
+      flushBuffer();
+    } finally {
+      closed = true;
+      stream.close();
+    }
+  }
+
+  @Override
+  public void abort() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      // the pending bits are dropped, the stream is truncated anyway
+      flushBuffer();
+    } finally {
+      closed = true;
+      stream.close();
+    }
+  }
+
+  private void put(int code) throws IOException {
+    put(code, width);
+  }
+
+  private void put(int value, int count) throws IOException {
+    bits = (bits << count) | value;
+    bitCount += count;
+    while (bitCount >= Byte.SIZE) {
+      bitCount -= Byte.SIZE;
+      if (position == buffer.length) {
+        flushBuffer();
+      }
+      buffer[position++] = (byte) (bits >>> bitCount);
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    stream.write(buffer, 0, position);
+    position = 0;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("The writer is closed");
+    }
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@link IMessageProcessor} implementation that encodes a single very large message on all the
+ * workers of a {@link ForkJoinPool}.
+ *
+ * <p>The only state carried from one character to the next one is the key of the previous
+ * character, so the message is split into chunks that are encoded independently. The pause at the
+ * start of a chunk is decided by the last character of the previous chunk. The message is processed
+ * in two parallel passes: the first one validates the chunks and computes their exact output
+ * lengths, the second one fills a single pre-sized output array at the offsets of the chunks. The
+ * result is exactly the same as the one of {@link T9TableMessageProcessor}, including the reported
+ * unsupported character, which is the first one of the message.
+ *
+ * <p>The messages shorter than two chunks are processed on the calling thread. If all the key
+ * symbols of the table are Latin-1 characters, {@link #process(String)} fills a byte array instead
+ * of a char array, so the string is built by a plain copy of a half-sized array.
+ *
+ * <p>The processor is immutable and can be shared between threads.
+ *
+ * @author Alexey Gudnev
+ * @see T9TableMessageProcessor
+ */
+public final class T9ParallelMessageProcessor implements IMessageProcessor {
+  /** The default number of characters of a chunk. */
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+  private static final char PAUSE = ' ';
+  private static final int MAX_OUTPUT_LENGTH = Integer.MAX_VALUE - 8;
+  private static final char LATIN1_LIMIT = 0xFF;
+
+  private final T9KeypadTable table;
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+  private final boolean latin1;
+
+  /** Instantiates a processor for the default T9 keypad on the common pool. */
+  public T9ParallelMessageProcessor() {
+    this(T9KeypadTable.DEFAULT, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Instantiates a processor for the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @param pool the pool to encode the chunks on, cannot be {@code null}.
+   * @param chunkSize the number of characters of a chunk, must be positive.
+   * @throws IllegalArgumentException if the table or the pool is not specified or the chunk size is
+   *     not positive.
+   */
+  public T9ParallelMessageProcessor(T9KeypadTable table, ForkJoinPool pool, int chunkSize) {
+    if (table == null || pool == null) {
+      throw new IllegalArgumentException("The keypad table and pool cannot be 'null'");
+    }
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("The chunk size must be positive");
+    }
+    this.table = table;
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+    this.latin1 = isLatin1(table);
+  }
+
+  @Override
+  public String process(String message) {
+    if (message == null) {
+      throw new IllegalArgumentException("The 'message' argument cannot be null");
+    }
+    if (!latin1) {
+      return String.valueOf(encode(message));
+    }
+    return new String(run(message, true).bytes, StandardCharsets.ISO_8859_1);
+  }
+
+  @Override
+  public void process(CharSequence message, StringBuilder output) {
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+    output.append(encode(message));
+  }
+
+  @Override
+  public void process(CharSequence message, Appendable output) throws IOException {
+    if (output instanceof StringBuilder) {
+      process(message, (StringBuilder) output);
+      return;
+    }
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+    output.append(CharBuffer.wrap(encode(message)));
+  }
+
+  /**
+   * Encodes the {@code message} into a new array of the exact length.
+   *
+   * @param message the message to encode, cannot be {@code null}.
+   * @return the encoded message, never {@code null}.
+   * @throws IllegalArgumentException if the message is {@code null} or the encoded message does not
+   *     fit an array.
+   * @throws UnsupportedCharacterException if the message has unsupported characters.
+   */
+  public char[] encode(CharSequence message) {
+    if (message == null) {
+      throw new IllegalArgumentException("The 'message' argument cannot be null");
+    }
+    return run(message, false).output;
+  }
+
+  private Encoding run(CharSequence message, boolean bytes) {
+    int chunks = (int) ((message.length() + (long) chunkSize - 1) / chunkSize);
+    Encoding encoding = new Encoding(message, Math.max(chunks, 1), bytes);
+    if (chunks < 2) {
+      encoding.measure(0);
+      encoding.prepare();
+      encoding.fill(0);
+    } else {
+      pool.invoke(new ChunkTask(encoding, 0, chunks, false));
+      encoding.prepare();
+      pool.invoke(new ChunkTask(encoding, 0, chunks, true));
+    }
+    return encoding;
+  }
+
+  private static boolean isLatin1(T9KeypadTable table) {
+    for (int code = 0; code < table.getCharacterLimit(); code++) {
+      char[] sequence = table.sequenceOf((char) code);
+      if (sequence == null) {
+        continue;
+      }
+      for (char symbol : sequence) {
+        if (symbol > LATIN1_LIMIT) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** The state of the encoding of a single message shared by its chunk tasks. */
+  private final class Encoding {
+    private final CharSequence message;
+    private final int chunks;
+    private final long[] lengths;
+    private final int[] failures;
+    private final boolean latin1;
+    private int[] offsets;
+    // either of the outputs is allocated
+    private char[] output;
+    private byte[] bytes;
+
+    private Encoding(CharSequence message, int chunks, boolean latin1) {
+      this.message = message;
+      this.chunks = chunks;
+      this.latin1 = latin1;
+      this.lengths = new long[chunks];
+      this.failures = new int[chunks];
+    }
+
+    private int from(int chunk) {
+      return (int) Math.min((long) chunk * chunkSize, message.length());
+    }
+
+    private int to(int chunk) {
+      return chunk == chunks - 1 ? message.length() : from(chunk + 1);
+    }
+
+    private int lastKey(int from) {
+      // the key of the last character of the previous chunk decides the pause at the boundary
+      return from == 0 ? T9KeypadTable.NO_KEY : table.keyOf(message.charAt(from - 1));
+    }
+
+    // Validates the chunk and computes the exact length of its result
+    private void measure(int chunk) {
+      int from = from(chunk);
+      int to = to(chunk);
+      long length = 0;
+      int lastKey = lastKey(from);
+      failures[chunk] = -1;
+      for (int i = from; i < to; i++) {
+        char character = message.charAt(i);
+        int key = table.keyOf(character);
+        if (key == T9KeypadTable.NO_KEY) {
+          failures[chunk] = i;
+          return;
+        }
+        if (key == lastKey) {
+          length++;
+        }
+        length += table.sequenceOf(character).length;
+        lastKey = key;
+      }
+      lengths[chunk] = length;
+    }
+
+    // Reports the first unsupported character and allocates the output at the chunk offsets
+    private void prepare() {
+      for (int chunk = 0; chunk < chunks; chunk++) {
+        if (failures[chunk] >= 0) {
+          char character = message.charAt(failures[chunk]);
+          String msg = MessageFormat.format("The character ''{0}'' is not supported", character);
+          throw new UnsupportedCharacterException(msg);
+        }
+      }
+      offsets = new int[chunks];
+      long length = 0;
+      for (int chunk = 0; chunk < chunks; chunk++) {
+        offsets[chunk] = (int) length;
+        length += lengths[chunk];
+        if (length > MAX_OUTPUT_LENGTH) {
+          throw new IllegalArgumentException("The encoded message is too long");
+        }
+      }
+      if (latin1) {
+        bytes = new byte[(int) length];
+      } else {
+        output = new char[(int) length];
+      }
+    }
+
+    // Fills the result of the validated chunk
+    private void fill(int chunk) {
+      if (latin1) {
+        fillBytes(chunk);
+        return;
+      }
+      int to = to(chunk);
+      int from = from(chunk);
+      int position = offsets[chunk];
+      int lastKey = lastKey(from);
+      for (int i = from; i < to; i++) {
+        char character = message.charAt(i);
+        int key = table.keyOf(character);
+        if (key == lastKey) {
+          output[position++] = PAUSE;
+        }
+        char[] sequence = table.sequenceOf(character);
+        System.arraycopy(sequence, 0, output, position, sequence.length);
+        position += sequence.length;
+        lastKey = key;
+      }
+    }
+
+    // Fills the Latin-1 result of the validated chunk
+    private void fillBytes(int chunk) {
+      int to = to(chunk);
+      int from = from(chunk);
+      int position = offsets[chunk];
+      int lastKey = lastKey(from);
+      for (int i = from; i < to; i++) {
+        char character = message.charAt(i);
+        int key = table.keyOf(character);
+        if (key == lastKey) {
+          bytes[position++] = (byte) PAUSE;
+        }
+        for (char symbol : table.sequenceOf(character)) {
+          bytes[position++] = (byte) symbol;
+        }
+        lastKey = key;
+      }
+    }
+  }
+
+  /** Measures or fills a range of the chunks, it splits the range down to single chunks. */
+  private static final class ChunkTask extends RecursiveAction {
+    private final Encoding encoding;
+    private final int from;
+    private final int to;
+    private final boolean fill;
+
+    private ChunkTask(Encoding encoding, int from, int to, boolean fill) {
+      this.encoding = encoding;
+      this.from = from;
+      this.to = to;
+      this.fill = fill;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new ChunkTask(encoding, from, middle, fill), new ChunkTask(encoding, middle, to, fill));
+      } else if (fill) {
+        encoding.fill(from);
+      } else {
+        encoding.measure(from);
+      }
+    }
+  }
+}
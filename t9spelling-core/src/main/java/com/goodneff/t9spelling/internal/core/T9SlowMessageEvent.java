@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The JFR event of a message that takes longer than the threshold to process.
+ *
+ * <p>The default threshold is 1 ms, it can be changed in the recording settings ({@code .jfc} file)
+ * of the {@code com.goodneff.t9spelling.SlowMessage} event. The event is committed only while a
+ * recording is running.
+ *
+ * @author Alexey Gudnev
+ * @see T9MeteredMessageProcessor
+ */
+@Name("com.goodneff.t9spelling.SlowMessage")
+@Label("Slow Message")
+@Category("T9 Spelling")
+@Description("A message that takes longer than the threshold to process")
+@Threshold("1 ms")
+@StackTrace(false)
+final class T9SlowMessageEvent extends Event {
+  @Label("Message Length")
+  int messageLength;
+
+  @Label("Output Length")
+  int outputLength;
+
+  @Label("Unsupported Character")
+  boolean unsupportedCharacter;
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.text.MessageFormat;
+
+/**
+ * The {@link IMessageProcessor} implementation backed by a {@link T9KeypadTable}.
+ *
+ * <p>It produces exactly the same output as {@link T9MessageProcessor} does for the same set of
+ * character processors, but it resolves every character with a plain array lookup instead of the
+ * factory and the character processor calls.
+ *
+ * <p>The message is processed in two passes. The first one validates the characters and computes
+ * the exact output length, the second one fills the output. Thus no intermediate strings are
+ * created and nothing is written if the message has unsupported characters. Writing into a
+ * caller-owned output does not allocate at all, unless the output has to grow.
+ *
+ * <p>The processor is immutable and can be shared between threads.
+ *
+ * @author Alexey Gudnev
+ * @see T9KeypadTable
+ */
+public final class T9TableMessageProcessor implements IMessageProcessor {
+  private static final char PAUSE = ' ';
+
+  private final T9KeypadTable table;
+
+  /** Instantiates a processor for the default T9 keypad. */
+  public T9TableMessageProcessor() {
+    this(T9KeypadTable.DEFAULT);
+  }
+
+  /**
+   * Instantiates a processor for the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   */
+  public T9TableMessageProcessor(T9KeypadTable table) {
+    if (table == null) {
+      throw new IllegalArgumentException("The keypad table cannot be 'null'");
+    }
+    this.table = table;
+  }
+
+  @Override
+  public String process(String message) {
+    if (message == null) {
+      throw new IllegalArgumentException("The 'message' argument cannot be null");
+    }
+
+    StringBuilder sb = new StringBuilder(measure(message));
+    append(message, sb);
+    return sb.toString();
+  }
+
+  @Override
+  public void process(CharSequence message, StringBuilder output) {
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+
+    output.ensureCapacity(output.length() + measure(message));
+    append(message, output);
+  }
+
+  @Override
+  public void process(CharSequence message, Appendable output) throws IOException {
+    if (output instanceof StringBuilder) {
+      process(message, (StringBuilder) output);
+      return;
+    }
+    if (message == null || output == null) {
+      throw new IllegalArgumentException("The 'message' and 'output' arguments cannot be null");
+    }
+
+    measure(message);
+    int lastKey = T9KeypadTable.NO_KEY;
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      int key = table.keyOf(character);
+      if (key == lastKey) {
+        output.append(PAUSE);
+      }
+      for (char symbol : table.sequenceOf(character)) {
+        output.append(symbol);
+      }
+      lastKey = key;
+    }
+  }
+
+  // Validates the message and returns the exact length of the result
+  private int measure(CharSequence message) {
+    int length = 0;
+    int lastKey = T9KeypadTable.NO_KEY;
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      int key = table.keyOf(character);
+      if (key == T9KeypadTable.NO_KEY) {
+        String msg = MessageFormat.format("The character ''{0}'' is not supported", character);
+        throw new UnsupportedCharacterException(msg);
+      }
+      if (key == lastKey) {
+        length++;
+      }
+      length += table.sequenceOf(character).length;
+      lastKey = key;
+    }
+    return length;
+  }
+
+  // Appends the result of the validated message
+  private void append(CharSequence message, StringBuilder output) {
+    int lastKey = T9KeypadTable.NO_KEY;
+    for (int i = 0; i < message.length(); i++) {
+      char character = message.charAt(i);
+      int key = table.keyOf(character);
+      if (key == lastKey) {
+        output.append(PAUSE);
+      }
+      output.append(table.sequenceOf(character));
+      lastKey = key;
+    }
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import com.goodneff.t9spelling.core.IAsciiMessageEncoder;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link IAsciiMessageEncoder} implementation on top of the incubating Vector API.
+ *
+ * <p>It produces the same output as {@link T9AsciiMessageEncoder}, but it handles a whole vector of
+ * characters at once. The keys of the characters are looked up lane by lane, all the characters of
+ * the vector are validated with a single lane test, and the pauses are detected by comparing the
+ * keys with the keys shifted by one lane. The output is emitted as 8-byte words: every character is
+ * mapped to a precomputed word of its optional pause and its key sequence, the word is stored as a
+ * whole and the position is advanced by the actual length, so there is no per-symbol loop. The
+ * output limit is checked once per vector, so the words of a vector are stored without a branch
+ * unless the output is almost full.
+ *
+ * <p>The scratch arrays of the vectors are kept per thread and only the constant shuffles are used,
+ * so the encoding allocates nothing. A shuffle made of a vector, e.g. a table lookup, is boxed on
+ * every vector unless the loop is compiled with a hot profile.
+ *
+ * <p>Since the words overlap, the bytes after the new output position up to the output limit may be
+ * overwritten.
+ *
+ * <p>The class requires the {@code jdk.incubator.vector} module, e.g. {@code --add-modules
+ * jdk.incubator.vector}. Use {@link T9Engine#getVectorMessageEncoder()}, which falls back to {@link
+ * T9AsciiMessageEncoder} when the module is not available.
+ *
+ * <p>The encoder is immutable and can be shared between threads.
+ *
+ * @author Alexey Gudnev
+ * @see T9AsciiMessageEncoder
+ */
+public final class T9VectorMessageEncoder implements IAsciiMessageEncoder {
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+  private static final int LANES = SPECIES.length();
+  private static final int MIN_LANES = 16;
+  private static final int ASCII_SIZE = 128;
+  private static final int ASCII_MASK = ASCII_SIZE - 1;
+  private static final byte NO_KEY = -1;
+  private static final byte PAUSE = ' ';
+  private static final int PAUSED = ASCII_SIZE;
+  // every lane takes the previous lane, the first one takes the last one
+  private static final VectorShuffle<Byte> PREVIOUS_LANE = VectorShuffle.iota(SPECIES, -1, 1, true);
+  private static final VectorMask<Byte> FIRST_LANE = VectorMask.fromLong(SPECIES, 1);
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  private final byte[] keys = new byte[ASCII_SIZE];
+  private final long[] littleEndianWords = new long[2 * ASCII_SIZE];
+  private final long[] bigEndianWords = new long[2 * ASCII_SIZE];
+  private final byte[][] words = new byte[2 * ASCII_SIZE][];
+  private final byte[] lengths = new byte[2 * ASCII_SIZE];
+  private final int maxSequenceLength;
+  private final int maxVectorLength;
+
+  /** Instantiates an encoder for the default T9 keypad. */
+  public T9VectorMessageEncoder() {
+    this(T9KeypadTable.DEFAULT);
+  }
+
+  /**
+   * Instantiates an encoder for the ASCII part of the specified keypad {@code table}.
+   *
+   * @param table the compiled keypad table, cannot be {@code null}.
+   * @throws IllegalArgumentException if the table is not specified, it has more than 127 keys, an
+   *     ASCII character of the table is mapped to a non-ASCII key sequence or to a key sequence
+   *     longer than 7 symbols.
+   * @throws UnsupportedOperationException if the platform vectors are too short to be efficient.
+   */
+  public T9VectorMessageEncoder(T9KeypadTable table) {
+    if (table == null) {
+      throw new IllegalArgumentException("The keypad table cannot be 'null'");
+    }
+    if (LANES < MIN_LANES) {
+      String msg = MessageFormat.format("The vectors of {0} bytes are too short", LANES);
+      throw new UnsupportedOperationException(msg);
+    }
+
+    Arrays.fill(keys, NO_KEY);
+    int maxLength = 0;
+    for (char character = 0; character < ASCII_SIZE; character++) {
+      char[] sequence = table.sequenceOf(character);
+      if (sequence == null) {
+        continue;
+      }
+      int key = table.keyOf(character);
+      if (key >= Byte.MAX_VALUE) {
+        throw new IllegalArgumentException("The keypad table has too many keys");
+      }
+      if (sequence.length >= Long.BYTES) {
+        String msg =
+            MessageFormat.format("The ''{0}'' character has too long key sequence", character);
+        throw new IllegalArgumentException(msg);
+      }
+      keys[character] = (byte) key;
+      words[character] = word(character, sequence, false);
+      words[character | PAUSED] = word(character, sequence, true);
+      lengths[character] = (byte) words[character].length;
+      lengths[character | PAUSED] = (byte) words[character | PAUSED].length;
+      littleEndianWords[character] = pack(words[character], ByteOrder.LITTLE_ENDIAN);
+      littleEndianWords[character | PAUSED] =
+          pack(words[character | PAUSED], ByteOrder.LITTLE_ENDIAN);
+      bigEndianWords[character] = pack(words[character], ByteOrder.BIG_ENDIAN);
+      bigEndianWords[character | PAUSED] = pack(words[character | PAUSED], ByteOrder.BIG_ENDIAN);
+      maxLength = Math.max(maxLength, sequence.length);
+    }
+    this.maxSequenceLength = maxLength;
+    // the last word of a vector starts after at most LANES - 1 words and takes 8 bytes
+    this.maxVectorLength = (LANES - 1) * (maxLength + 1) + Long.BYTES;
+  }
+
+  @Override
+  public long maxEncodedLength(int messageLength) {
+    // every character but the first one may be preceded by a pause
+    return (long) messageLength * (maxSequenceLength + 1);
+  }
+
+  @Override
+  public int encode(ByteBuffer input, int from, int to, ByteBuffer output) {
+    long[] packed = output.order() == ByteOrder.LITTLE_ENDIAN ? littleEndianWords : bigEndianWords;
+    int start = output.position();
+    int position = start;
+    int lastKey = NO_KEY;
+    int index = from;
+
+    if (to - from >= LANES) {
+      Scratch scratch = SCRATCH.get();
+      byte[] block = scratch.block;
+      byte[] keyBlock = scratch.keys;
+      byte[] codes = scratch.codes;
+      ByteVector previousKeys = ByteVector.broadcast(SPECIES, NO_KEY);
+      for (; index <= to - LANES; index += LANES) {
+        input.get(index, block, 0, LANES);
+        ByteVector characters = ByteVector.fromArray(SPECIES, block, 0);
+        // the keys are looked up lane by lane, a shuffle made of a vector is boxed on every block
+        for (int lane = 0; lane < LANES; lane++) {
+          keyBlock[lane] = keys[block[lane] & ASCII_MASK];
+        }
+        ByteVector keyVector = ByteVector.fromArray(SPECIES, keyBlock, 0);
+
+        VectorMask<Byte> unsupported =
+            keyVector.eq(NO_KEY).or(characters.compare(VectorOperators.LT, (byte) 0));
+        if (unsupported.anyTrue()) {
+          throw unsupported(block[unsupported.firstTrue()]);
+        }
+
+        // the previous key of every lane is the key of the previous lane
+        ByteVector shiftedKeys =
+            keyVector
+                .rearrange(PREVIOUS_LANE)
+                .blend(previousKeys.rearrange(PREVIOUS_LANE), FIRST_LANE);
+        VectorMask<Byte> paused = shiftedKeys.eq(keyVector);
+        characters.lanewise(VectorOperators.OR, (byte) PAUSED, paused).intoArray(codes, 0);
+        if (position + maxVectorLength <= output.limit()) {
+          for (int lane = 0; lane < LANES; lane++) {
+            int code = codes[lane] & 0xFF;
+            output.putLong(position, packed[code]);
+            position += lengths[code];
+          }
+        } else {
+          for (int lane = 0; lane < LANES; lane++) {
+            position = emit(codes[lane] & 0xFF, packed, output, position);
+          }
+        }
+        previousKeys = keyVector;
+      }
+      lastKey = previousKeys.lane(LANES - 1);
+    }
+
+    for (; index < to; index++) {
+      int character = input.get(index) & 0xFF;
+      int key = character < ASCII_SIZE ? keys[character] : NO_KEY;
+      if (key == NO_KEY) {
+        throw unsupported((byte) character);
+      }
+      position = emit(key == lastKey ? character | PAUSED : character, packed, output, position);
+      lastKey = key;
+    }
+
+    output.position(position);
+    return position - start;
+  }
+
+  private int emit(int code, long[] packed, ByteBuffer output, int position) {
+    byte[] word = words[code];
+    if (position + Long.BYTES <= output.limit()) {
+      output.putLong(position, packed[code]);
+    } else if (position + word.length <= output.limit()) {
+      for (int i = 0; i < word.length; i++) {
+        output.put(position + i, word[i]);
+      }
+    } else {
+      throw new BufferOverflowException();
+    }
+    return position + word.length;
+  }
+
+  /** The scratch arrays of a thread. */
+  private static final class Scratch {
+    private final byte[] block = new byte[LANES];
+    private final byte[] keys = new byte[LANES];
+    private final byte[] codes = new byte[LANES];
+  }
+
+  private static byte[] word(char character, char[] sequence, boolean paused) {
+    int offset = paused ? 1 : 0;
+    byte[] word = new byte[sequence.length + offset];
+    if (paused) {
+      word[0] = PAUSE;
+    }
+    for (int i = 0; i < sequence.length; i++) {
+      if (sequence[i] >= ASCII_SIZE) {
+        String msg =
+            MessageFormat.format("The ''{0}'' character has non-ASCII key sequence", character);
+        throw new IllegalArgumentException(msg);
+      }
+      word[offset + i] = (byte) sequence[i];
+    }
+    return word;
+  }
+
+  private static long pack(byte[] word, ByteOrder order) {
+    ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).order(order);
+    buffer.put(word);
+    return buffer.getLong(0);
+  }
+
+  private static UnsupportedCharacterException unsupported(byte character) {
+    String msg =
+        MessageFormat.format("The character ''{0}'' is not supported", (char) (character & 0xFF));
+    return new UnsupportedCharacterException(msg);
+  }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.goodneff.t9spelling.core.IMessageEncoderSession;
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.IPackedMessageWriter;
+import com.goodneff.t9spelling.core.KeypressStatistics;
+import com.goodneff.t9spelling.core.UnsupportedCharacterPolicy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Flow;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * The allocation and throughput budgets of the encoders.
+ *
+ * <p>Every encoder is warmed up and then run over fixed corpora, while the bytes allocated by the
+ * test thread and the elapsed time are measured. The bytes per message must not exceed the budget
+ * of the encoder and the corpus. The budgets are configured in the {@code
+ * allocation-budgets.properties} test resource. The measurements of all the encoders are written to
+ * the {@code target/allocation-budget-report.json} file, unless the {@code t9.budgets.report}
+ * property names another one.
+ *
+ * <p>The allocation budgets are exact enough to catch a single object per character. The build runs
+ * the test in its own JVM, so the profiles of the other tests do not shape the compiled code, and
+ * once more with the escape analysis disabled, so the zero-garbage budgets cannot rely on the
+ * scalar replacement of the JIT compiler.
+ *
+ * <p>The throughput minimums are deliberately loose, they catch an order of magnitude regression
+ * rather than a noisy slowdown. Still, they depend on the machine and fail under a coverage agent
+ * or the interpreter, so they are checked only if the {@code t9.budgets.throughput} property is
+ * {@code true}, e.g. by the {@code throughput-budgets} build profile. The throughput is reported
+ * anyway.
+ *
+ * @author Alexey Gudnev
+ */
+public class T9AllocationBudgetTest {
+  private static final String BUDGETS_RESOURCE = "/allocation-budgets.properties";
+  private static final Path REPORT_FILE =
+      Paths.get("target", System.getProperty("t9.budgets.report", "allocation-budget-report.json"));
+  private static final boolean THROUGHPUT_CHECKED = Boolean.getBoolean("t9.budgets.throughput");
+  private static final long SEED = 42L;
+  private static final int WARMUP_ROUNDS = 50;
+  private static final int MEASUREMENT_ROUNDS = 20;
+  private static final double NANOS_PER_SECOND = 1e9;
+
+  private static final Map<String, List<String>> CORPORA = new LinkedHashMap<>();
+  private static final List<String> REPORT = new ArrayList<>();
+
+  private static com.sun.management.ThreadMXBean threads;
+  private static Properties budgets;
+
+  private final StringBuilder output = new StringBuilder();
+
+  @BeforeClass
+  public static void setUpClass() throws IOException {
+    threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    budgets = new Properties();
+    try (InputStream in = T9AllocationBudgetTest.class.getResourceAsStream(BUDGETS_RESOURCE)) {
+      budgets.load(in);
+    }
+
+    Random random = new Random(SEED);
+    CORPORA.put("short", corpus(random, 1000, 64));
+    CORPORA.put("long", corpus(random, 16, 4096));
+  }
+
+  @AfterClass
+  public static void writeReport() throws IOException {
+    Files.createDirectories(REPORT_FILE.getParent());
+    Files.write(REPORT_FILE, ("[\n" + String.join(",\n", REPORT) + "\n]\n").getBytes(UTF_8));
+  }
+
+  @Test
+  public void testMessageProcessor() {
+    IMessageProcessor processor = new T9MessageProcessor();
+    check("messageProcessor", message -> processor.process(message).length());
+  }
+
+  @Test
+  public void testTableMessageProcessor() {
+    IMessageProcessor processor = new T9TableMessageProcessor();
+    check("tableMessageProcessor", message -> processor.process(message).length());
+  }
+
+  @Test
+  public void testTableMessageProcessorIntoBuilder() {
+    IMessageProcessor processor = new T9TableMessageProcessor();
+    check("tableMessageProcessorIntoBuilder", message -> intoBuilder(processor, message));
+  }
+
+  @Test
+  public void testLenientMessageProcessorIntoBuilder() {
+    IMessageProcessor processor = new T9LenientMessageProcessor(UnsupportedCharacterPolicy.SKIP);
+    check("lenientMessageProcessorIntoBuilder", message -> intoBuilder(processor, message));
+  }
+
+  @Test
+  public void testCachingMessageProcessorIntoBuilder() {
+    IMessageProcessor processor = new T9CachingMessageProcessor(10_000);
+    check("cachingMessageProcessorIntoBuilder", message -> intoBuilder(processor, message));
+  }
+
+  @Test
+  public void testAsciiMessageEncoder() {
+    T9AsciiMessageEncoder encoder = new T9AsciiMessageEncoder();
+    ByteBuffer input = ByteBuffer.allocate(4096);
+    ByteBuffer result = ByteBuffer.allocate((int) encoder.maxEncodedLength(input.capacity()));
+    check(
+        "asciiMessageEncoder",
+        message -> {
+          input.clear();
+          for (int i = 0; i < message.length(); i++) {
+            input.put((byte) message.charAt(i));
+          }
+          result.clear();
+          return encoder.encode(input, 0, message.length(), result);
+        });
+  }
+
+  @Test
+  public void testMessageDecoderIntoBuilder() {
+    T9MessageDecoder decoder = new T9MessageDecoder();
+    T9TableMessageProcessor processor = new T9TableMessageProcessor();
+    Map<String, String> encoded = new LinkedHashMap<>();
+    for (List<String> corpus : CORPORA.values()) {
+      for (String message : corpus) {
+        encoded.put(message, processor.process(message));
+      }
+    }
+    check(
+        "messageDecoderIntoBuilder",
+        message -> {
+          output.setLength(0);
+          decoder.decode(encoded.get(message), output);
+          return output.length();
+        });
+  }
+
+  @Test
+  public void testVectorMessageEncoder() {
+    T9VectorMessageEncoder encoder;
+    try {
+      encoder = new T9VectorMessageEncoder();
+    } catch (UnsupportedOperationException ex) {
+      assumeTrue(ex.getMessage(), false);
+      return;
+    }
+    ByteBuffer input = ByteBuffer.allocate(4096);
+    ByteBuffer result = ByteBuffer.allocate((int) encoder.maxEncodedLength(input.capacity()));
+    check(
+        "vectorMessageEncoder",
+        message -> {
+          input.clear();
+          for (int i = 0; i < message.length(); i++) {
+            input.put((byte) message.charAt(i));
+          }
+          result.clear();
+          return encoder.encode(input, 0, message.length(), result);
+        });
+  }
+
+  @Test
+  public void testBatchMessageProcessor() {
+    T9BatchMessageProcessor processor = new T9BatchMessageProcessor();
+    checkBatch("batchMessageProcessor", messages -> processor.process(messages).size());
+  }
+
+  @Test
+  public void testParallelMessageProcessorIntoBuilder() {
+    // the messages are shorter than a chunk, so they are encoded on the measured thread
+    IMessageProcessor processor = new T9ParallelMessageProcessor();
+    check("parallelMessageProcessorIntoBuilder", message -> intoBuilder(processor, message));
+  }
+
+  @Test
+  public void testFlowMessageProcessor() {
+    T9FlowMessageProcessor processor =
+        new T9FlowMessageProcessor(
+            new T9TableMessageProcessor(), T9FlowMessageProcessor.DEFAULT_BUFFER_SIZE);
+    long[] sink = new long[1];
+    processor.subscribe(
+        new Flow.Subscriber<String>() {
+          @Override
+          public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+          }
+
+          @Override
+          public void onNext(String item) {
+            sink[0] += item.length();
+          }
+
+          @Override
+          public void onError(Throwable throwable) {
+            throw new IllegalStateException(throwable);
+          }
+
+          @Override
+          public void onComplete() {
+            // the stream is never completed
+          }
+        });
+    processor.onSubscribe(
+        new Flow.Subscription() {
+          @Override
+          public void request(long n) {
+            // the messages are pushed by the workload
+          }
+
+          @Override
+          public void cancel() {
+            throw new IllegalStateException("The upstream is cancelled");
+          }
+        });
+    check(
+        "flowMessageProcessor",
+        message -> {
+          processor.onNext(message);
+          return sink[0];
+        });
+  }
+
+  @Test
+  public void testPackedMessageWriter() throws IOException {
+    try (IPackedMessageWriter writer = new T9PackedMessageWriter(OutputStream.nullOutputStream())) {
+      check(
+          "packedMessageWriter",
+          message -> {
+            try {
+              writer.write(message);
+            } catch (IOException ex) {
+              throw new IllegalStateException(ex);
+            }
+            return message.length();
+          });
+    }
+  }
+
+  @Test
+  public void testKeypressAnalyzer() {
+    T9KeypressAnalyzer analyzer = new T9KeypressAnalyzer();
+    KeypressStatistics statistics = new KeypressStatistics();
+    check(
+        "keypressAnalyzer",
+        message -> {
+          analyzer.analyze(message, statistics);
+          return statistics.getPressCount();
+        });
+  }
+
+  @Test
+  public void testEncoderSession() {
+    IMessageEncoderSession session =
+        new T9MessageEncoderSession(T9KeypadTable.DEFAULT, Writer.nullWriter());
+    check(
+        "encoderSession",
+        message -> {
+          try {
+            session.append(message);
+          } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+          }
+          session.endMessage();
+          return message.length();
+        });
+  }
+
+  private long intoBuilder(IMessageProcessor processor, String message) {
+    output.setLength(0);
+    processor.process(message, output);
+    return output.length();
+  }
+
+  private static void check(String engine, Workload workload) {
+    checkBatch(
+        engine,
+        messages -> {
+          long sink = 0;
+          for (int i = 0; i < messages.size(); i++) {
+            sink += workload.run(messages.get(i));
+          }
+          return sink;
+        });
+  }
+
+  private static void checkBatch(String engine, BatchWorkload workload) {
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    List<String> failures = new ArrayList<>();
+    for (Map.Entry<String, List<String>> corpus : CORPORA.entrySet()) {
+      List<String> messages = corpus.getValue();
+      long characters = 0;
+      for (String message : messages) {
+        characters += message.length();
+      }
+
+      long sink = 0;
+      for (int round = 0; round < WARMUP_ROUNDS; round++) {
+        sink += workload.run(messages);
+      }
+      long threadId = Thread.currentThread().getId();
+      // the measurement of the allocated bytes allocates itself, it is measured and subtracted
+      long overhead = -threads.getThreadAllocatedBytes(threadId);
+      overhead += threads.getThreadAllocatedBytes(threadId);
+      long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+      long startNanos = System.nanoTime();
+      for (int round = 0; round < MEASUREMENT_ROUNDS; round++) {
+        sink += workload.run(messages);
+      }
+      long nanos = System.nanoTime() - startNanos;
+      long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore - overhead;
+
+      double bytesPerMessage =
+          Math.max(0, allocated) / (double) (MEASUREMENT_ROUNDS * messages.size());
+      double charactersPerSecond = MEASUREMENT_ROUNDS * characters * NANOS_PER_SECOND / nanos;
+      double bytesBudget = budget(engine + "." + corpus.getKey() + ".bytesPerMessage");
+      double throughputMinimum = budget(engine + ".minCharactersPerSecond");
+      boolean passed =
+          bytesPerMessage <= bytesBudget
+              && (!THROUGHPUT_CHECKED || charactersPerSecond >= throughputMinimum);
+      if (!passed) {
+        failures.add(
+            String.format(
+                Locale.ROOT,
+                "%s on the %s corpus: %.1f bytes per message (budget %.1f), "
+                    + "%.0f characters per second (minimum %.0f)",
+                engine,
+                corpus.getKey(),
+                bytesPerMessage,
+                bytesBudget,
+                charactersPerSecond,
+                throughputMinimum));
+      }
+      REPORT.add(
+          String.format(
+              Locale.ROOT,
+              "  {\"engine\": \"%s\", \"corpus\": \"%s\", \"messages\": %d, "
+                  + "\"bytesPerMessage\": %.1f, \"bytesPerMessageBudget\": %.1f, "
+                  + "\"charactersPerSecond\": %.0f, \"minCharactersPerSecond\": %.0f, "
+                  + "\"throughputChecked\": %b, \"passed\": %b, \"checksum\": %d}",
+              engine,
+              corpus.getKey(),
+              messages.size(),
+              bytesPerMessage,
+              bytesBudget,
+              charactersPerSecond,
+              throughputMinimum,
+              THROUGHPUT_CHECKED,
+              passed,
+              sink));
+    }
+    assertTrue(String.join("; ", failures), failures.isEmpty());
+  }
+
+  private static double budget(String key) {
+    String value = budgets.getProperty(key);
+    if (value == null) {
+      throw new IllegalStateException("The budget is not configured: " + key);
+    }
+    return Double.parseDouble(value);
+  }
+
+  private static List<String> corpus(Random random, int size, int maxLength) {
+    return TestMessages.randomList(random, size, maxLength + 1);
+  }
+
+  /** A unit of work over a single message, it returns anything derived from the result. */
+  private interface Workload {
+    long run(String message);
+  }
+
+  /** A unit of work over a whole corpus, it returns anything derived from the result. */
+  private interface BatchWorkload {
+    long run(List<String> messages);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9AsciiMessageEncoder}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9AsciiMessageEncoderTest {
+  private T9AsciiMessageEncoder encoder;
+
+  @Before
+  public void setUp() {
+    encoder = new T9AsciiMessageEncoder();
+  }
+
+  @Test
+  public void testEncodeRegularWorkflow() {
+    assertEquals("4433555 555666096667775553", encode("hello world"));
+    assertEquals("2 22 222", encode("abc"));
+    assertEquals("", encode(""));
+  }
+
+  @Test
+  public void testEncodeRange() {
+    ByteBuffer input = ByteBuffer.wrap("xxhixx".getBytes(US_ASCII));
+    ByteBuffer output = ByteBuffer.allocateDirect(16);
+    output.put((byte) '>');
+
+    int written = encoder.encode(input, 2, 4, output);
+
+    assertEquals(6, written);
+    assertEquals(0, input.position());
+    output.flip();
+    assertEquals(">44 444", US_ASCII.decode(output).toString());
+  }
+
+  @Test
+  public void testEncodeSameAsMessageProcessor() {
+    T9TableMessageProcessor reference = new T9TableMessageProcessor();
+    Random random = new Random(42);
+    for (int attempt = 0; attempt < 1000; attempt++) {
+      String input = TestMessages.random(random, random.nextInt(64));
+      assertEquals(reference.process(input), encode(input));
+    }
+  }
+
+  @Test
+  public void testEncodeUnsupported() {
+    for (String message : Arrays.asList("A", "hello!", "café")) {
+      ByteBuffer output = ByteBuffer.allocate(64);
+      try {
+        ByteBuffer input = ByteBuffer.wrap(message.getBytes(ISO_8859_1));
+        encoder.encode(input, 0, input.limit(), output);
+        fail();
+      } catch (UnsupportedCharacterException ex) {
+        // ok
+      }
+      assertEquals(0, output.position());
+    }
+  }
+
+  @Test
+  public void testEncodeOverflow() {
+    ByteBuffer input = ByteBuffer.wrap("hello".getBytes(US_ASCII));
+    ByteBuffer output = ByteBuffer.allocate(4);
+    try {
+      encoder.encode(input, 0, input.limit(), output);
+      fail();
+    } catch (BufferOverflowException ex) {
+      // ok
+    }
+    assertEquals(0, output.position());
+  }
+
+  private String encode(String message) {
+    ByteBuffer input = ByteBuffer.wrap(message.getBytes(US_ASCII));
+    ByteBuffer output = ByteBuffer.allocate((int) encoder.maxEncodedLength(message.length()));
+    encoder.encode(input, 0, input.limit(), output);
+    output.flip();
+    return US_ASCII.decode(output).toString();
+  }
+
+  // and so on ...
+}
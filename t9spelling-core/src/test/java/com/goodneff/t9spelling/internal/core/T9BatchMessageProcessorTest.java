@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+
+import com.goodneff.t9spelling.core.EncodedBatch;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9BatchMessageProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9BatchMessageProcessorTest {
+
+  @Test
+  public void testSameAsTableProcessor() {
+    T9TableMessageProcessor reference = new T9TableMessageProcessor();
+    Random random = new Random(42);
+    List<String> messages = TestMessages.randomList(random, 1000, 32);
+
+    EncodedBatch batch = new T9BatchMessageProcessor().process(messages);
+
+    assertEquals(messages.size(), batch.size());
+    for (int i = 0; i < messages.size(); i++) {
+      assertEquals(reference.process(messages.get(i)), batch.getMessage(i));
+    }
+    assertEquals(batch.getEnd(messages.size() - 1), batch.getChars().length);
+  }
+
+  @Test
+  public void testWriteCases() throws IOException {
+    EncodedBatch batch =
+        T9Engine.DEFAULT.getBatchMessageProcessor().process(Arrays.asList("hi", "", "yes"));
+    StringWriter writer = new StringWriter();
+
+    batch.writeCases(writer, 9);
+
+    String separator = System.lineSeparator();
+    assertEquals(
+        "Case #9: 44 444"
+            + separator
+            + "Case #10: "
+            + separator
+            + "Case #11: 999337777"
+            + separator,
+        writer.toString());
+  }
+
+  @Test
+  public void testEmptyBatch() {
+    EncodedBatch batch = new T9BatchMessageProcessor().process(Collections.emptyList());
+
+    assertEquals(0, batch.size());
+    assertEquals(0, batch.getChars().length);
+  }
+
+  @Test(expected = UnsupportedCharacterException.class)
+  public void testUnsupportedCharacterRejectsBatch() {
+    new T9BatchMessageProcessor().process(Arrays.asList("hi", "Hi"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMessage() {
+    new T9BatchMessageProcessor().process(Arrays.asList("hi", null));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIndexOutOfRange() {
+    new T9BatchMessageProcessor().process(Arrays.asList("hi")).getMessage(1);
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9CachingMessageProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9CachingMessageProcessorTest {
+  private static final String[] WORDS = {"hello", "world", "a", "abc", "zzz", "", "  "};
+
+  private T9CachingMessageProcessor messageProcessor;
+
+  @Before
+  public void setUp() {
+    messageProcessor = new T9CachingMessageProcessor(1000);
+  }
+
+  @Test
+  public void testProcessRegularWorkflow() {
+    assertEquals("4433555 555666096667775553", messageProcessor.process("hello world"));
+    assertEquals("0 0202 22 2220 0", messageProcessor.process("  a abc  "));
+    assertEquals("", messageProcessor.process(""));
+  }
+
+  @Test
+  public void testProcessSameAsMessageProcessor() {
+    T9MessageProcessor reference = new T9MessageProcessor();
+    Random random = new Random(42);
+    for (int attempt = 0; attempt < 1000; attempt++) {
+      StringBuilder message = new StringBuilder();
+      for (int word = random.nextInt(8); word > 0; word--) {
+        message.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+      }
+      String input = message.toString();
+      assertEquals(reference.process(input), messageProcessor.process(input));
+    }
+  }
+
+  @Test
+  public void testStatistics() {
+    messageProcessor.process("hello hello world");
+
+    T9CachingMessageProcessor.Statistics statistics = messageProcessor.getStatistics();
+    assertEquals(2, statistics.getHitCount());
+    assertEquals(3, statistics.getMissCount());
+    assertEquals(0, statistics.getEvictionCount());
+    assertEquals(3, statistics.getSize());
+  }
+
+  @Test
+  public void testMutableMessage() {
+    StringBuilder message = new StringBuilder("hello world");
+    StringBuilder output = new StringBuilder();
+    messageProcessor.process(message, output);
+    // the cached parts do not depend on the message they have been looked up in
+    message.setLength(0);
+    message.append("world hello");
+    messageProcessor.process(message, output);
+
+    assertEquals("4433555 555666096667775553" + "9666777555304433555 555666", output.toString());
+    assertEquals(3, messageProcessor.getStatistics().getHitCount());
+  }
+
+  @Test
+  public void testPartsOfSameHash() {
+    // "Aa" and "BB" have the same hash code
+    messageProcessor =
+        new T9CachingMessageProcessor(
+            message -> new StringBuilder(message).reverse().toString(), 1000);
+
+    assertEquals("aA BB", messageProcessor.process("Aa BB"));
+    assertEquals("BB aA", messageProcessor.process("BB Aa"));
+    assertEquals(3, messageProcessor.getStatistics().getSize());
+  }
+
+  @Test
+  public void testEviction() {
+    StringBuilder message = new StringBuilder();
+    for (char first = 'a'; first <= 'z'; first++) {
+      for (char second = 'a'; second <= 'z'; second++) {
+        message.append(first).append(second).append(' ');
+      }
+    }
+    for (int maximumSize : new int[] {1, 2, 3, 15, 17, 100}) {
+      messageProcessor = new T9CachingMessageProcessor(maximumSize);
+      messageProcessor.process(message.toString());
+
+      T9CachingMessageProcessor.Statistics statistics = messageProcessor.getStatistics();
+      assertTrue(statistics.getEvictionCount() > 0);
+      assertTrue(statistics.getSize() <= maximumSize);
+    }
+  }
+
+  @Test
+  public void testProcessToAppendable() throws IOException {
+    StringWriter output = new StringWriter();
+    messageProcessor.process("hello  world", output);
+    messageProcessor.process("hello", output);
+
+    T9MessageProcessor reference = new T9MessageProcessor();
+    assertEquals(reference.process("hello  world") + reference.process("hello"), output.toString());
+    assertEquals(1, messageProcessor.getStatistics().getHitCount());
+  }
+
+  @Test
+  public void testProcessUnsupported() {
+    StringBuilder output = new StringBuilder("x");
+    try {
+      messageProcessor.process("hello World", output);
+      fail();
+    } catch (UnsupportedCharacterException ex) {
+      // ok
+    }
+    assertEquals("x", output.toString());
+  }
+
+  // and so on ...
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * A set of test cases for {@link T9DictionaryIndex} and {@link T9DictionaryCompiler}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9DictionaryIndexTest {
+  private static final String DICTIONARY =
+      "hell 50\n"
+          + "gell 3\n"
+          + "hello 100\n"
+          + "\n"
+          + "good 70\n"
+          + "home 90\n"
+          + "gone 90\n"
+          + "hood 5\n"
+          + "Hello 1000\n"
+          + "it's 1000\n"
+          + "a\n"
+          + "c\n"
+          + "gell 10\n";
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private T9DictionaryIndex index;
+
+  @Before
+  public void setUp() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int words = new T9DictionaryCompiler().compile(reader(DICTIONARY), out);
+    assertEquals(9, words);
+    index = new T9DictionaryIndex(ByteBuffer.wrap(out.toByteArray()));
+  }
+
+  @Test
+  public void testLookupRegularWorkflow() {
+    assertEquals(Arrays.asList("hell", "gell"), index.lookup("4355", 10));
+    assertEquals(Collections.singletonList("hello"), index.lookup("43556", 10));
+    assertEquals(Arrays.asList("gone", "home", "good", "hood"), index.lookup("4663", 10));
+    assertEquals(Arrays.asList("a", "c"), index.lookup("2", 10));
+  }
+
+  @Test
+  public void testLookupLimit() {
+    assertEquals(Arrays.asList("gone", "home"), index.lookup("4663", 2));
+    assertEquals(Collections.emptyList(), index.lookup("4663", 0));
+  }
+
+  @Test
+  public void testLookupMissing() {
+    assertEquals(Collections.emptyList(), index.lookup("", 10));
+    assertEquals(Collections.emptyList(), index.lookup("1", 10));
+    assertEquals(Collections.emptyList(), index.lookup("435", 10));
+    assertEquals(Collections.emptyList(), index.lookup("9999999", 10));
+  }
+
+  @Test
+  public void testOpenFile() throws IOException {
+    Path file = folder.newFile("words.idx").toPath();
+    new T9DictionaryCompiler().compile(reader(DICTIONARY), file);
+
+    T9DictionaryIndex fileIndex = T9DictionaryIndex.open(file);
+    assertEquals(Arrays.asList("hell", "gell"), fileIndex.lookup("4355", 10));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompileWrongFormat() throws IOException {
+    new T9DictionaryCompiler().compile(reader("hello world 1\n"), new ByteArrayOutputStream());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongIndex() {
+    new T9DictionaryIndex(ByteBuffer.wrap(new byte[32]));
+  }
+
+  private static BufferedReader reader(String content) {
+    return new BufferedReader(new StringReader(content));
+  }
+
+  // and so on ...
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.ICharacterProcessor;
+import com.goodneff.t9spelling.core.IMessageDecoder;
+import com.goodneff.t9spelling.core.IMessageProcessor;
+import com.goodneff.t9spelling.core.IPackedMessageWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9Engine}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9EngineTest {
+  private static final int THREADS = 8;
+
+  @Test
+  public void testDefaultEngine() {
+    T9Engine engine = T9Engine.DEFAULT;
+
+    assertEquals(T9KeypadTable.DEFAULT, engine.getTable());
+    assertEquals("4433555 555666096667775553", engine.getMessageProcessor().process("hello world"));
+    assertEquals("hello world", engine.getMessageDecoder().decode("4433555 555666096667775553"));
+  }
+
+  @Test
+  public void testNotDecodableKeypad() throws IOException {
+    // a key sequence of different symbols can be encoded, but not decoded
+    ICharacterProcessor processor =
+        new ICharacterProcessor() {
+          @Override
+          public Collection<Character> getSupportedCharacters() {
+            return Collections.singleton('a');
+          }
+
+          @Override
+          public String process(char character) {
+            return "12";
+          }
+        };
+    T9Engine engine = new T9Engine(T9KeypadTable.compile(Collections.singleton(processor)));
+
+    assertEquals("12 12", engine.getMessageProcessor().process("aa"));
+    try (IPackedMessageWriter writer = engine.openPackedWriter(new ByteArrayOutputStream())) {
+      writer.write("aa");
+    }
+    try {
+      engine.getMessageDecoder();
+      fail("IllegalArgumentException is expected");
+    } catch (IllegalArgumentException ex) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSharedBetweenThreads() throws Exception {
+    IMessageProcessor processor = T9Engine.DEFAULT.getMessageProcessor();
+    IMessageDecoder decoder = T9Engine.DEFAULT.getMessageDecoder();
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int thread = 0; thread < THREADS; thread++) {
+        Random random = new Random(thread);
+        Callable<Integer> task =
+            () -> {
+              T9MessageProcessor reference = new T9MessageProcessor();
+              StringBuilder output = new StringBuilder();
+              for (int attempt = 0; attempt < 10_000; attempt++) {
+                String message = TestMessages.random(random, random.nextInt(32));
+                String encoded = reference.process(message);
+                assertEquals(encoded, processor.process(message));
+                output.setLength(0);
+                processor.process(message, output);
+                assertEquals(encoded, output.toString());
+                assertEquals(message, decoder.decode(encoded));
+              }
+              return 0;
+            };
+        results.add(executor.submit(task));
+      }
+      for (Future<Integer> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // and so on ...
+}
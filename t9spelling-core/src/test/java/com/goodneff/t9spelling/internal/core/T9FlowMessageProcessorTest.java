@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9FlowMessageProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9FlowMessageProcessorTest {
+  private static final long TIMEOUT_SECONDS = 10;
+
+  @Test
+  public void testEncodeOnDeliveringThread() throws InterruptedException {
+    T9FlowMessageProcessor processor = new T9FlowMessageProcessor(new T9TableMessageProcessor(), 4);
+    ListPublisher publisher = new ListPublisher(List.of("hello world", "hi", "yes"));
+    CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+
+    assertTrue(subscriber.await());
+    assertEquals(List.of("4433555 555666096667775553", "44 444", "999337777"), subscriber.items);
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  public void testSlowSubscriberThrottlesPublisher() throws InterruptedException {
+    int bufferSize = 8;
+    T9FlowMessageProcessor processor =
+        new T9FlowMessageProcessor(new T9TableMessageProcessor(), bufferSize);
+    ListPublisher publisher = new ListPublisher(Collections.nCopies(1000, "abc"));
+    CollectingSubscriber subscriber = new CollectingSubscriber(1);
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+
+    assertEquals(1, subscriber.items.size());
+    assertTrue(publisher.requested <= bufferSize + 1);
+
+    subscriber.subscription.request(10);
+    assertEquals(11, subscriber.items.size());
+    assertTrue(publisher.requested <= bufferSize + 11);
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertTrue(subscriber.await());
+    assertEquals(1000, subscriber.items.size());
+  }
+
+  @Test
+  public void testParallelOrdered() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      T9FlowMessageProcessor processor =
+          new T9FlowMessageProcessor(new T9TableMessageProcessor(), 16, executor, true);
+      List<String> messages = messages(5000);
+      ListPublisher publisher = new ListPublisher(messages);
+      CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+      publisher.subscribe(processor);
+      processor.subscribe(subscriber);
+
+      assertTrue(subscriber.await());
+      assertEquals(encode(messages), subscriber.items);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testParallelUnordered() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      T9FlowMessageProcessor processor =
+          new T9FlowMessageProcessor(new T9TableMessageProcessor(), 16, executor, false);
+      List<String> messages = messages(5000);
+      ListPublisher publisher = new ListPublisher(messages);
+      CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+      publisher.subscribe(processor);
+      processor.subscribe(subscriber);
+
+      assertTrue(subscriber.await());
+      assertEquals(messages.size(), subscriber.items.size());
+      assertEquals(new HashSet<>(encode(messages)), new HashSet<>(subscriber.items));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testUnsupportedCharacterCancelsPublisher() throws InterruptedException {
+    T9FlowMessageProcessor processor = new T9FlowMessageProcessor(new T9TableMessageProcessor(), 4);
+    ListPublisher publisher = new ListPublisher(List.of("hi", "Hi", "yes"));
+    CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+
+    assertTrue(subscriber.await());
+    assertEquals(List.of("44 444"), subscriber.items);
+    assertTrue(subscriber.error instanceof UnsupportedCharacterException);
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test
+  public void testSecondSubscriberRejected() throws InterruptedException {
+    T9FlowMessageProcessor processor = new T9FlowMessageProcessor(new T9TableMessageProcessor(), 4);
+    processor.subscribe(new CollectingSubscriber(1));
+    CollectingSubscriber second = new CollectingSubscriber(1);
+
+    processor.subscribe(second);
+
+    assertTrue(second.await());
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+
+  @Test
+  public void testNonPositiveRequest() throws InterruptedException {
+    T9FlowMessageProcessor processor = new T9FlowMessageProcessor(new T9TableMessageProcessor(), 4);
+    ListPublisher publisher = new ListPublisher(List.of("hi"));
+    CollectingSubscriber subscriber = new CollectingSubscriber(0);
+
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(0);
+
+    assertTrue(subscriber.await());
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveBufferSize() {
+    new T9FlowMessageProcessor(new T9TableMessageProcessor(), 0);
+  }
+
+  private static List<String> messages(int count) {
+    List<String> messages = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      StringBuilder sb = new StringBuilder("message ");
+      for (int number = i; number > 0; number /= 26) {
+        sb.append((char) ('a' + number % 26));
+      }
+      messages.add(sb.toString());
+    }
+    return messages;
+  }
+
+  private static List<String> encode(List<String> messages) {
+    T9TableMessageProcessor processor = new T9TableMessageProcessor();
+    List<String> encoded = new ArrayList<>(messages.size());
+    for (String message : messages) {
+      encoded.add(processor.process(message));
+    }
+    return encoded;
+  }
+
+  /** Emits the items of a list synchronously on demand and records the demand. */
+  private static final class ListPublisher implements Flow.Publisher<String> {
+    private final List<String> items;
+    private long requested;
+    private volatile boolean cancelled;
+
+    private ListPublisher(List<String> items) {
+      this.items = items;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+      subscriber.onSubscribe(
+          new Flow.Subscription() {
+            private int index;
+            private long demand;
+            private boolean emitting;
+
+            @Override
+            public void request(long n) {
+              requested += n;
+              demand += n;
+              if (emitting) {
+                return;
+              }
+              emitting = true;
+              while (demand > 0 && index < items.size() && !cancelled) {
+                demand--;
+                subscriber.onNext(items.get(index++));
+              }
+              if (index == items.size() && !cancelled) {
+                cancelled = true;
+                subscriber.onComplete();
+              }
+              emitting = false;
+            }
+
+            @Override
+            public void cancel() {
+              cancelled = true;
+            }
+          });
+    }
+  }
+
+  /** Collects the items and requests the specified number of them on subscription. */
+  private static final class CollectingSubscriber implements Flow.Subscriber<String> {
+    private final List<String> items = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final long initialRequest;
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+
+    private CollectingSubscriber(long initialRequest) {
+      this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (initialRequest > 0) {
+        subscription.request(initialRequest);
+      }
+    }
+
+    @Override
+    public void onNext(String item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      terminated.countDown();
+    }
+
+    private boolean await() throws InterruptedException {
+      return terminated.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+  }
+}
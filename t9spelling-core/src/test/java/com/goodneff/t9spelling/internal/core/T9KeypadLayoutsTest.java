@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9KeypadLayouts} and the table representations of {@link
+ * T9KeypadTable}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9KeypadLayoutsTest {
+  @Test
+  public void testDefaultLayoutSameAsDefaultTable() {
+    T9KeypadTable table = T9KeypadLayouts.get(T9KeypadLayouts.DEFAULT_LAYOUT);
+    T9TableMessageProcessor expected = new T9TableMessageProcessor();
+    T9TableMessageProcessor actual = new T9TableMessageProcessor(table);
+
+    String message = "the quick brown fox jumps over the lazy dog";
+    assertEquals(expected.process(message), actual.process(message));
+    assertSame(table, T9KeypadLayouts.get(T9KeypadLayouts.DEFAULT_LAYOUT));
+  }
+
+  @Test
+  public void testBuiltInLayouts() {
+    T9Engine cyrillic = new T9Engine(T9KeypadLayouts.get("cyrillic"));
+    assertEquals("6 666602 22", cyrillic.getMessageProcessor().process("ру аб"));
+    assertEquals("ру аб", cyrillic.getMessageDecoder().decode("6 666602 22"));
+
+    T9Engine greek = new T9Engine(T9KeypadLayouts.get("greek"));
+    assertEquals("2 22 222", greek.getMessageProcessor().process("αβγ"));
+
+    T9Engine extended = new T9Engine(T9KeypadLayouts.get("latin-extended"));
+    assertEquals("8888888", extended.getMessageProcessor().process("ü"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownLayout() {
+    T9KeypadLayouts.get("klingon");
+  }
+
+  @Test
+  public void testLoadDefinition() throws IOException {
+    T9KeypadTable table = T9KeypadLayouts.load(new StringReader("# comment\n3=xy\n1=z\n0=\\ \n"));
+    T9TableMessageProcessor processor = new T9TableMessageProcessor(table);
+
+    assertEquals("33 30 01", processor.process("yx  z"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadNotDigit() throws IOException {
+    T9KeypadLayouts.load(new StringReader("a=bc\n"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadEmptyKey() throws IOException {
+    T9KeypadLayouts.load(new StringReader("2=\n"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLoadDuplicatedCharacter() throws IOException {
+    T9KeypadLayouts.load(new StringReader("2=abc\n3=cde\n"));
+  }
+
+  @Test
+  public void testSparseTable() {
+    T9KeypadTable table =
+        T9KeypadTable.compile(
+            Arrays.asList(
+                new T9CharacterProcessor((byte) 2, 'a', 'b'),
+                new T9CharacterProcessor((byte) 3, '中', '￮')));
+
+    assertEquals(0xFFEF, table.getCharacterLimit());
+    assertEquals(0, table.keyOf('b'));
+    assertEquals(1, table.keyOf('￮'));
+    assertEquals(T9KeypadTable.NO_KEY, table.keyOf('c'));
+    assertEquals(T9KeypadTable.NO_KEY, table.keyOf('丮'));
+    assertEquals("33", String.valueOf(table.sequenceOf('￮')));
+    assertNull(table.sequenceOf('Ā'));
+
+    T9Engine engine = new T9Engine(table);
+    assertEquals("2 223 33", engine.getMessageProcessor().process("ab中￮"));
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9KeypadTable}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9KeypadTableTest {
+
+  @Test
+  public void testDefaultTableMatchesCompiledProcessors() {
+    T9KeypadTable expected =
+        T9KeypadTable.compile(new T9CharacterProcessorFactory().getProcessors());
+    T9KeypadTable actual = T9KeypadTable.DEFAULT;
+
+    assertEquals(expected.getCharacterLimit(), actual.getCharacterLimit());
+    for (int code = Character.MIN_VALUE; code <= Character.MAX_VALUE; code++) {
+      char character = (char) code;
+      assertEquals(expected.keyOf(character), actual.keyOf(character));
+      assertArrayEquals(expected.sequenceOf(character), actual.sequenceOf(character));
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.KeypressStatistics;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9KeypressAnalyzer}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9KeypressAnalyzerTest {
+
+  @Test
+  public void testHelloWorld() {
+    KeypressStatistics statistics = new KeypressStatistics();
+    new T9KeypressAnalyzer().analyze("hello world", statistics);
+
+    // 4433555 555666096667775553
+    assertEquals(1, statistics.getMessageCount());
+    assertEquals(11, statistics.getCharacterCount());
+    assertEquals(25, statistics.getPressCount());
+    assertEquals(1, statistics.getPauseCount());
+    assertEquals(26, statistics.getEncodedLength());
+    assertEquals(1, statistics.getDigitPressCount(0));
+    assertEquals(0, statistics.getDigitPressCount(2));
+    assertEquals(3, statistics.getDigitPressCount(3));
+    assertEquals(2, statistics.getDigitPressCount(4));
+    assertEquals(9, statistics.getDigitPressCount(5));
+    assertEquals(6, statistics.getDigitPressCount(6));
+    assertEquals(3, statistics.getDigitPressCount(7));
+    assertEquals(1, statistics.getDigitPressCount(9));
+  }
+
+  @Test
+  public void testSameAsEncodedMessages() {
+    T9TableMessageProcessor processor = new T9TableMessageProcessor();
+    List<String> messages = TestMessages.randomList(new Random(42), 1000, 64);
+    KeypressStatistics expected = new KeypressStatistics();
+    for (String message : messages) {
+      String encoded = processor.process(message);
+      for (int i = 0; i < encoded.length(); i++) {
+        if (encoded.charAt(i) == ' ') {
+          expected.addPauses(1);
+        } else {
+          expected.addPresses(encoded.charAt(i), 1);
+        }
+      }
+      expected.addMessages(1, message.length());
+    }
+
+    assertEquals(expected.toString(), new T9KeypressAnalyzer().analyze(messages).toString());
+  }
+
+  @Test
+  public void testParallelSameAsSequential() {
+    T9KeypressAnalyzer analyzer = new T9KeypressAnalyzer();
+    List<String> messages = TestMessages.randomList(new Random(42), 20_000, 64);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertEquals(
+          analyzer.analyze(messages).toString(), analyzer.analyze(messages, pool).toString());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testUnsupportedCharacterLeavesStatisticsUnchanged() {
+    T9KeypressAnalyzer analyzer = new T9KeypressAnalyzer();
+    KeypressStatistics statistics = new KeypressStatistics();
+    analyzer.analyze("abc", statistics);
+    String before = statistics.toString();
+
+    try {
+      analyzer.analyze("hello World", statistics);
+      fail("The unsupported character is not reported");
+    } catch (UnsupportedCharacterException ex) {
+      assertEquals(before, statistics.toString());
+    }
+  }
+
+  @Test
+  public void testEstimateTypingTime() {
+    KeypressStatistics statistics = new KeypressStatistics();
+    new T9KeypressAnalyzer().analyze("hello world", statistics);
+
+    assertEquals(
+        Duration.ofMillis(25 * 200 + 500),
+        statistics.estimateTypingTime(Duration.ofMillis(200), Duration.ofMillis(500)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMessage() {
+    new T9KeypressAnalyzer().analyze(null, new KeypressStatistics());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativePresses() {
+    new KeypressStatistics().addPresses('2', -1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDigitOutOfRange() {
+    new KeypressStatistics().getDigitPressCount(10);
+  }
+}
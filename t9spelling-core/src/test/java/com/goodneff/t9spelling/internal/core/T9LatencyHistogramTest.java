@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9LatencyHistogram}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9LatencyHistogramTest {
+  private T9LatencyHistogram histogram;
+
+  @Before
+  public void setUp() {
+    histogram = new T9LatencyHistogram();
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getMean(), 0);
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+  @Test
+  public void testSmallValuesAreExact() {
+    for (int value = 1; value <= 10; value++) {
+      histogram.record(value);
+    }
+
+    assertEquals(10, histogram.getCount());
+    assertEquals(10, histogram.getMax());
+    assertEquals(5.5, histogram.getMean(), 1e-9);
+    assertEquals(5, histogram.getValueAtPercentile(50));
+    assertEquals(1, histogram.getValueAtPercentile(0));
+    assertEquals(10, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void testRelativePrecision() {
+    for (long value = 1; value <= 1_000_000; value++) {
+      histogram.record(value);
+    }
+
+    assertEquals(1_000_000, histogram.getCount());
+    assertEquals(1_000_000, histogram.getMax());
+    for (double percentile : new double[] {10, 50, 90, 99, 99.9}) {
+      long expected = (long) (percentile * 10_000);
+      long actual = histogram.getValueAtPercentile(percentile);
+      assertTrue(actual >= expected);
+      assertTrue(actual - expected <= expected / 16);
+    }
+  }
+
+  @Test
+  public void testLargeAndNegativeValues() {
+    histogram.record(Long.MAX_VALUE);
+    histogram.record(-5);
+
+    assertEquals(2, histogram.getCount());
+    assertEquals(Long.MAX_VALUE, histogram.getMax());
+    assertEquals(0, histogram.getValueAtPercentile(50));
+    assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongPercentile() {
+    histogram.getValueAtPercentile(101);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.IUnsupportedCharacterListener;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import com.goodneff.t9spelling.core.UnsupportedCharacterPolicy;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9LenientMessageProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9LenientMessageProcessorTest {
+
+  @Test
+  public void testCleanMessageSameAsTableProcessor() {
+    T9TableMessageProcessor reference = new T9TableMessageProcessor();
+    for (UnsupportedCharacterPolicy policy : UnsupportedCharacterPolicy.values()) {
+      T9LenientMessageProcessor messageProcessor = new T9LenientMessageProcessor(policy);
+      for (String message : Arrays.asList("hello world", "abc", "   ", "")) {
+        assertEquals(reference.process(message), messageProcessor.process(message));
+      }
+    }
+  }
+
+  @Test
+  public void testSkip() {
+    T9LenientMessageProcessor messageProcessor =
+        new T9LenientMessageProcessor(UnsupportedCharacterPolicy.SKIP);
+
+    assertEquals("2 2", messageProcessor.process("a!a"));
+    assertEquals("33555 555666", messageProcessor.process("Hello"));
+    assertEquals("", messageProcessor.process("!?"));
+  }
+
+  @Test
+  public void testReplace() {
+    T9LenientMessageProcessor messageProcessor =
+        new T9LenientMessageProcessor(
+            T9KeypadTable.DEFAULT,
+            UnsupportedCharacterPolicy.REPLACE,
+            'x',
+            IUnsupportedCharacterListener.IGNORE);
+
+    assertEquals("299 992", messageProcessor.process("a!?a"));
+  }
+
+  @Test
+  public void testReject() throws IOException {
+    T9LenientMessageProcessor messageProcessor =
+        new T9LenientMessageProcessor(UnsupportedCharacterPolicy.REJECT);
+
+    StringBuilder sb = new StringBuilder("x");
+    assertEquals(2, messageProcessor.encode("Hello!", sb));
+    assertEquals("x", sb.toString());
+    assertEquals(0, messageProcessor.encode("hi", sb));
+    assertEquals("x44 444", sb.toString());
+
+    StringWriter writer = new StringWriter();
+    messageProcessor.process("a1", writer);
+    assertEquals("", writer.toString());
+  }
+
+  @Test
+  public void testFail() {
+    T9LenientMessageProcessor messageProcessor =
+        new T9LenientMessageProcessor(UnsupportedCharacterPolicy.FAIL);
+
+    StringBuilder sb = new StringBuilder("x");
+    try {
+      messageProcessor.process("ab!", sb);
+      fail();
+    } catch (UnsupportedCharacterException ex) {
+      assertEquals("The character '!' is not supported", ex.getMessage());
+      assertEquals(0, ex.getStackTrace().length);
+    }
+    assertEquals("x", sb.toString());
+  }
+
+  @Test
+  public void testAppendableSameAsStringBuilder() throws IOException {
+    for (UnsupportedCharacterPolicy policy : UnsupportedCharacterPolicy.values()) {
+      T9LenientMessageProcessor messageProcessor = new T9LenientMessageProcessor(policy);
+      for (String message : Arrays.asList("hello world", "a!a", "Hello!", "!?", "")) {
+        StringBuilder expected = new StringBuilder();
+        StringWriter actual = new StringWriter();
+        try {
+          messageProcessor.process(message, expected);
+        } catch (UnsupportedCharacterException ex) {
+          // the output is left unchanged
+        }
+        try {
+          messageProcessor.process(message, actual);
+        } catch (UnsupportedCharacterException ex) {
+          // the message is checked before anything is written
+        }
+        assertEquals(expected.toString(), actual.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testListener() {
+    List<Integer> positions = new ArrayList<>();
+    T9LenientMessageProcessor messageProcessor =
+        new T9LenientMessageProcessor(
+            T9KeypadTable.DEFAULT,
+            UnsupportedCharacterPolicy.SKIP,
+            ' ',
+            (message, index) -> positions.add(index));
+
+    assertEquals("2", messageProcessor.process("1a2"));
+    assertEquals(Arrays.asList(0, 2), positions);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedReplacement() {
+    new T9LenientMessageProcessor(
+        T9KeypadTable.DEFAULT,
+        UnsupportedCharacterPolicy.REPLACE,
+        '!',
+        IUnsupportedCharacterListener.IGNORE);
+  }
+}
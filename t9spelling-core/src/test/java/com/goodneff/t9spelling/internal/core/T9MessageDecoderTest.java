@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9MessageDecoder}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9MessageDecoderTest {
+  private T9MessageDecoder decoder;
+
+  @Before
+  public void setUp() {
+    decoder = new T9MessageDecoder();
+  }
+
+  @Test
+  public void testDecodeRegularWorkflow() {
+    assertEquals("hello world", decoder.decode("4433555 555666096667775553"));
+    assertEquals("abc", decoder.decode("2 22 222"));
+    assertEquals("   ", decoder.decode("0 0 0"));
+    assertEquals("", decoder.decode(""));
+  }
+
+  @Test
+  public void testDecodeRoundTrip() {
+    T9TableMessageProcessor encoder = new T9TableMessageProcessor();
+    Random random = new Random(42);
+    for (int attempt = 0; attempt < 1000; attempt++) {
+      String input = TestMessages.random(random, random.nextInt(64));
+      assertEquals(input, decoder.decode(encoder.process(input)));
+    }
+  }
+
+  @Test
+  public void testDecodeMalformed() {
+    for (String encoded :
+        Arrays.asList("1", "2222", "00", " 2", "2 ", "2  2", "2 3", "4a", "2 2 ")) {
+      StringBuilder output = new StringBuilder("x");
+      try {
+        decoder.decode(encoded, output);
+        fail(encoded);
+      } catch (IllegalArgumentException ex) {
+        // ok
+      }
+      assertEquals("x", output.toString());
+    }
+  }
+
+  @Test
+  public void testDecoderWrongTable() {
+    try {
+      new T9MessageDecoder(
+          T9KeypadTable.compile(
+              Arrays.asList(
+                  new T9CharacterProcessor((byte) 1, 'a'),
+                  new T9CharacterProcessor((byte) 1, 'b'))));
+      fail();
+    } catch (IllegalArgumentException ex) {
+      // ok
+    }
+  }
+
+  // and so on ...
+}
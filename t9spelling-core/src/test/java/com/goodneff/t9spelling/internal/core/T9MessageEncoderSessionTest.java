@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.IMessageEncoderSession;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9MessageEncoderSession}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9MessageEncoderSessionTest {
+
+  @Test
+  public void testPauseAcrossChunks() throws IOException {
+    StringWriter writer = new StringWriter();
+    try (IMessageEncoderSession session = T9Engine.DEFAULT.openEncoderSession(writer)) {
+      session.append("hel");
+      session.append('l');
+      session.append(CharBuffer.wrap("o world"));
+    }
+
+    assertEquals("4433555 555666096667775553", writer.toString());
+  }
+
+  @Test
+  public void testRandomChunksSameAsProcessor() throws IOException {
+    Random random = new Random(42);
+    String message = TestMessages.random(random, 100_000);
+    StringWriter writer = new StringWriter();
+    try (IMessageEncoderSession session =
+        new T9MessageEncoderSession(T9KeypadTable.DEFAULT, writer)) {
+      int index = 0;
+      while (index < message.length()) {
+        int end = Math.min(message.length(), index + random.nextInt(100));
+        session.append(message.subSequence(index, end));
+        index = end;
+      }
+    }
+
+    assertEquals(new T9TableMessageProcessor().process(message), writer.toString());
+  }
+
+  @Test
+  public void testReaderToChannel() throws IOException {
+    String message = TestMessages.random(new Random(7), 50_000);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (IMessageEncoderSession session =
+        new T9MessageEncoderSession(T9KeypadTable.DEFAULT, Channels.newChannel(output))) {
+      assertEquals(message.length(), session.append(new StringReader(message)));
+    }
+
+    assertEquals(new T9TableMessageProcessor().process(message), output.toString(US_ASCII));
+  }
+
+  @Test
+  public void testOutputStartsBeforeEnd() throws IOException {
+    StringWriter writer = new StringWriter();
+    IMessageEncoderSession session = new T9MessageEncoderSession(T9KeypadTable.DEFAULT, writer);
+    for (int i = 0; i < 100_000; i++) {
+      session.append('a');
+    }
+
+    // the buffered results are written as soon as the buffer is full
+    assertTrue(writer.getBuffer().length() > 0);
+  }
+
+  @Test
+  public void testEndMessage() throws IOException {
+    StringWriter writer = new StringWriter();
+    try (IMessageEncoderSession session = T9Engine.DEFAULT.openEncoderSession(writer)) {
+      session.append("ab");
+      session.endMessage();
+      session.append("c");
+    }
+
+    assertEquals("2 22222", writer.toString());
+  }
+
+  @Test
+  public void testUnsupportedCharacter() throws IOException {
+    StringWriter writer = new StringWriter();
+    try (IMessageEncoderSession session = T9Engine.DEFAULT.openEncoderSession(writer)) {
+      CharBuffer chunk = CharBuffer.wrap("hi!a");
+      try {
+        session.append(chunk);
+        fail("The unsupported character is not reported");
+      } catch (UnsupportedCharacterException ex) {
+        assertEquals(2, chunk.position());
+      }
+      chunk.position(3);
+      session.append(chunk);
+    }
+
+    assertEquals("44 4442", writer.toString());
+  }
+
+  @Test(expected = IOException.class)
+  public void testAppendAfterClose() throws IOException {
+    IMessageEncoderSession session = T9Engine.DEFAULT.openEncoderSession(new StringWriter());
+    session.close();
+    session.append('a');
+  }
+}
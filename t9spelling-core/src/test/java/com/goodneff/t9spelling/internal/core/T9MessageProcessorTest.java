@@ -42,7 +42,7 @@ public class T9MessageProcessorTest {
     when(factory.getOrCreateProcessor('a')).thenReturn(processorA);
     when(factory.getOrCreateProcessor('b')).thenReturn(processorB);
 
-    messageProcessor.setCharacterProcessorFactory(factory);
+    messageProcessor = new T9MessageProcessor(factory);
 
     String result = messageProcessor.process("a");
     assertEquals("A", result);
@@ -68,7 +68,7 @@ public class T9MessageProcessorTest {
     ICharacterProcessorFactory factory = mock(ICharacterProcessorFactory.class);
     when(factory.getOrCreateProcessor('a')).thenReturn(processorA);
 
-    messageProcessor.setCharacterProcessorFactory(factory);
+    messageProcessor = new T9MessageProcessor(factory);
 
     String result = messageProcessor.process("a");
     assertEquals("A", result);
@@ -84,7 +84,7 @@ public class T9MessageProcessorTest {
 
     ICharacterProcessorFactory factory = mock(ICharacterProcessorFactory.class);
     when(factory.getOrCreateProcessor('a')).thenReturn(processorA);
-    messageProcessor.setCharacterProcessorFactory(factory);
+    messageProcessor = new T9MessageProcessor(factory);
 
     String result = messageProcessor.process("a a");
   }
@@ -93,7 +93,7 @@ public class T9MessageProcessorTest {
   public void testProcessEmpty() {
     ICharacterProcessorFactory factory = mock(ICharacterProcessorFactory.class);
     when(factory.getOrCreateProcessor('a')).thenReturn(null);
-    messageProcessor.setCharacterProcessorFactory(factory);
+    messageProcessor = new T9MessageProcessor(factory);
 
     String result = messageProcessor.process("");
     assertEquals("", result);
@@ -116,7 +116,7 @@ public class T9MessageProcessorTest {
 
     ICharacterProcessorFactory factory = mock(ICharacterProcessorFactory.class);
     when(factory.getOrCreateProcessor(anyChar())).thenReturn(processor);
-    messageProcessor.setCharacterProcessorFactory(factory);
+    messageProcessor = new T9MessageProcessor(factory);
 
     String result = messageProcessor.process("as   o23mv jf");
 
@@ -127,7 +127,7 @@ public class T9MessageProcessorTest {
   @Test
   public void testComplexScenario2() {
     // in fact it is an integration test, but for simplicity lets keep it here
-    messageProcessor.setCharacterProcessorFactory(ICharacterProcessorFactory.INSTANCE);
+    messageProcessor = new T9MessageProcessor(ICharacterProcessorFactory.INSTANCE);
     String result = messageProcessor.process("hello world");
     assertEquals("4433555 555666096667775553", result);
   }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9MeteredMessageProcessor} and {@link T9MessageMetrics}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9MeteredMessageProcessorTest {
+  private T9MessageMetrics metrics;
+  private T9MeteredMessageProcessor messageProcessor;
+
+  @Before
+  public void setUp() {
+    metrics = new T9MessageMetrics();
+    messageProcessor =
+        new T9MeteredMessageProcessor(T9Engine.DEFAULT.getMessageProcessor(), metrics);
+  }
+
+  @Test
+  public void testProcessRegularWorkflow() throws IOException {
+    assertEquals("4433555 555666096667775553", messageProcessor.process("hello world"));
+
+    StringBuilder sb = new StringBuilder("x");
+    messageProcessor.process("abc", sb);
+    assertEquals("x2 22 222", sb.toString());
+
+    StringWriter writer = new StringWriter();
+    messageProcessor.process("hi", writer);
+    assertEquals("44 444", writer.toString());
+
+    assertEquals(3, metrics.getMessageCount());
+    assertEquals(16, metrics.getCharacterCount());
+    assertEquals(40, metrics.getOutputCharacterCount());
+    assertEquals(0, metrics.getUnsupportedCharacterErrorCount());
+    assertTrue(metrics.getLatencyMaxMicros() > 0);
+    assertTrue(metrics.getLatency50thPercentileMicros() <= metrics.getLatencyMaxMicros());
+  }
+
+  @Test
+  public void testProcessUnsupported() {
+    try {
+      messageProcessor.process("Hello");
+      fail();
+    } catch (UnsupportedCharacterException ex) {
+      // ok
+    }
+
+    assertEquals(0, metrics.getMessageCount());
+    assertEquals(1, metrics.getUnsupportedCharacterErrorCount());
+  }
+
+  @Test
+  public void testToStringInAnyLocale() {
+    messageProcessor.process("hello world");
+    Locale locale = Locale.getDefault();
+    Locale.setDefault(Locale.GERMANY);
+    try {
+      String text = metrics.toString();
+
+      assertTrue(
+          text, text.startsWith("messages=1, characters=11, output=26, errors=0, latency us"));
+      assertTrue(text, text.matches(".*mean=[0-9]+\\.[0-9],.*"));
+    } finally {
+      Locale.setDefault(locale);
+    }
+  }
+
+  @Test
+  public void testRegister() throws JMException {
+    messageProcessor.process("abc");
+    ObjectName name = metrics.register("test");
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      assertEquals(1L, server.getAttribute(name, "MessageCount"));
+      assertEquals(3L, server.getAttribute(name, "CharacterCount"));
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullOrigin() {
+    new T9MeteredMessageProcessor(null, metrics);
+  }
+}
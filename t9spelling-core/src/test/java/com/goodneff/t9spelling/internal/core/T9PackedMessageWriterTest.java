@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.IPackedMessageReader;
+import com.goodneff.t9spelling.core.IPackedMessageWriter;
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9PackedMessageWriter} and {@link T9PackedMessageReader}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9PackedMessageWriterTest {
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    List<String> messages = Arrays.asList("hello world", "", "aa", "foo  bar", "", "zzz");
+    byte[] packed = pack(T9Engine.DEFAULT, messages);
+
+    assertEquals(encode(messages), unpack(T9Engine.DEFAULT, packed));
+  }
+
+  @Test
+  public void testRandomRoundTrip() throws IOException {
+    Random random = new Random(42);
+    List<String> messages = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      messages.add(TestMessages.random(random, random.nextInt(100)));
+    }
+    byte[] packed = pack(T9Engine.DEFAULT, messages);
+
+    assertEquals(encode(messages), unpack(T9Engine.DEFAULT, packed));
+  }
+
+  @Test
+  public void testPackedSize() throws IOException {
+    Random random = new Random(7);
+    List<String> messages = new ArrayList<>();
+    long textLength = 0;
+    for (int i = 0; i < 1000; i++) {
+      String message = TestMessages.random(random, 100);
+      messages.add(message);
+      textLength += T9Engine.DEFAULT.getMessageProcessor().process(message).length() + 1;
+    }
+    byte[] packed = pack(T9Engine.DEFAULT, messages);
+
+    // 5 bits per character of the default keypad against more than 2 digits and pauses
+    assertTrue(packed.length * 3 < textLength);
+  }
+
+  @Test
+  public void testEmptyStream() throws IOException {
+    byte[] packed = pack(T9Engine.DEFAULT, new ArrayList<>());
+
+    assertEquals(T9PackedCodes.HEADER_LENGTH + 1, packed.length);
+    assertEquals(new ArrayList<>(), unpack(T9Engine.DEFAULT, packed));
+  }
+
+  @Test
+  public void testUnsupportedCharacterWritesNothing() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (IPackedMessageWriter writer = T9Engine.DEFAULT.openPackedWriter(output)) {
+      writer.write("abc");
+      try {
+        writer.write("de#f");
+        fail("UnsupportedCharacterException is expected");
+      } catch (UnsupportedCharacterException ex) {
+        // expected
+      }
+      writer.write("ghi");
+    }
+
+    assertEquals(
+        encode(Arrays.asList("abc", "ghi")), unpack(T9Engine.DEFAULT, output.toByteArray()));
+  }
+
+  @Test
+  public void testCustomLayout() throws IOException {
+    T9Engine engine = new T9Engine(T9KeypadLayouts.get("latin-extended"));
+    List<String> messages = Arrays.asList("ça va à côté", "ßüß", "");
+    byte[] packed = pack(engine, messages);
+
+    List<String> expected = new ArrayList<>();
+    for (String message : messages) {
+      expected.add(engine.getMessageProcessor().process(message));
+    }
+    assertEquals(expected, unpack(engine, packed));
+  }
+
+  @Test(expected = IOException.class)
+  public void testAnotherLayoutRejected() throws IOException {
+    byte[] packed = pack(T9Engine.DEFAULT, Arrays.asList("abc"));
+
+    unpack(new T9Engine(T9KeypadLayouts.get("greek")), packed);
+  }
+
+  @Test
+  public void testTruncatedStreamRejected() throws IOException {
+    byte[] packed = pack(T9Engine.DEFAULT, Arrays.asList("hello world", "hello world"));
+    byte[] truncated = Arrays.copyOf(packed, packed.length - 4);
+
+    StringBuilder output = new StringBuilder();
+    try (IPackedMessageReader reader =
+        T9Engine.DEFAULT.openPackedReader(new ByteArrayInputStream(truncated))) {
+      assertTrue(reader.read(output));
+      assertEquals("4433555 555666096667775553", output.toString());
+      try {
+        reader.read(output);
+        fail("IOException is expected");
+      } catch (IOException ex) {
+        // the broken message is not appended
+        assertEquals("4433555 555666096667775553", output.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testAbortedStreamRejected() throws IOException {
+    ByteArrayOutputStream packed = new ByteArrayOutputStream();
+    IPackedMessageWriter writer = T9Engine.DEFAULT.openPackedWriter(packed);
+    writer.write("hello world");
+    writer.abort();
+    writer.abort();
+    writer.close();
+
+    StringBuilder output = new StringBuilder();
+    try (IPackedMessageReader reader =
+        T9Engine.DEFAULT.openPackedReader(new ByteArrayInputStream(packed.toByteArray()))) {
+      while (reader.read(output)) {
+        output.setLength(0);
+      }
+      fail("IOException is expected");
+    } catch (IOException ex) {
+      // expected
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotPackedStreamRejected() throws IOException {
+    unpack(T9Engine.DEFAULT, "3\nabc\ndef\nghi\n".getBytes());
+  }
+
+  @Test
+  public void testReadAfterEnd() throws IOException {
+    byte[] packed = pack(T9Engine.DEFAULT, Arrays.asList("a"));
+
+    StringBuilder output = new StringBuilder();
+    try (IPackedMessageReader reader =
+        new T9PackedMessageReader(new ByteArrayInputStream(packed))) {
+      assertTrue(reader.read(output));
+      assertFalse(reader.read(output));
+      assertFalse(reader.read(output));
+    }
+    assertEquals("2", output.toString());
+  }
+
+  private static byte[] pack(T9Engine engine, List<String> messages) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (IPackedMessageWriter writer = engine.openPackedWriter(output)) {
+      for (String message : messages) {
+        writer.write(message);
+      }
+    }
+    return output.toByteArray();
+  }
+
+  private static List<String> unpack(T9Engine engine, byte[] packed) throws IOException {
+    List<String> result = new ArrayList<>();
+    try (IPackedMessageReader reader = engine.openPackedReader(new ByteArrayInputStream(packed))) {
+      StringBuilder output = new StringBuilder();
+      while (reader.read(output)) {
+        result.add(output.toString());
+        output.setLength(0);
+      }
+    }
+    return result;
+  }
+
+  private static List<String> encode(List<String> messages) {
+    List<String> result = new ArrayList<>();
+    for (String message : messages) {
+      result.add(new T9TableMessageProcessor().process(message));
+    }
+    return result;
+  }
+}
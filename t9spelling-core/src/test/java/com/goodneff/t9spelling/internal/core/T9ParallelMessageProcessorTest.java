@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9ParallelMessageProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9ParallelMessageProcessorTest {
+  private static ForkJoinPool pool;
+
+  @BeforeClass
+  public static void setUpPool() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterClass
+  public static void tearDownPool() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testSameAsSerialForAnyChunkSize() {
+    T9TableMessageProcessor reference = new T9TableMessageProcessor();
+    String message = TestMessages.random(new Random(42), 10_000);
+    String expected = reference.process(message);
+
+    for (int chunkSize : new int[] {1, 2, 3, 7, 64, 1000, 9_999, 10_000, 20_000}) {
+      T9ParallelMessageProcessor messageProcessor =
+          new T9ParallelMessageProcessor(T9KeypadTable.DEFAULT, pool, chunkSize);
+      assertEquals(expected, messageProcessor.process(message));
+    }
+  }
+
+  @Test
+  public void testStringSameAsEncodedArray() {
+    String message = TestMessages.random(new Random(7), 10_000);
+    T9ParallelMessageProcessor messageProcessor =
+        new T9ParallelMessageProcessor(T9KeypadTable.DEFAULT, pool, 1000);
+
+    assertEquals(
+        String.valueOf(messageProcessor.encode(message)), messageProcessor.process(message));
+  }
+
+  @Test
+  public void testPausesAtChunkBoundaries() {
+    T9ParallelMessageProcessor messageProcessor =
+        new T9ParallelMessageProcessor(T9KeypadTable.DEFAULT, pool, 1);
+
+    assertEquals("2 22 222", messageProcessor.process("abc"));
+    assertEquals("0 0 0", messageProcessor.process("   "));
+    assertEquals("4433555 555666096667775553", messageProcessor.process("hello world"));
+  }
+
+  @Test
+  public void testEmptyMessage() {
+    assertEquals("", new T9ParallelMessageProcessor().process(""));
+  }
+
+  @Test
+  public void testAppendToOutputs() throws IOException {
+    T9ParallelMessageProcessor messageProcessor =
+        new T9ParallelMessageProcessor(T9KeypadTable.DEFAULT, pool, 4);
+
+    StringBuilder sb = new StringBuilder("Case #1: ");
+    messageProcessor.process("hello world", sb);
+    assertEquals("Case #1: 4433555 555666096667775553", sb.toString());
+
+    StringWriter writer = new StringWriter();
+    messageProcessor.process("hi", writer);
+    assertEquals("44 444", writer.toString());
+  }
+
+  @Test
+  public void testFirstUnsupportedCharacterReported() {
+    T9ParallelMessageProcessor messageProcessor =
+        new T9ParallelMessageProcessor(T9KeypadTable.DEFAULT, pool, 3);
+    StringBuilder sb = new StringBuilder();
+
+    try {
+      messageProcessor.process("abcdefg!hijk?lmn", sb);
+      fail("The unsupported character is not reported");
+    } catch (UnsupportedCharacterException ex) {
+      assertEquals("The character '!' is not supported", ex.getMessage());
+      assertEquals(0, sb.length());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveChunkSize() {
+    new T9ParallelMessageProcessor(T9KeypadTable.DEFAULT, pool, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMessage() {
+    new T9ParallelMessageProcessor().process(null);
+  }
+}
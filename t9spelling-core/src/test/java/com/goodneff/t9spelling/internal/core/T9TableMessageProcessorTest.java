@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9TableMessageProcessor}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9TableMessageProcessorTest {
+  private T9TableMessageProcessor messageProcessor;
+
+  @Before
+  public void setUp() {
+    messageProcessor = new T9TableMessageProcessor();
+  }
+
+  @Test
+  public void testProcessRegularWorkflow() {
+    assertEquals("4433555 555666096667775553", messageProcessor.process("hello world"));
+    assertEquals("2 22 222", messageProcessor.process("abc"));
+    assertEquals("0 0 0", messageProcessor.process("   "));
+    assertEquals("", messageProcessor.process(""));
+  }
+
+  @Test
+  public void testProcessCustomTable() {
+    T9KeypadTable table =
+        T9KeypadTable.compile(
+            Arrays.asList(
+                new T9CharacterProcessor((byte) 1, 'x', 'z'),
+                new T9CharacterProcessor((byte) 8, 'a')));
+    messageProcessor = new T9TableMessageProcessor(table);
+
+    assertEquals("11 18 8", messageProcessor.process("zxaa"));
+  }
+
+  @Test
+  public void testProcessSameAsMessageProcessor() {
+    T9MessageProcessor reference = new T9MessageProcessor();
+    Random random = new Random(42);
+    for (int attempt = 0; attempt < 1000; attempt++) {
+      String input = TestMessages.random(random, random.nextInt(64));
+      assertEquals(reference.process(input), messageProcessor.process(input));
+    }
+  }
+
+  @Test
+  public void testProcessUnsupported() {
+    for (String message : Arrays.asList("A", "hello!", "\u0000", "￿")) {
+      try {
+        messageProcessor.process(message);
+        fail();
+      } catch (UnsupportedCharacterException ex) {
+        // ok
+      }
+    }
+  }
+
+  @Test
+  public void testProcessIntoStringBuilder() {
+    StringBuilder output = new StringBuilder("> ");
+    messageProcessor.process("hello", output);
+    messageProcessor.process(new StringBuilder(" world"), output);
+    assertEquals("> 4433555 555666096667775553", output.toString());
+
+    try {
+      messageProcessor.process("abC", output);
+      fail();
+    } catch (UnsupportedCharacterException ex) {
+      // ok
+    }
+    assertEquals("> 4433555 555666096667775553", output.toString());
+  }
+
+  @Test
+  public void testProcessIntoAppendable() throws IOException {
+    CharBuffer output = CharBuffer.allocate(64);
+    messageProcessor.process("hello world", output);
+    output.flip();
+    assertEquals("4433555 555666096667775553", output.toString());
+
+    StringWriter writer = new StringWriter();
+    messageProcessor.process("aa", writer);
+    assertEquals("2 2", writer.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testProcessNull() {
+    messageProcessor.process(null);
+  }
+
+  // and so on ...
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.goodneff.t9spelling.core.UnsupportedCharacterException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A set of test cases for {@link T9VectorMessageEncoder}
+ *
+ * @author Alexey Gudnev
+ */
+public class T9VectorMessageEncoderTest {
+  private T9VectorMessageEncoder encoder;
+
+  @Before
+  public void setUp() {
+    encoder = new T9VectorMessageEncoder();
+  }
+
+  @Test
+  public void testEngineUsesVectorEncoder() {
+    assertTrue(T9Engine.DEFAULT.getVectorMessageEncoder() instanceof T9VectorMessageEncoder);
+  }
+
+  @Test
+  public void testEncodeRegularWorkflow() {
+    assertEquals("4433555 555666096667775553", encode("hello world", ByteOrder.BIG_ENDIAN));
+    assertEquals("", encode("", ByteOrder.BIG_ENDIAN));
+  }
+
+  @Test
+  public void testEncodeSameAsMessageProcessor() {
+    T9MessageProcessor reference = new T9MessageProcessor();
+    Random random = new Random(42);
+    for (int attempt = 0; attempt < 1000; attempt++) {
+      int length = random.nextInt(1024);
+      // the messages of repeated characters check the pauses between the vectors
+      String alphabet =
+          attempt % 2 == 0 ? TestMessages.ALPHABET : TestMessages.ALPHABET.substring(0, 2);
+      String input = TestMessages.random(random, length, alphabet);
+      ByteOrder order = attempt % 3 == 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+      assertEquals(reference.process(input), encode(input, order));
+    }
+  }
+
+  @Test
+  public void testEncodeRange() {
+    String message = "xx" + "hi".repeat(100) + "xx";
+    ByteBuffer input = ByteBuffer.allocateDirect(message.length());
+    input.put(message.getBytes(US_ASCII)).clear();
+    ByteBuffer output = ByteBuffer.allocateDirect(1024);
+    output.put((byte) '>');
+
+    int written = encoder.encode(input, 2, message.length() - 2, output);
+
+    String expected = new T9MessageProcessor().process("hi".repeat(100));
+    assertEquals(expected.length(), written);
+    assertEquals(0, input.position());
+    output.flip();
+    assertEquals(">" + expected, decode(output));
+  }
+
+  @Test
+  public void testEncodeUnsupported() {
+    String clean = "a".repeat(300);
+    for (int index : new int[] {0, 17, 100, 299}) {
+      for (char character : new char[] {'A', '!', 'é'}) {
+        StringBuilder message = new StringBuilder(clean);
+        message.setCharAt(index, character);
+        ByteBuffer input = ByteBuffer.wrap(message.toString().getBytes(ISO_8859_1));
+        ByteBuffer output = ByteBuffer.allocate(1024);
+        try {
+          encoder.encode(input, 0, input.limit(), output);
+          fail();
+        } catch (UnsupportedCharacterException ex) {
+          assertEquals("The character '" + character + "' is not supported", ex.getMessage());
+        }
+        assertEquals(0, output.position());
+      }
+    }
+  }
+
+  @Test
+  public void testEncodeExactOutput() {
+    String message = "z".repeat(200);
+    ByteBuffer input = ByteBuffer.wrap(message.getBytes(US_ASCII));
+    ByteBuffer output = ByteBuffer.allocate(999);
+
+    assertEquals(999, encoder.encode(input, 0, input.limit(), output));
+    assertEquals(999, output.position());
+  }
+
+  @Test
+  public void testEncodeOverflow() {
+    ByteBuffer input = ByteBuffer.wrap("hello".repeat(100).getBytes(US_ASCII));
+    ByteBuffer output = ByteBuffer.allocate(100);
+    try {
+      encoder.encode(input, 0, input.limit(), output);
+      fail();
+    } catch (BufferOverflowException ex) {
+      // ok
+    }
+    assertEquals(0, output.position());
+  }
+
+  private String encode(String message, ByteOrder order) {
+    ByteBuffer input = ByteBuffer.wrap(message.getBytes(US_ASCII));
+    ByteBuffer output =
+        ByteBuffer.allocate((int) encoder.maxEncodedLength(message.length())).order(order);
+    encoder.encode(input, 0, input.limit(), output);
+    output.flip();
+    return decode(output);
+  }
+
+  private static String decode(ByteBuffer buffer) {
+    return US_ASCII.decode(buffer).toString();
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020.  Goodneff.
+ * All rights reserved.
+ */
+package com.goodneff.t9spelling.internal.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A generator of random test messages.
+ *
+ * <p>The messages consist of the lowercase Latin letters and spaces, which are supported by the
+ * default T9 keypad.
+ *
+ * @author Alexey Gudnev
+ */
+final class TestMessages {
+  /** The characters of the generated messages. */
+  static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz ";
+
+  private TestMessages() {}
+
+  /**
+   * Generates a message of the specified {@code length}.
+   *
+   * @param random the source of randomness.
+   * @param length the message length.
+   * @return a generated message.
+   */
+  static String random(Random random, int length) {
+    return random(random, length, ALPHABET);
+  }
+
+  /**
+   * Generates a message of the specified {@code length} of the characters of the {@code alphabet}.
+   *
+   * @param random the source of randomness.
+   * @param length the message length.
+   * @param alphabet the characters of the message.
+   * @return a generated message.
+   */
+  static String random(Random random, int length, String alphabet) {
+    char[] message = new char[length];
+    for (int i = 0; i < length; i++) {
+      message[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+    }
+    return String.valueOf(message);
+  }
+
+  /**
+   * Generates the messages of random lengths.
+   *
+   * @param random the source of randomness.
+   * @param count the number of messages.
+   * @param lengthBound the exclusive upper bound of the message length.
+   * @return the generated messages.
+   */
+  static List<String> randomList(Random random, int count, int lengthBound) {
+    List<String> messages = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      messages.add(random(random, random.nextInt(lengthBound)));
+    }
+    return messages;
+  }
+}